@@ -5,43 +5,389 @@ import farmhelp.model.Worker;
 import farmhelp.model.Request;
 import farmhelp.model.Allocation;
 import farmhelp.model.Person;
+import farmhelp.model.Vocabulary;
+import farmhelp.exception.AllocationException;
 import farmhelp.exception.FarmerException;
 import farmhelp.exception.WorkerException;
 import farmhelp.exception.LandSizeViolationException;
-import farmhelp.exception.SkillMismatchException;
-import farmhelp.exception.InsufficientWorkersException;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class Admin {
     private Map<Integer, Farmer> farmers;
     private Map<Integer, Worker> workers;
     private Map<Integer, Request> requests;
     private Map<Integer, Allocation> allocations;
+    private final WorkerIndex workerIndex = new WorkerIndex();
+    private final LocationLocks locationLocks = new LocationLocks();
+    private final PendingQueue pendingQueue = new PendingQueue();
+    private final QueryIndex queryIndex = new QueryIndex();
+    private final AllocationExpiry expiry = new AllocationExpiry(this::expireAllocation);
+    private final Metrics metrics = new Metrics(pendingQueue::sizes, this::availableWorkersByLocation);
+    private final SnapshotPublisher snapshots;
+    // Handed to every allocation kept here, so closing one directly still goes through closeAllocation.
+    private final Allocation.Owner allocationOwner = (allocation, status) -> closeAllocation(allocation.getAllocationId(), status);
+    // Mutations share the read side; compaction takes the write side just long enough to pair a
+    // snapshot with a journal position, so no record slips between the two.
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    // One snapshot write at a time: they share the temporary files and the journal mark.
+    private final Object compactionLock = new Object();
+    private final Journal journal;
+    private final PersistenceWriter persistence;
+    private final int compactionThreshold;
+    private final boolean binarySnapshot;
+    private volatile boolean incrementalMatching;
+    private volatile double matchingRadiusKm;
+    private final File dataDir;
+    private final IdSequence personIds;
+    private final IdSequence requestIds;
+    private final IdSequence allocationIds;
+    // Null for an Admin that owns every location.
+    private final ShardRouting routing;
+    private final int shard;
+
+    public static final String JOURNAL_FILE = "journal.txt";
+    public static final String SNAPSHOT_FILE = "snapshot.bin";
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 10000;
 
     public Admin() {
-        this.farmers = new HashMap<>();
-        this.workers = new HashMap<>();
-        this.requests = new HashMap<>();
-        this.allocations = new HashMap<>();
+        this(false, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * @param syncJournal         fsync the journal on every commit instead of leaving it to the OS
+     * @param compactionThreshold journal records after which state is folded into the snapshot files
+     */
+    public Admin(boolean syncJournal, int compactionThreshold) {
+        this(syncJournal, compactionThreshold, false);
+    }
+
+    /**
+     * @param binarySnapshot also write {@link #SNAPSHOT_FILE} whenever the text snapshot files are written
+     */
+    public Admin(boolean syncJournal, int compactionThreshold, boolean binarySnapshot) {
+        this(new File("."), IdRange.ALL, syncJournal, compactionThreshold, binarySnapshot);
+    }
+
+    /**
+     * @param dataDir directory for the snapshot and journal files, created if missing
+     * @param ids     IDs this instance may hand out; see {@link ShardedAdmin}
+     */
+    public Admin(File dataDir, IdRange ids, boolean syncJournal, int compactionThreshold, boolean binarySnapshot) {
+        this(dataDir, ids, null, -1, syncJournal, compactionThreshold, binarySnapshot);
+    }
+
+    /**
+     * Shard {@code shard} of {@code routing}: hands out that shard's IDs and registers farmers
+     * and workers only in the locations the routing gives it, so a client that routes a call
+     * to the wrong shard gets an error instead of a record no other shard can see.
+     */
+    public Admin(File dataDir, ShardRouting routing, int shard, boolean syncJournal, int compactionThreshold,
+                 boolean binarySnapshot) {
+        this(dataDir, routing.idRange(shard), routing, shard, syncJournal, compactionThreshold, binarySnapshot);
+    }
+
+    private Admin(File dataDir, IdRange ids, ShardRouting routing, int shard, boolean syncJournal,
+                  int compactionThreshold, boolean binarySnapshot) {
+        if (!dataDir.isDirectory() && !dataDir.mkdirs()) {
+            throw new IllegalArgumentException("Cannot create data directory " + dataDir);
+        }
+        this.dataDir = dataDir;
+        this.routing = routing;
+        this.shard = shard;
+        this.personIds = new IdSequence(ids);
+        this.requestIds = new IdSequence(ids);
+        this.allocationIds = new IdSequence(ids);
+        this.farmers = new ConcurrentHashMap<>();
+        this.workers = new ConcurrentHashMap<>();
+        this.requests = new ConcurrentHashMap<>();
+        this.allocations = new ConcurrentHashMap<>();
+        this.snapshots = new SnapshotPublisher(farmers, workers, requests, allocations);
+        this.journal = new Journal(new File(dataDir, JOURNAL_FILE), syncJournal);
+        this.persistence = new PersistenceWriter(journal, syncJournal, this::compactIfStillNeeded);
+        journal.setCommitHandler(persistence::commit);
+        this.compactionThreshold = compactionThreshold;
+        this.binarySnapshot = binarySnapshot;
         loadAllData();
     }
 
     public void registerFarmer(String name, String location, String crop, double landSize, double income) throws FarmerException {
-        Farmer farmer = new Farmer(name, location, crop, landSize, income);
-        farmers.put(farmer.getId(), farmer);
-        saveFarmersToFile();
+        registerFarmer(name, location, crop, landSize, income, Double.NaN, Double.NaN);
+    }
+
+    /** As above, with the farm's position in decimal degrees for matching by distance; see {@link #setMatchingRadius}. */
+    public void registerFarmer(String name, String location, String crop, double landSize, double income,
+                               double latitude, double longitude) throws FarmerException {
+        long metricsStart = metrics.start();
+        try {
+            // The batch path validates first, so a rejected farmer does not use up an ID.
+            Farmer draft = new Farmer(0, name, location, crop, landSize, income);
+            draft.setCoordinates(latitude, longitude);
+            BatchResult result = registerFarmers(List.of(draft));
+            if (result.getFailedCount() > 0) {
+                throw new FarmerException(result.getFailures().get(0));
+            }
+        } catch (FarmerException | RuntimeException e) {
+            metrics.recordError(Metrics.Operation.REGISTER_FARMER);
+            throw e;
+        } finally {
+            metrics.record(Metrics.Operation.REGISTER_FARMER, metricsStart);
+        }
     }
 
     public void registerWorker(String name, String location, List<String> skills) throws WorkerException {
-        Worker worker = new Worker(name, location, skills);
+        registerWorker(name, location, skills, Double.NaN, Double.NaN);
+    }
+
+    /** As above, with the worker's position in decimal degrees for matching by distance. */
+    public void registerWorker(String name, String location, List<String> skills,
+                               double latitude, double longitude) throws WorkerException {
+        long metricsStart = metrics.start();
+        try {
+            Worker draft = new Worker(0, name, location, skills, true);
+            draft.setCoordinates(latitude, longitude);
+            BatchResult result = registerWorkers(List.of(draft));
+            if (result.getFailedCount() > 0) {
+                throw new WorkerException(result.getFailures().get(0));
+            }
+        } catch (WorkerException | RuntimeException e) {
+            metrics.recordError(Metrics.Operation.REGISTER_WORKER);
+            throw e;
+        } finally {
+            metrics.record(Metrics.Operation.REGISTER_WORKER, metricsStart);
+        }
+    }
+
+    /** False only for a location that this Admin's {@link ShardRouting} gives to another shard. */
+    public boolean ownsLocation(String location) {
+        return routing == null || routing.shardForLocation(location) == shard;
+    }
+
+    private String notOwned(String location) {
+        return "Location " + location + " belongs to shard " + routing.shardForLocation(location) + ", not shard " + shard;
+    }
+
+    private void addWorker(Worker worker) {
+        worker.markRegistered();
         workers.put(worker.getId(), worker);
-        saveWorkersToFile();
+        worker.setAvailabilityListener(this::onAvailabilityChanged);
+        workerIndex.add(worker);
+        snapshots.workerChanged(worker.getId());
+    }
+
+    private void onAvailabilityChanged(Worker worker, boolean available) {
+        beginMutation();
+        try {
+            if (available) {
+                workerIndex.add(worker);
+            } else {
+                workerIndex.remove(worker);
+            }
+            snapshots.workerChanged(worker.getId());
+            journal.append("V," + worker.getId() + "," + available);
+        } finally {
+            endMutation();
+        }
+        // The worker's monitor is held here and allocation takes location lock before worker
+        // monitor, so matching for a returning worker has to run on another thread.
+        if (available && incrementalMatching) {
+            ForkJoinPool.commonPool().execute(() -> {
+                matchWorker(worker);
+                compactIfNeeded();
+            });
+        }
+    }
+
+    /**
+     * In incremental mode a new request is matched as soon as it is created, and a worker
+     * who is registered or becomes available again is offered only to requests waiting at
+     * that worker's location for one of that worker's skills. {@link #allocateWorkers()}
+     * still processes whatever is left pending, e.g. requests created before switching on.
+     */
+    public void setIncrementalMatching(boolean enabled) {
+        this.incrementalMatching = enabled;
+    }
+
+    public boolean isIncrementalMatching() {
+        return incrementalMatching;
+    }
+
+    /**
+     * With a radius above 0, a farmer who has coordinates is served by the nearest available
+     * workers with the skill within {@code radiusKm}, whatever their location name, nearest
+     * first; workers at the farmer's own location without coordinates come after them. 0, the
+     * default, matches on location name only. {@link #allocateWorkersOptimal()} always matches
+     * on location name, and in incremental mode a returning worker is still only offered to
+     * requests at the worker's own location. On one shard of a {@link ShardRouting}, only
+     * this shard's workers are searched, so the radius stops at the shard's locations.
+     */
+    public void setMatchingRadius(double radiusKm) {
+        if (!(radiusKm >= 0)) {
+            throw new IllegalArgumentException("Radius must be >= 0: " + radiusKm);
+        }
+        this.matchingRadiusKm = radiusKm;
+    }
+
+    public double getMatchingRadius() {
+        return matchingRadiusKm;
+    }
+
+    /**
+     * Up to {@code limit} available workers with the skill within {@code radiusKm} of the point,
+     * nearest first, as read-only copies like those in {@link #getWorkers()}.
+     */
+    public List<Worker> findNearestWorkers(double latitude, double longitude, String skill, double radiusKm, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + limit);
+        }
+        List<Worker> nearest = workerIndex.nearest(latitude, longitude, Vocabulary.findSkill(skill), radiusKm, limit, worker -> true);
+        nearest.replaceAll(Worker::new);
+        return nearest;
+    }
+
+    /**
+     * Queues a new request and, in incremental mode, serves its location and skill straight
+     * away. Requests already waiting for the same skill there go first, so matching on
+     * arrival keeps the lowest-income-first order.
+     */
+    private void enqueue(Request request) {
+        Farmer farmer = farmers.get(request.getFarmerId());
+        pendingQueue.add(request, farmer);
+        if (!incrementalMatching || farmer == null) {
+            return;
+        }
+        serveWaiting(farmer.getLocationCode(), Vocabulary.normalizeLocation(farmer.getLocation()),
+                Collections.singletonList(request.getSkillRequired()), () -> requests.get(request.getRequestId()) == request);
+    }
+
+    /** Offers a newly available worker to the requests waiting at the worker's location for the worker's skills. */
+    private void matchWorker(Worker worker) {
+        if (!incrementalMatching || !worker.isAvailable()) {
+            return;
+        }
+        beginMutation();
+        try {
+            serveWaiting(worker.getLocationCode(), Vocabulary.normalizeLocation(worker.getLocation()),
+                    worker.getSkills(), worker::isAvailable);
+        } finally {
+            endMutation();
+        }
+    }
+
+    /**
+     * Serves waiting requests for the given skills at one location, best-placed first, while
+     * {@code more} holds and until one cannot be served. Each pass either books workers or
+     * discards an already-served entry, so the work per event is bounded by what it allocates.
+     * Runs under the location lock so a request queued and a worker freed at the same time
+     * cannot miss each other.
+     */
+    private void serveWaiting(int locationCode, String location, Collection<String> skills, BooleanSupplier more) {
+        ReentrantLock lock = locationLocks.forLocation(locationCode);
+        lock.lock();
+        try {
+            while (more.getAsBoolean()) {
+                PendingQueue.Entry entry = pendingQueue.pollFirst(location, skills);
+                if (entry == null) {
+                    break;
+                }
+                AllocationResult.Outcome outcome = processRequest(entry.request);
+                if (outcome != null && !outcome.isAllocated()) {
+                    pendingQueue.add(entry);
+                    break;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void beginMutation() {
+        stateLock.readLock().lock();
+        journal.beginBatch();
+    }
+
+    private void endMutation() {
+        boolean outermost;
+        try {
+            outermost = journal.endBatch();
+            // Before unlocking, so a compaction holding the write lock sees every ended batch published.
+            if (outermost) {
+                snapshots.publish();
+            }
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        // After unlocking: a synchronous commit waits on the writer, which may be compacting.
+        if (outermost) {
+            persistence.commit();
+        }
     }
 
     public void createWorkerRequest(int farmerId, String skillRequired, int workersRequested) throws FarmerException, LandSizeViolationException {
+        createWorkerRequest(farmerId, skillRequired, workersRequested, 0, 0);
+    }
+
+    /**
+     * As above, for work during {@code [workStart, workEnd)} in epoch milliseconds. Such a
+     * request is only served by workers with no booking in that window, and books them for
+     * the window alone, so one worker can take any number of requests that do not overlap.
+     * A request without a window holds its workers from allocation until it is closed, so
+     * it needs workers with no booking that has yet to end.
+     *
+     * @throws IllegalArgumentException if the window does not end after it starts, or the
+     *                                  skill holds a ',', '|' or control character
+     */
+    public void createWorkerRequest(int farmerId, String skillRequired, int workersRequested, long workStart, long workEnd)
+            throws FarmerException, LandSizeViolationException {
+        long metricsStart = metrics.start();
+        try {
+            validateRequest(farmerId, skillRequired, workersRequested);
+            // Checks the work window before an ID is taken.
+            Request draft = new Request(0, farmerId, skillRequired, workersRequested, System.currentTimeMillis(),
+                    workStart, workEnd);
+
+            Request request = new Request(requestIds.next(), farmerId, skillRequired, workersRequested, draft.getRequestTime(),
+                    workStart, workEnd);
+            beginMutation();
+            try {
+                putRequest(request);
+                journal.append("R," + formatRequest(request));
+                enqueue(request);
+            } finally {
+                endMutation();
+            }
+            compactIfNeeded();
+        } catch (FarmerException | LandSizeViolationException | RuntimeException e) {
+            metrics.recordError(Metrics.Operation.CREATE_WORKER_REQUEST);
+            throw e;
+        } finally {
+            metrics.record(Metrics.Operation.CREATE_WORKER_REQUEST, metricsStart);
+        }
+    }
+
+    /** @throws IllegalArgumentException if the skill is not text a data file can hold; see {@link Vocabulary#isStorable} */
+    private void validateRequest(int farmerId, String skillRequired, int workersRequested)
+            throws FarmerException, LandSizeViolationException {
+        if (!Vocabulary.isStorable(skillRequired)) {
+            throw new IllegalArgumentException("Invalid skill: " + skillRequired);
+        }
         if (!farmers.containsKey(farmerId)) {
             throw new FarmerException("Farmer with ID " + farmerId + " not found");
         }
@@ -55,253 +401,1073 @@ public class Admin {
                             maxAllowed + " for " + farmer.getLandSize() + " acres"
             );
         }
+    }
+
+    /**
+     * Registers a batch of farmers. Records are unsaved {@link Farmer} drafts whose ID is ignored;
+     * each is checked with {@link Farmer#validate()}, valid ones get IDs from one reserved block,
+     * and the whole batch is persisted in a single journal commit.
+     */
+    public BatchResult registerFarmers(Collection<Farmer> drafts) {
+        return registerFarmers(drafts.stream());
+    }
+
+    public BatchResult registerFarmers(Stream<Farmer> drafts) {
+        BatchResult result = new BatchResult();
+        List<Farmer> valid = new ArrayList<>();
+        int index = 0;
+        for (Iterator<Farmer> it = drafts.iterator(); it.hasNext(); index++) {
+            Farmer draft = it.next();
+            if (draft == null || !draft.validate()) {
+                result.failed(index, "Invalid farmer data");
+            } else if (!ownsLocation(draft.getLocation())) {
+                result.failed(index, notOwned(draft.getLocation()));
+            } else {
+                valid.add(draft);
+            }
+        }
+
+        int nextId = personIds.reserve(valid.size());
+        beginMutation();
+        try {
+            for (Farmer draft : valid) {
+                Farmer farmer = new Farmer(nextId++, draft.getName(), draft.getLocation(), draft.getCrop(),
+                        draft.getLandSize(), draft.getIncome());
+                farmer.setCoordinates(draft.getLatitude(), draft.getLongitude());
+                putFarmer(farmer);
+                journal.append("F," + formatFarmer(farmer));
+                result.accepted(farmer.getId());
+            }
+        } finally {
+            endMutation();
+        }
+        compactIfNeeded();
+        return result;
+    }
 
-        Request request = new Request(farmerId, skillRequired, workersRequested);
-        requests.put(request.getRequestId(), request);
-        saveRequestsToFile();
+    /** Batch counterpart of {@link #registerWorker}; drafts are handled as in {@link #registerFarmers(Collection)}. */
+    public BatchResult registerWorkers(Collection<Worker> drafts) {
+        return registerWorkers(drafts.stream());
     }
 
-    public String allocateWorkers() throws SkillMismatchException, InsufficientWorkersException {
-        StringBuilder result = new StringBuilder();
-        if (requests.isEmpty()) {
-            return "No pending requests found.";
+    public BatchResult registerWorkers(Stream<Worker> drafts) {
+        BatchResult result = new BatchResult();
+        List<Worker> valid = new ArrayList<>();
+        int index = 0;
+        for (Iterator<Worker> it = drafts.iterator(); it.hasNext(); index++) {
+            Worker draft = it.next();
+            if (draft == null || !draft.validate()) {
+                result.failed(index, "Invalid worker data");
+            } else if (!ownsLocation(draft.getLocation())) {
+                result.failed(index, notOwned(draft.getLocation()));
+            } else {
+                valid.add(draft);
+            }
         }
 
-        List<Request> pendingRequests = new ArrayList<>(requests.values());
-        pendingRequests.sort((r1, r2) -> {
-            Farmer f1 = farmers.get(r1.getFarmerId());
-            Farmer f2 = farmers.get(r2.getFarmerId());
-            return Double.compare(f1.getIncome(), f2.getIncome());
-        });
+        int nextId = personIds.reserve(valid.size());
+        beginMutation();
+        try {
+            for (Worker draft : valid) {
+                Worker worker = new Worker(nextId++, draft.getName(), draft.getLocation(), draft.getSkills(), true);
+                worker.setCoordinates(draft.getLatitude(), draft.getLongitude());
+                addWorker(worker);
+                journal.append("W," + formatWorker(worker));
+                result.accepted(worker.getId());
+            }
+        } finally {
+            endMutation();
+        }
+        for (int id : result.getAcceptedIds()) {
+            matchWorker(workers.get(id));
+        }
+        compactIfNeeded();
+        return result;
+    }
 
-        result.append("=== WORKER ALLOCATION ===\n\n");
-        int successfulAllocations = 0;
-        List<Integer> processedRequestIds = new ArrayList<>();
+    /**
+     * Batch counterpart of {@link #createWorkerRequest}. Drafts carry farmer ID, skill, count and
+     * optionally a work window; their request ID is ignored and a missing request date defaults to now.
+     */
+    public BatchResult createWorkerRequests(Collection<Request> drafts) {
+        return createWorkerRequests(drafts.stream());
+    }
 
-        for (Request request : pendingRequests) {
+    public BatchResult createWorkerRequests(Stream<Request> drafts) {
+        BatchResult result = new BatchResult();
+        List<Request> valid = new ArrayList<>();
+        int index = 0;
+        for (Iterator<Request> it = drafts.iterator(); it.hasNext(); index++) {
+            Request draft = it.next();
+            if (draft == null) {
+                result.failed(index, "Missing request");
+                continue;
+            }
             try {
-                String msg = processRequest(request);
-                result.append(msg).append("\n");
-                successfulAllocations++;
-                processedRequestIds.add(request.getRequestId());
-            } catch (Exception e) {
-                result.append("✗ Failed: Request ID ").append(request.getRequestId()).append(" | ").append(e.getMessage()).append("\n\n");
+                validateRequest(draft.getFarmerId(), draft.getSkillRequired(), draft.getWorkersRequested());
+                valid.add(draft);
+            } catch (FarmerException | LandSizeViolationException | IllegalArgumentException e) {
+                result.failed(index, e.getMessage());
             }
         }
 
-        for (int requestId : processedRequestIds) {
-            requests.remove(requestId);
+        int nextId = requestIds.reserve(valid.size());
+        beginMutation();
+        try {
+            for (Request draft : valid) {
+                Request request = new Request(nextId++, draft.getFarmerId(), draft.getSkillRequired(),
+                        draft.getWorkersRequested(), draft.getRequestTime(), draft.getWorkStart(), draft.getWorkEnd());
+                putRequest(request);
+                journal.append("R," + formatRequest(request));
+                enqueue(request);
+                result.accepted(request.getRequestId());
+            }
+        } finally {
+            endMutation();
         }
+        compactIfNeeded();
+        return result;
+    }
+
+    /**
+     * Allocates every pending request, lowest income first within each location. The result
+     * lists each request's outcome; render it with {@link AllocationResult#writeReport} when
+     * a text report is wanted.
+     */
+    public AllocationResult allocateWorkers() {
+        long metricsStart = metrics.start();
+        try {
+            if (requests.isEmpty()) {
+                return AllocationResult.noPendingRequests();
+            }
 
-        saveRequestsToFile();
-        result.append("\n=== SUMMARY ===\n");
-        result.append("Total Attempts: ").append(pendingRequests.size()).append("\n");
-        result.append("Successful: ").append(successfulAllocations);
+            long start = System.nanoTime();
+            List<PendingQueue.Entry> pendingRequests = pendingQueue.drainAll();
 
-        if (successfulAllocations > 0) {
-            saveAllocationsToFile();
-            saveWorkersToFile();
+            AllocationResult result = new AllocationResult();
+            allocateInOrder(pendingRequests, result);
+            compactIfNeeded();
+
+            result.finish(start, -1);
+            return result;
+        } catch (RuntimeException e) {
+            metrics.recordError(Metrics.Operation.ALLOCATE_WORKERS);
+            throw e;
+        } finally {
+            metrics.record(Metrics.Operation.ALLOCATE_WORKERS, metricsStart);
         }
+    }
 
-        return result.toString();
+    /**
+     * Same as {@link #allocateWorkers()}, but each location's requests are allocated as a
+     * partition of their own on the common fork/join pool. Lowest-income-first order is kept
+     * within every partition. Matching on location name, a partition only ever takes its own
+     * location's workers. With a {@link #setMatchingRadius matching radius}, a farmer can also
+     * take workers from other locations nearby, so partitions may reach for the same worker;
+     * each worker is reserved atomically, so only one gets it, but which one depends on timing
+     * rather than income order.
+     */
+    public AllocationResult allocateWorkersParallel() {
+        return allocateByLocation(Metrics.Operation.ALLOCATE_WORKERS_PARALLEL, this::allocateInOrder);
     }
 
-    private String processRequest(Request request) throws SkillMismatchException, InsufficientWorkersException, FarmerException {
-        Farmer farmer = farmers.get(request.getFarmerId());
-        if (farmer == null) {
-            throw new FarmerException("Farmer not found for request.");
+    /**
+     * Allocates each location's pending requests with {@link AssignmentSolver} instead of
+     * greedily: requests still get workers in lowest-income-first order and never more than
+     * their land allows, but multi-skilled workers are kept for requests only they can serve,
+     * so more requests are filled. Locations run in parallel as in {@link #allocateWorkersParallel()}.
+     * Requests with a work window are served greedily after the solver has run, since one
+     * worker can take several of them.
+     */
+    public AllocationResult allocateWorkersOptimal() {
+        return allocateByLocation(Metrics.Operation.ALLOCATE_WORKERS_OPTIMAL, this::allocateOptimal);
+    }
+
+    private interface LocationEngine {
+        void allocate(List<PendingQueue.Entry> orderedRequests, AllocationResult result);
+    }
+
+    private AllocationResult allocateByLocation(Metrics.Operation operation, LocationEngine engine) {
+        long metricsStart = metrics.start();
+        try {
+            if (requests.isEmpty()) {
+                return AllocationResult.noPendingRequests();
+            }
+
+            long start = System.nanoTime();
+            List<String> locations = new ArrayList<>(new TreeSet<>(pendingQueue.locations()));
+            List<ForkJoinTask<AllocationResult>> tasks = new ArrayList<>();
+            for (String location : locations) {
+                tasks.add(ForkJoinPool.commonPool().submit(() -> {
+                    AllocationResult partial = new AllocationResult();
+                    engine.allocate(pendingQueue.drain(location), partial);
+                    return partial;
+                }));
+            }
+
+            AllocationResult result = new AllocationResult();
+            int activeLocations = 0;
+            for (ForkJoinTask<AllocationResult> task : tasks) {
+                AllocationResult partial = task.join();
+                result.merge(partial);
+                if (partial.getAttempts() > 0) {
+                    activeLocations++;
+                }
+            }
+            compactIfNeeded();
+
+            result.finish(start, activeLocations);
+            return result;
+        } catch (RuntimeException e) {
+            metrics.recordError(operation);
+            throw e;
+        } finally {
+            metrics.record(operation, metricsStart);
         }
+    }
+
+    /** Workers a request can receive at most: what it asked for, capped by the farmer's land. */
+    private static int demand(Request request, Farmer farmer) {
+        return farmer == null ? 0 : Math.max(0, Math.min(request.getWorkersRequested(), farmer.getMaxWorkersAllowed()));
+    }
+
+    /**
+     * Runs already-ordered requests through processRequest as one journal batch and puts the
+     * ones that could not be served back in the pending queue.
+     */
+    private void allocateInOrder(List<PendingQueue.Entry> orderedRequests, AllocationResult result) {
+        result.attempted(orderedRequests.size());
+        beginMutation();
+        try {
+            for (PendingQueue.Entry entry : orderedRequests) {
+                AllocationResult.Outcome outcome = processRequest(entry.request);
+                if (outcome == null) {
+                    continue;
+                }
+                result.add(outcome, demand(entry.request, farmers.get(entry.request.getFarmerId())));
+                if (!outcome.isAllocated()) {
+                    pendingQueue.add(entry);
+                }
+            }
+        } finally {
+            endMutation();
+        }
+    }
+
+    /**
+     * One location's requests through {@link AssignmentSolver}, under the location lock and
+     * as one journal batch. Outcomes and failure handling match {@link #allocateInOrder}.
+     */
+    private void allocateOptimal(List<PendingQueue.Entry> orderedRequests, AllocationResult result) {
+        result.attempted(orderedRequests.size());
+        List<PendingQueue.Entry> live = new ArrayList<>();
+        for (PendingQueue.Entry entry : orderedRequests) {
+            if (farmers.get(entry.request.getFarmerId()) == null) {
+                result.add(AllocationResult.Outcome.failed(entry.request, null, AllocationResult.FailureReason.FARMER_NOT_FOUND), 0);
+                pendingQueue.add(entry);
+            } else {
+                live.add(entry);
+            }
+        }
+        if (live.isEmpty()) {
+            return;
+        }
+        Farmer first = farmers.get(live.get(0).request.getFarmerId());
+        beginMutation();
+        ReentrantLock lock = locationLocks.forLocation(first.getLocationCode());
+        lock.lock();
+        try {
+            live.removeIf(entry -> requests.get(entry.request.getRequestId()) != entry.request);
+            List<PendingQueue.Entry> windowed = new ArrayList<>();
+            for (PendingQueue.Entry entry : live) {
+                if (entry.request.hasWorkWindow()) {
+                    windowed.add(entry);
+                }
+            }
+            live.removeIf(entry -> entry.request.hasWorkWindow());
+            long now = System.currentTimeMillis();
+            int[] skills = new int[live.size()];
+            int[] demand = new int[live.size()];
+            Set<Integer> skillCodes = new HashSet<>();
+            for (int i = 0; i < live.size(); i++) {
+                Request request = live.get(i).request;
+                skills[i] = Vocabulary.findSkill(request.getSkillRequired());
+                demand[i] = demand(request, farmers.get(request.getFarmerId()));
+                if (skills[i] >= 0) {
+                    skillCodes.add(skills[i]);
+                }
+            }
+            Map<Integer, Worker> candidates = new HashMap<>();
+            for (int skillCode : skillCodes) {
+                for (Worker worker : workerIndex.available(first.getLocationCode(), skillCode)) {
+                    if (worker.isFree(now, Long.MAX_VALUE)) {
+                        candidates.put(worker.getId(), worker);
+                    }
+                }
+            }
+            List<Worker> pool = new ArrayList<>(candidates.values());
+            pool.sort(Comparator.comparingInt(Worker::getId));
+            List<List<Worker>> assignment = AssignmentSolver.solve(skills, demand, pool);
+
+            for (int i = 0; i < live.size(); i++) {
+                PendingQueue.Entry entry = live.get(i);
+                Request request = entry.request;
+                Farmer farmer = farmers.get(request.getFarmerId());
+                List<Worker> chosen = assignment.get(i);
+                int[] workerIds = new int[chosen.size()];
+                int reserved = 0;
+                for (Worker worker : chosen) {
+                    if (worker.reserve()) {
+                        workerIds[reserved++] = worker.getId();
+                    }
+                }
+                if (reserved == 0) {
+                    AllocationResult.FailureReason reason = demand[i] == 0
+                            ? AllocationResult.FailureReason.INSUFFICIENT_WORKERS
+                            : AllocationResult.FailureReason.NO_MATCHING_WORKERS;
+                    result.add(AllocationResult.Outcome.failed(request, farmer, reason), demand[i]);
+                    pendingQueue.add(entry);
+                    continue;
+                }
+                result.add(recordAllocation(request, farmer, Arrays.copyOf(workerIds, reserved)), demand[i]);
+            }
+
+            for (PendingQueue.Entry entry : windowed) {
+                Farmer farmer = farmers.get(entry.request.getFarmerId());
+                AllocationResult.Outcome outcome = allocate(entry.request, farmer);
+                result.add(outcome, demand(entry.request, farmer));
+                if (!outcome.isAllocated()) {
+                    pendingQueue.add(entry);
+                }
+            }
+        } finally {
+            lock.unlock();
+            endMutation();
+        }
+    }
+
+    /**
+     * Serves one request under its location's lock, in a journal batch of its own unless one
+     * is already open, and retires it on success. Returns null if a concurrent allocation
+     * run already served the request; a request that cannot be served comes back as a
+     * failed outcome and stays pending.
+     * Package-private, like the save methods, so the benchmarks can drive it directly.
+     */
+    AllocationResult.Outcome processRequest(Request request) {
+        long metricsStart = metrics.start();
+        AllocationResult.Outcome outcome = null;
+        try {
+            Farmer farmer = farmers.get(request.getFarmerId());
+            if (farmer == null) {
+                outcome = AllocationResult.Outcome.failed(request, null, AllocationResult.FailureReason.FARMER_NOT_FOUND);
+                return outcome;
+            }
+            ReentrantLock lock = locationLocks.forLocation(farmer.getLocationCode());
+            beginMutation();
+            lock.lock();
+            try {
+                if (requests.get(request.getRequestId()) != request) {
+                    return null;
+                }
+                outcome = allocate(request, farmer);
+                return outcome;
+            } finally {
+                lock.unlock();
+                endMutation();
+            }
+        } catch (RuntimeException e) {
+            metrics.recordError(Metrics.Operation.PROCESS_REQUEST);
+            throw e;
+        } finally {
+            if (outcome != null && !outcome.isAllocated()) {
+                metrics.recordFailure(Metrics.Operation.PROCESS_REQUEST, metricsStart);
+            } else {
+                metrics.record(Metrics.Operation.PROCESS_REQUEST, metricsStart);
+            }
+        }
+    }
+
+    private AllocationResult.Outcome allocate(Request request, Farmer farmer) {
         String skillRequired = request.getSkillRequired();
         int workersRequested = request.getWorkersRequested();
 
-        StringBuilder msg = new StringBuilder();
-        msg.append("✓ Processing Farmer: ").append(farmer.getName())
-                .append(" (Income: ₹").append(String.format("%.0f", farmer.getIncome())).append(")\n");
-        msg.append("  Skill: ").append(skillRequired).append(", Requested: ").append(workersRequested).append("\n");
-
-        List<Worker> availableWorkers = workers.values().stream()
-                .filter(w -> w.isAvailable() && w.hasSkill(skillRequired) && w.getLocation().equalsIgnoreCase(farmer.getLocation()))
-                .collect(Collectors.toList());
+        int maxAllowed = farmer.getMaxWorkersAllowed();
+        boolean windowed = request.hasWorkWindow();
+        long start = windowed ? request.getWorkStart() : System.currentTimeMillis();
+        long end = windowed ? request.getWorkEnd() : Long.MAX_VALUE;
+        List<Worker> availableWorkers = candidates(farmer, Vocabulary.findSkill(skillRequired),
+                Math.max(1, Math.min(workersRequested, maxAllowed)), start, end);
 
         if (availableWorkers.isEmpty()) {
-            throw new SkillMismatchException("  No available workers with skill '" + skillRequired + "' in " + farmer.getLocation());
+            return AllocationResult.Outcome.failed(request, farmer, AllocationResult.FailureReason.NO_MATCHING_WORKERS);
         }
 
-        int maxAllowed = farmer.getMaxWorkersAllowed();
         int workersToAllocate = Math.min(workersRequested, Math.min(maxAllowed, availableWorkers.size()));
 
-        if (workersToAllocate == 0) {
-            throw new InsufficientWorkersException("  Not enough workers available to satisfy minimum requirements (min: 1)");
+        if (workersToAllocate <= 0) {
+            return AllocationResult.Outcome.failed(request, farmer, AllocationResult.FailureReason.INSUFFICIENT_WORKERS);
         }
 
-        List<Integer> allocatedWorkerIds = new ArrayList<>();
+        int[] allocatedWorkerIds = new int[workersToAllocate];
+        int reserved = 0;
         for (int i = 0; i < workersToAllocate; i++) {
             Worker worker = availableWorkers.get(i);
-            worker.setAvailable(false);
-            allocatedWorkerIds.add(worker.getId());
+            if (windowed ? worker.book(start, end) : worker.reserve()) {
+                allocatedWorkerIds[reserved++] = worker.getId();
+                if (windowed) {
+                    // A booking leaves availability alone, so the listener does not see it.
+                    snapshots.workerChanged(worker.getId());
+                }
+            }
+        }
+        if (reserved == 0) {
+            return AllocationResult.Outcome.failed(request, farmer, AllocationResult.FailureReason.INSUFFICIENT_WORKERS);
         }
 
-        Allocation allocation = new Allocation(request.getRequestId(), request.getFarmerId(), allocatedWorkerIds);
-        allocations.put(allocation.getAllocationId(), allocation);
+        return recordAllocation(request, farmer,
+                reserved == workersToAllocate ? allocatedWorkerIds : Arrays.copyOf(allocatedWorkerIds, reserved));
+    }
 
-        msg.append("  SUCCESS: Allocated ").append(workersToAllocate).append(" workers\n");
-        msg.append("  Worker IDs: ").append(allocatedWorkerIds).append("\n");
+    /**
+     * Up to {@code limit} workers for a request that are free for {@code [start, end)}, nearest
+     * first when matching by distance; see {@link #setMatchingRadius}.
+     */
+    private List<Worker> candidates(Farmer farmer, int skillCode, int limit, long start, long end) {
+        double radiusKm = matchingRadiusKm;
+        if (radiusKm <= 0 || !farmer.hasCoordinates()) {
+            return workerIndex.findFree(farmer.getLocationCode(), skillCode, limit, start, end);
+        }
+        Predicate<Worker> free = worker -> worker.isFree(start, end);
+        List<Worker> nearby = workerIndex.nearest(farmer.getLatitude(), farmer.getLongitude(), skillCode, radiusKm, limit, free);
+        if (nearby.size() < limit && skillCode >= 0) {
+            for (Worker worker : workerIndex.available(farmer.getLocationCode(), skillCode)) {
+                if (nearby.size() == limit) {
+                    break;
+                }
+                if (!worker.hasCoordinates() && free.test(worker)) {
+                    nearby.add(worker);
+                }
+            }
+        }
+        return nearby;
+    }
 
-        return msg.toString();
+    /** Stores and journals the allocation for already reserved or booked workers and retires the request. */
+    private AllocationResult.Outcome recordAllocation(Request request, Farmer farmer, int[] workerIds) {
+        Allocation allocation = new Allocation(allocationIds.next(), request.getRequestId(), request.getFarmerId(), workerIds,
+                System.currentTimeMillis(), Allocation.ALLOCATED, request.getWorkStart(), request.getWorkEnd());
+        putAllocation(allocation);
+        journal.append("A," + formatAllocation(allocation));
+        expiry.schedule(allocation);
+        removeRequest(request.getRequestId());
+        journal.append("D," + request.getRequestId());
+        return AllocationResult.Outcome.allocated(request, farmer, allocation.getAllocationId(), workerIds);
     }
 
-    public Map<Integer, Farmer> getFarmers() { return farmers; }
-    public Map<Integer, Worker> getWorkers() { return workers; }
-    public Map<Integer, Request> getRequests() { return requests; }
-    public Map<Integer, Allocation> getAllocations() { return allocations; }
+    /** Marks an allocation as done and returns its workers to the pool. */
+    public void completeAllocation(int allocationId) throws AllocationException {
+        closeAllocation(allocationId, Allocation.COMPLETED);
+    }
+
+    /** Withdraws an allocation before the work happens and returns its workers to the pool. */
+    public void cancelAllocation(int allocationId) throws AllocationException {
+        closeAllocation(allocationId, Allocation.CANCELLED);
+    }
+
+    /** Returns an allocation's workers to the pool without recording an outcome for the work. */
+    public void releaseAllocation(int allocationId) throws AllocationException {
+        closeAllocation(allocationId, Allocation.RELEASED);
+    }
+
+    /**
+     * Expires active allocations once they have been held for {@code duration}, releasing
+     * their workers as {@link #releaseAllocation} would; 0 turns expiry off. Allocations
+     * with a work window are counted from the end of the window. Allocations that are
+     * already older than that expire straight away.
+     */
+    public void setAllocationExpiry(long duration, TimeUnit unit) {
+        List<Allocation> active = allocations.values().stream().filter(Allocation::isActive).collect(Collectors.toList());
+        expiry.setHoldTime(unit.toMillis(duration), active);
+    }
+
+    private void expireAllocation(Allocation allocation) {
+        try {
+            closeAllocation(allocation.getAllocationId(), Allocation.EXPIRED);
+        } catch (AllocationException e) {
+            // Completed or cancelled while its deadline was firing.
+        }
+    }
 
-    private void saveFarmersToFile() {
-        try (PrintWriter w = new PrintWriter(new FileWriter("farmers.txt"))) {
-            for (Farmer f : farmers.values()) {
-                w.println(f.getId() + "," + f.getName() + "," + f.getLocation() + "," +
-                        f.getCrop() + "," + f.getLandSize() + "," + f.getIncome());
+    /**
+     * Closes an active allocation and makes its workers available again; in incremental
+     * mode that immediately offers them to waiting requests.
+     */
+    private void closeAllocation(int allocationId, String status) throws AllocationException {
+        Allocation allocation = allocations.get(allocationId);
+        if (allocation == null) {
+            throw new AllocationException("Allocation with ID " + allocationId + " not found");
+        }
+        beginMutation();
+        try {
+            if (!allocation.closeAs(allocationOwner, status)) {
+                throw new AllocationException("Allocation " + allocationId + " is already " + allocation.getStatus());
+            }
+            queryIndex.allocationClosed(allocation);
+            snapshots.allocationChanged(allocationId);
+            journal.append("S," + allocationId + "," + status);
+            releaseWorkers(allocation);
+        } finally {
+            endMutation();
+        }
+        // Cancelling a booking does not change availability, so nothing else offers the window around.
+        if (allocation.hasWorkWindow()) {
+            for (int i = 0; i < allocation.getWorkerCount(); i++) {
+                Worker worker = workers.get(allocation.getWorkerId(i));
+                if (worker != null) {
+                    matchWorker(worker);
+                }
             }
-        } catch (IOException e) {
-            System.err.println("Error saving farmers: " + e.getMessage());
         }
+        compactIfNeeded();
     }
 
-    private void loadFarmersFromFile() {
-        try (Scanner sc = new Scanner(new File("farmers.txt"))) {
-            int maxId = 0;
-            while (sc.hasNextLine()) {
-                String line = sc.nextLine().trim();
-                if (!line.isEmpty()) {
-                    String[] p = line.split(",");
-                    if (p.length == 6) {
-                        int id = Integer.parseInt(p[0]);
-                        Farmer f = new Farmer(id, p[1], p[2], p[3], Double.parseDouble(p[4]), Double.parseDouble(p[5]));
-                        farmers.put(id, f);
-                        maxId = Math.max(maxId, id);
-                    }
+    /**
+     * Frees a closed allocation's workers: held workers become available again, booked
+     * ones lose the booking. Bookings are not journaled themselves; they are rebuilt from
+     * the active allocations on load.
+     */
+    private void releaseWorkers(Allocation allocation) {
+        for (int i = 0; i < allocation.getWorkerCount(); i++) {
+            Worker worker = workers.get(allocation.getWorkerId(i));
+            if (worker == null) {
+                continue;
+            }
+            if (allocation.hasWorkWindow()) {
+                if (worker.cancelBooking(allocation.getWorkStart(), allocation.getWorkEnd())) {
+                    workerIndex.bookingCancelled(worker);
                 }
+                snapshots.workerChanged(worker.getId());
+            } else {
+                worker.setAvailable(true);
             }
-            if (maxId > 0) Person.setNextId(maxId + 1);
-        } catch (FileNotFoundException e) {
-            // OK to not find file initially
         }
     }
 
-    private void saveWorkersToFile() {
-        try (PrintWriter w = new PrintWriter(new FileWriter("workers.txt"))) {
-            for (Worker worker : workers.values()) {
-                w.println(worker.getId() + "," + worker.getName() + "," + worker.getLocation() + "," +
-                        String.join("|", worker.getSkills()) + "," + worker.isAvailable());
+    /**
+     * Turns operation counters, latency histograms and per-location gauges on or off. While on
+     * they are published as MXBeans under {@code farmhelp:type=Admin}; while off, instrumented
+     * calls skip the clock entirely. Start with {@code -Dfarmhelp.metrics=true} to include the
+     * initial load.
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        metrics.setEnabled(enabled);
+    }
+
+    public boolean isMetricsEnabled() {
+        return metrics.isEnabled();
+    }
+
+    /** Current metrics as a text table: one row per operation used so far, then per-location gauges. */
+    public String metricsReport() {
+        return metrics.report();
+    }
+
+    /** Prints {@link #metricsReport()} to {@code out} every {@code period} until shutdown. */
+    public void startMetricsDump(long period, TimeUnit unit, PrintStream out) {
+        metrics.startDump(period, unit, out);
+    }
+
+    public void stopMetricsDump() {
+        metrics.stopDump();
+    }
+
+    private Map<String, Integer> availableWorkersByLocation() {
+        Map<String, Integer> available = new TreeMap<>();
+        for (Worker worker : workers.values()) {
+            if (worker.isAvailable()) {
+                available.merge(Vocabulary.normalizeLocation(worker.getLocation()), 1, Integer::sum);
             }
+        }
+        return available;
+    }
+
+    /**
+     * The latest version of every map, read without locking. A new version is published as
+     * each mutation batch ends, before the call that made it returns, so a caller always
+     * sees its own changes; see {@link AdminSnapshot} for what a version shares and what it
+     * copies. Take one snapshot to read several maps consistently.
+     */
+    public AdminSnapshot snapshot() {
+        return snapshots.current();
+    }
+
+    // Read-only, from the latest snapshot: each call may see a newer version than the last.
+    public Map<Integer, Farmer> getFarmers() { return snapshot().getFarmers(); }
+    public Map<Integer, Worker> getWorkers() { return snapshot().getWorkers(); }
+    public Map<Integer, Request> getRequests() { return snapshot().getRequests(); }
+    public Map<Integer, Allocation> getAllocations() { return snapshot().getAllocations(); }
+
+    // Indexed queries. Results come a page at a time in ascending ID order; start with
+    // afterId -1 and pass each page's getNextAfter() to continue. Unlike the snapshot
+    // maps, results are the live records.
+
+    /** Every allocation made for one farmer's requests, active or closed. */
+    public Page<Allocation> findAllocationsByFarmer(int farmerId, int afterId, int limit) {
+        return queryIndex.allocationsByFarmer(farmerId, afterId, limit);
+    }
+
+    /** Every allocation one worker has been part of, active or closed. */
+    public Page<Allocation> findAllocationsByWorker(int workerId, int afterId, int limit) {
+        return queryIndex.allocationsByWorker(workerId, afterId, limit);
+    }
+
+    /**
+     * The allocation holding a worker until further notice, or null if there is none.
+     * Bookings for work windows are not included; see {@link Worker#getBookings()}.
+     */
+    public Allocation findActiveAllocation(int workerId) {
+        return queryIndex.activeAllocation(workerId);
+    }
+
+    /** Farmers by location and crop, both case-insensitive; null matches any. */
+    public Page<Farmer> findFarmers(String location, String crop, int afterId, int limit) {
+        return queryIndex.farmers(location, crop, afterId, limit);
+    }
+
+    /** Pending requests by farmer location (case-insensitive) and required skill; null matches any. */
+    public Page<Request> findPendingRequests(String location, String skill, int afterId, int limit) {
+        return queryIndex.requests(location, skill, afterId, limit);
+    }
+
+    private void putFarmer(Farmer farmer) {
+        farmer.markRegistered();
+        Farmer previous = farmers.put(farmer.getId(), farmer);
+        if (previous != null) {
+            queryIndex.removeFarmer(previous);
+        }
+        queryIndex.addFarmer(farmer);
+        snapshots.farmerChanged(farmer.getId());
+    }
+
+    private void putRequest(Request request) {
+        Request previous = requests.put(request.getRequestId(), request);
+        if (previous != null) {
+            queryIndex.removeRequest(previous, requestLocation(previous));
+        }
+        queryIndex.addRequest(request, requestLocation(request));
+        snapshots.requestChanged(request.getRequestId());
+    }
+
+    private void removeRequest(int requestId) {
+        Request removed = requests.remove(requestId);
+        if (removed != null) {
+            queryIndex.removeRequest(removed, requestLocation(removed));
+            snapshots.requestChanged(requestId);
+        }
+    }
+
+    private String requestLocation(Request request) {
+        return QueryIndex.farmerLocation(farmers.get(request.getFarmerId()));
+    }
+
+    private void putAllocation(Allocation allocation) {
+        allocation.setOwner(allocationOwner);
+        Allocation previous = allocations.put(allocation.getAllocationId(), allocation);
+        if (previous != null) {
+            queryIndex.removeAllocation(previous);
+        }
+        queryIndex.addAllocation(allocation);
+        snapshots.allocationChanged(allocation.getAllocationId());
+    }
+
+    /**
+     * Writes every map to its snapshot file and drops the journal records the files now
+     * hold. Replay is idempotent, so a crash between the two steps only costs a longer replay.
+     */
+    public void compact() {
+        synchronized (compactionLock) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Writes the binary snapshot now, whether or not it is written on every compaction.
+     * The journal is left alone: the binary snapshot is only preferred while it is at
+     * least as new as the text files, so both remain valid bases for replay.
+     */
+    public void saveBinarySnapshot() {
+        synchronized (compactionLock) {
+            saveBinarySnapshotFile(captureState());
+        }
+    }
+
+    /**
+     * Returns once everything done before the call is in the journal file, synced to disk
+     * if the journal is synchronous. Background compactions are not waited for; they only
+     * rewrite what the journal already holds.
+     */
+    public void flush() {
+        persistence.flush();
+    }
+
+    /**
+     * Journal records are committed by a background writer once {@code batchSize} of them
+     * are pending or the oldest has waited {@code interval}. Larger values mean fewer
+     * writes; with an unsynchronized journal they also mean more records a crash can lose.
+     * The defaults are 5 ms and 256 records.
+     */
+    public void setGroupCommit(long interval, TimeUnit unit, int batchSize) {
+        persistence.setGroupCommit(interval, unit, batchSize);
+    }
+
+    /** Drains pending journal records, folds the journal into a fresh snapshot and releases the journal file. */
+    public void shutdown() {
+        expiry.close();
+        metrics.close();
+        persistence.close();
+        compact();
+        journal.close();
+    }
+
+    /** Hands compaction to the background writer once the journal has grown past the threshold. */
+    private void compactIfNeeded() {
+        if (journal.size() >= compactionThreshold) {
+            persistence.requestCompaction();
+        }
+    }
+
+    private void compactIfStillNeeded() {
+        if (journal.size() < compactionThreshold) {
+            return;
+        }
+        synchronized (compactionLock) {
+            if (journal.size() >= compactionThreshold) {
+                writeSnapshot();
+            }
+        }
+    }
+
+    /**
+     * Captures the published state and the journal position together, then writes the files
+     * with no lock held, so mutations only wait for the capture. Versions are built as batches
+     * end, so the capture reads one field and flushes the journal; it never builds one.
+     * Records appended while the files are written stay in the journal. If a file fails to
+     * save, nothing is dropped.
+     * Callers must hold {@link #compactionLock} and not the state read lock, which cannot be upgraded.
+     */
+    private void writeSnapshot() {
+        AdminSnapshot state;
+        Journal.Mark mark;
+        stateLock.writeLock().lock();
+        try {
+            state = snapshots.current();
+            mark = journal.mark();
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+        boolean saved = saveFarmersToFile(state);
+        saved &= saveWorkersToFile(state);
+        saved &= saveRequestsToFile(state);
+        saved &= saveAllocationsToFile(state);
+        if (binarySnapshot) {
+            saved &= saveBinarySnapshotFile(state);
+        }
+        if (saved) {
+            journal.truncateBefore(mark);
+        }
+    }
+
+    /** The published state as of the last ended batch; with no batch running, exactly what the journal holds. */
+    private AdminSnapshot captureState() {
+        stateLock.writeLock().lock();
+        try {
+            return snapshots.current();
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    private static String formatFarmer(Farmer f) {
+        return f.getId() + "," + f.getName() + "," + f.getLocation() + "," +
+                f.getCrop() + "," + f.getLandSize() + "," + f.getIncome() + formatCoordinates(f);
+    }
+
+    private static String formatWorker(Worker worker) {
+        return worker.getId() + "," + worker.getName() + "," + worker.getLocation() + "," +
+                String.join("|", worker.getSkills()) + "," + worker.isAvailable() + formatCoordinates(worker);
+    }
+
+    // Two optional trailing fields, so files written before coordinates existed still load.
+    private static String formatCoordinates(Person person) {
+        return person.hasCoordinates() ? "," + person.getLatitude() + "," + person.getLongitude() : "";
+    }
+
+    private static String formatRequest(Request r) {
+        return r.getRequestId() + "," + r.getFarmerId() + "," +
+                r.getSkillRequired() + "," + r.getWorkersRequested() + "," +
+                r.getRequestTime() + (r.hasWorkWindow() ? "," + r.getWorkStart() + "," + r.getWorkEnd() : "");
+    }
+
+    private static String formatAllocation(Allocation a) {
+        StringBuilder line = new StringBuilder(32 + 8 * a.getWorkerCount());
+        line.append(a.getAllocationId()).append(',').append(a.getRequestId()).append(',').append(a.getFarmerId()).append(',');
+        for (int i = 0; i < a.getWorkerCount(); i++) {
+            if (i > 0) {
+                line.append('|');
+            }
+            line.append(a.getWorkerId(i));
+        }
+        line.append(',').append(a.getAllocationTime()).append(',').append(a.getStatus());
+        if (a.hasWorkWindow()) {
+            line.append(',').append(a.getWorkStart()).append(',').append(a.getWorkEnd());
+        }
+        return line.toString();
+    }
+
+    /**
+     * Writes one line per record to a temporary file, syncs it and renames it over
+     * {@code fileName}, so a crash mid-write leaves the previous file intact.
+     */
+    private static <T> void writeAtomically(File file, Collection<T> records, Function<T, String> format) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            BufferedWriter w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+            for (T record : records) {
+                w.write(format.apply(record));
+                w.newLine();
+            }
+            w.flush();
+            out.getFD().sync();
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    boolean saveFarmersToFile(AdminSnapshot state) {
+        long metricsStart = metrics.start();
+        boolean saved = false;
+        try {
+            writeAtomically(new File(dataDir, "farmers.txt"), state.getFarmers().values(), Admin::formatFarmer);
+            saved = true;
+        } catch (IOException e) {
+            metrics.recordError(Metrics.Operation.SAVE_FARMERS);
+            System.err.println("Error saving farmers: " + e.getMessage());
+        }
+        metrics.record(Metrics.Operation.SAVE_FARMERS, metricsStart);
+        return saved;
+    }
+
+    private void applyFarmer(Farmer f) {
+        if (f != null) {
+            putFarmer(f);
+            personIds.advancePast(f.getId());
+        }
+    }
+
+    boolean saveWorkersToFile(AdminSnapshot state) {
+        long metricsStart = metrics.start();
+        boolean saved = false;
+        try {
+            writeAtomically(new File(dataDir, "workers.txt"), state.getWorkers().values(), Admin::formatWorker);
+            saved = true;
         } catch (IOException e) {
+            metrics.recordError(Metrics.Operation.SAVE_WORKERS);
             System.err.println("Error saving workers: " + e.getMessage());
         }
+        metrics.record(Metrics.Operation.SAVE_WORKERS, metricsStart);
+        return saved;
     }
 
-    private void loadWorkersFromFile() {
-        try (Scanner sc = new Scanner(new File("workers.txt"))) {
-            int maxId = 0;
-            while (sc.hasNextLine()) {
-                String line = sc.nextLine().trim();
-                if (!line.isEmpty()) {
-                    String[] p = line.split(",");
-                    if (p.length == 5) {
-                        int id = Integer.parseInt(p[0]);
-                        List<String> skills = Arrays.asList(p[3].split("\\|"));
-                        Worker w = new Worker(id, p[1], p[2], skills, Boolean.parseBoolean(p[4]));
-                        workers.put(id, w);
-                        maxId = Math.max(maxId, id);
-                    }
-                }
+    private void applyWorker(Worker w) {
+        if (w != null) {
+            Worker previous = workers.get(w.getId());
+            if (previous != null) {
+                workerIndex.remove(previous);
             }
-            if (maxId > 0) Person.setNextId(maxId + 1);
-        } catch (FileNotFoundException e) {
-            // OK
+            addWorker(w);
+            personIds.advancePast(w.getId());
         }
     }
 
-    private void saveRequestsToFile() {
-        try (PrintWriter w = new PrintWriter(new FileWriter("requests.txt"))) {
-            for (Request r : requests.values()) {
-                w.println(r.getRequestId() + "," + r.getFarmerId() + "," +
-                        r.getSkillRequired() + "," + r.getWorkersRequested() + "," +
-                        r.getRequestDate().getTime());
-            }
+    boolean saveRequestsToFile(AdminSnapshot state) {
+        long metricsStart = metrics.start();
+        boolean saved = false;
+        try {
+            writeAtomically(new File(dataDir, "requests.txt"), state.getRequests().values(), Admin::formatRequest);
+            saved = true;
         } catch (IOException e) {
+            metrics.recordError(Metrics.Operation.SAVE_REQUESTS);
             System.err.println("Error saving requests: " + e.getMessage());
         }
+        metrics.record(Metrics.Operation.SAVE_REQUESTS, metricsStart);
+        return saved;
     }
 
-    private void loadRequestsFromFile() {
-        try (Scanner sc = new Scanner(new File("requests.txt"))) {
-            int maxId = 0;
-            while (sc.hasNextLine()) {
-                String line = sc.nextLine().trim();
-                if (!line.isEmpty()) {
-                    String[] p = line.split(",");
-                    if (p.length == 5) {
-                        int rid = Integer.parseInt(p[0]);
-                        Request r = new Request(rid, Integer.parseInt(p[1]), p[2], Integer.parseInt(p[3]), new Date(Long.parseLong(p[4])));
-                        requests.put(rid, r);
-                        maxId = Math.max(maxId, rid);
+    private void applyRequest(Request r) {
+        if (r != null) {
+            putRequest(r);
+            requestIds.advancePast(r.getRequestId());
+        }
+    }
+
+    boolean saveAllocationsToFile(AdminSnapshot state) {
+        long metricsStart = metrics.start();
+        boolean saved = false;
+        try {
+            writeAtomically(new File(dataDir, "allocations.txt"), state.getAllocations().values(), Admin::formatAllocation);
+            saved = true;
+        } catch (IOException e) {
+            metrics.recordError(Metrics.Operation.SAVE_ALLOCATIONS);
+            System.err.println("Error saving allocations: " + e.getMessage());
+        }
+        metrics.record(Metrics.Operation.SAVE_ALLOCATIONS, metricsStart);
+        return saved;
+    }
+
+    private void applyAllocation(Allocation a) {
+        if (a != null) {
+            putAllocation(a);
+            allocationIds.advancePast(a.getAllocationId());
+            requestIds.advancePast(a.getRequestId());
+            if (a.isActive() && a.hasWorkWindow()) {
+                // Workers are loaded first, so the calendars fill from the active allocations.
+                // A replayed record for an allocation already loaded finds its booking in place.
+                for (int i = 0; i < a.getWorkerCount(); i++) {
+                    Worker worker = workers.get(a.getWorkerId(i));
+                    if (worker != null) {
+                        worker.restoreBooking(a.getWorkStart(), a.getWorkEnd());
                     }
                 }
             }
-            if (maxId > 0) Request.setNextRequestId(maxId + 1);
-        } catch (FileNotFoundException e) {
-            // OK
         }
     }
 
-    private void saveAllocationsToFile() {
-        try (PrintWriter w = new PrintWriter(new FileWriter("allocations.txt"))) {
-            for (Allocation a : allocations.values()) {
-                w.println(a.getAllocationId() + "," + a.getRequestId() + "," + a.getFarmerId() + "," +
-                        a.getWorkerIds().stream().map(String::valueOf).collect(Collectors.joining("|")) + "," +
-                        a.getAllocationDate().getTime() + "," + a.getStatus());
-            }
+    boolean saveBinarySnapshotFile(AdminSnapshot state) {
+        long metricsStart = metrics.start();
+        boolean saved = false;
+        try {
+            BinarySnapshot.write(new File(dataDir, SNAPSHOT_FILE), state.getFarmers().values(), state.getWorkers().values(),
+                    state.getRequests().values(), state.getAllocations().values());
+            saved = true;
         } catch (IOException e) {
-            System.err.println("Error saving allocations: " + e.getMessage());
+            metrics.recordError(Metrics.Operation.SAVE_BINARY_SNAPSHOT);
+            System.err.println("Error saving binary snapshot: " + e.getMessage());
+        }
+        metrics.record(Metrics.Operation.SAVE_BINARY_SNAPSHOT, metricsStart);
+        return saved;
+    }
+
+    /**
+     * Reads {@link #SNAPSHOT_FILE} if it exists and no text snapshot file was written after it.
+     * Returns null when the text files should be used instead.
+     */
+    private BinarySnapshot.Contents loadBinarySnapshot() {
+        File snapshot = new File(dataDir, SNAPSHOT_FILE);
+        if (!snapshot.exists()) {
+            return null;
+        }
+        for (String name : new String[]{"farmers.txt", "workers.txt", "requests.txt", "allocations.txt"}) {
+            File text = new File(dataDir, name);
+            if (text.exists() && text.lastModified() > snapshot.lastModified()) {
+                return null;
+            }
+        }
+        long metricsStart = metrics.start();
+        try {
+            return BinarySnapshot.read(snapshot);
+        } catch (IOException | RuntimeException e) {
+            metrics.recordError(Metrics.Operation.LOAD_BINARY_SNAPSHOT);
+            System.err.println("Error loading binary snapshot, falling back to text files: " + e.getMessage());
+            return null;
+        } finally {
+            metrics.record(Metrics.Operation.LOAD_BINARY_SNAPSHOT, metricsStart);
         }
     }
 
-    // FIX: Correctly calls the Allocation constructor with the status string as the last argument.
-    private void loadAllocationsFromFile() {
-        try (Scanner sc = new Scanner(new File("allocations.txt"))) {
-            int maxId = 0;
-            while (sc.hasNextLine()) {
-                String line = sc.nextLine().trim();
-                if (!line.isEmpty()) {
-                    String[] p = line.split(",");
-                    if (p.length == 6) {
-                        int aid = Integer.parseInt(p[0]);
-                        List<Integer> wids = Arrays.stream(p[3].split("\\|")).map(Integer::parseInt).collect(Collectors.toList());
-
-                        // Corrected line
-                        Allocation a = new Allocation(
-                                aid,
-                                Integer.parseInt(p[1]),
-                                Integer.parseInt(p[2]),
-                                wids,
-                                new Date(Long.parseLong(p[4])), // Date object created correctly
-                                p[5]                           // Status string
-                        );
-
-                        allocations.put(aid, a);
-                        maxId = Math.max(maxId, aid);
+    private void applyJournalRecord(String record) {
+        int comma = record.indexOf(',');
+        if (comma < 0) {
+            return;
+        }
+        String body = record.substring(comma + 1);
+        try {
+            switch (record.substring(0, comma)) {
+                case "F": applyFarmer(DataFileLoader.parseFarmer(body)); break;
+                case "W": applyWorker(DataFileLoader.parseWorker(body)); break;
+                case "R": applyRequest(DataFileLoader.parseRequest(body)); break;
+                case "A": applyAllocation(DataFileLoader.parseAllocation(body)); break;
+                case "D": removeRequest(Integer.parseInt(body)); break;
+                case "S": {
+                    String[] p = body.split(",");
+                    Allocation allocation = allocations.get(Integer.parseInt(p[0]));
+                    if (allocation != null && allocation.closeAs(allocationOwner, p[1])) {
+                        queryIndex.allocationClosed(allocation);
+                        // Held workers come back through their own V records.
+                        if (allocation.hasWorkWindow()) {
+                            releaseWorkers(allocation);
+                        }
                     }
+                    break;
                 }
+                case "V": {
+                    String[] p = body.split(",");
+                    Worker worker = workers.get(Integer.parseInt(p[0]));
+                    if (worker != null) {
+                        worker.setAvailable(Boolean.parseBoolean(p[1]));
+                    }
+                    break;
+                }
+                default: break;
             }
-            if (maxId > 0) Allocation.setNextAllocationId(maxId + 1);
-        } catch (FileNotFoundException e) {
-            // OK
+        } catch (RuntimeException e) {
+            // A torn record at the tail of the journal after a crash; skip it.
+            System.err.println("Skipping unreadable journal record: " + record);
         }
     }
 
+    /**
+     * Loads the binary snapshot when it is current, otherwise parses the four text
+     * snapshot files concurrently; either way the maps are filled in a fixed order
+     * and the journal is replayed on top.
+     */
     private void loadAllData() {
-        loadFarmersFromFile();
-        loadWorkersFromFile();
-        loadRequestsFromFile();
-        loadAllocationsFromFile();
+        long metricsStart = metrics.start();
+        BinarySnapshot.Contents snapshot = loadBinarySnapshot();
+        if (snapshot != null) {
+            snapshot.farmers.forEach(this::applyFarmer);
+            snapshot.workers.forEach(this::applyWorker);
+            snapshot.requests.forEach(this::applyRequest);
+            snapshot.allocations.forEach(this::applyAllocation);
+        } else {
+            loadTextFiles();
+        }
+        long replayStart = metrics.start();
+        int replayed = journal.replay(this::applyJournalRecord);
+        metrics.record(Metrics.Operation.REPLAY_JOURNAL, replayStart);
+        for (Request request : requests.values()) {
+            pendingQueue.add(request, farmers.get(request.getFarmerId()));
+        }
+        snapshots.start();
+        journal.open(replayed);
+        persistence.start();
+        compactIfNeeded();
+        metrics.record(Metrics.Operation.LOAD_ALL_DATA, metricsStart);
+    }
+
+    private void loadTextFiles() {
+        long metricsStart = metrics.start();
+        CompletableFuture<List<Farmer>> loadedFarmers = CompletableFuture.supplyAsync(
+                () -> DataFileLoader.load(new File(dataDir, "farmers.txt"), DataFileLoader::parseFarmer));
+        CompletableFuture<List<Worker>> loadedWorkers = CompletableFuture.supplyAsync(
+                () -> DataFileLoader.load(new File(dataDir, "workers.txt"), DataFileLoader::parseWorker));
+        CompletableFuture<List<Request>> loadedRequests = CompletableFuture.supplyAsync(
+                () -> DataFileLoader.load(new File(dataDir, "requests.txt"), DataFileLoader::parseRequest));
+        CompletableFuture<List<Allocation>> loadedAllocations = CompletableFuture.supplyAsync(
+                () -> DataFileLoader.load(new File(dataDir, "allocations.txt"), DataFileLoader::parseAllocation));
+
+        loadedFarmers.join().forEach(this::applyFarmer);
+        loadedWorkers.join().forEach(this::applyWorker);
+        loadedRequests.join().forEach(this::applyRequest);
+        loadedAllocations.join().forEach(this::applyAllocation);
+        metrics.record(Metrics.Operation.LOAD_TEXT_FILES, metricsStart);
     }
 }
@@ -0,0 +1,59 @@
+package farmhelp.admin;
+
+import farmhelp.model.Allocation;
+import farmhelp.model.Farmer;
+import farmhelp.model.Request;
+import farmhelp.model.Worker;
+
+import java.util.Map;
+
+/**
+ * One version of an {@link Admin}'s farmers, workers, requests and allocations, for
+ * readers that must neither block nor be blocked by allocation. Nothing in it changes
+ * after it is built, so it can be iterated at leisure, from any thread, while writers move
+ * on; the maps are read-only and in ascending ID order.
+ * <p>
+ * Farmers and requests are never modified once registered, so they are the live objects.
+ * Workers and active allocations change in place, so a version holds read-only copies of
+ * them frozen as their batch ended; their mutators, such as {@link Worker#setAvailable}, throw
+ * {@link UnsupportedOperationException}. Closed allocations are final and shared.
+ * Consecutive versions share every record and trie node that did not change between them,
+ * so a version costs memory in proportion to what changed since the last one, and old
+ * versions are collected once no reader holds them.
+ */
+public class AdminSnapshot {
+    static final AdminSnapshot EMPTY = new AdminSnapshot(0, PersistentIntMap.empty(), PersistentIntMap.empty(),
+            PersistentIntMap.empty(), PersistentIntMap.empty());
+
+    private final long version;
+    final PersistentIntMap<Farmer> farmers;
+    final PersistentIntMap<Worker> workers;
+    final PersistentIntMap<Request> requests;
+    final PersistentIntMap<Allocation> allocations;
+
+    AdminSnapshot(long version, PersistentIntMap<Farmer> farmers, PersistentIntMap<Worker> workers,
+                  PersistentIntMap<Request> requests, PersistentIntMap<Allocation> allocations) {
+        this.version = version;
+        this.farmers = farmers;
+        this.workers = workers;
+        this.requests = requests;
+        this.allocations = allocations;
+    }
+
+    /**
+     * Increases by one with each version published; the version built on load is 1. Batches
+     * that end at the same time may be published together as one version.
+     */
+    public long getVersion() { return version; }
+    public Map<Integer, Farmer> getFarmers() { return farmers.asMap(); }
+    public Map<Integer, Worker> getWorkers() { return workers.asMap(); }
+    /** Requests still pending in this version. */
+    public Map<Integer, Request> getRequests() { return requests.asMap(); }
+    public Map<Integer, Allocation> getAllocations() { return allocations.asMap(); }
+
+    @Override
+    public String toString() {
+        return "version " + version + ": " + farmers.size() + " farmers, " + workers.size() + " workers, "
+                + requests.size() + " requests, " + allocations.size() + " allocations";
+    }
+}
@@ -0,0 +1,130 @@
+package farmhelp.admin;
+
+import farmhelp.model.Allocation;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hands each allocation to a callback once it has been held longer than the
+ * configured hold time. Deadlines wait in a {@link DelayQueue}, so the expiry
+ * thread sleeps until the earliest one instead of scanning allocations.
+ * Each allocation has one live deadline, keyed by ID; one that has been replaced,
+ * or whose allocation was closed early, is simply ignored when due.
+ */
+class AllocationExpiry {
+    private static final class Deadline implements Delayed {
+        final Allocation allocation;
+        final long dueMillis;
+
+        Deadline(Allocation allocation, long dueMillis) {
+            this.allocation = allocation;
+            this.dueMillis = dueMillis;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueMillis, ((Deadline) other).dueMillis);
+        }
+    }
+
+    private final DelayQueue<Deadline> queue = new DelayQueue<>();
+    private final Map<Integer, Deadline> live = new ConcurrentHashMap<>();
+    private final Consumer<Allocation> onExpired;
+    private volatile long holdMillis;
+    private Thread thread;
+
+    AllocationExpiry(Consumer<Allocation> onExpired) {
+        this.onExpired = onExpired;
+    }
+
+    /**
+     * Sets how long allocations are held (0 turns expiry off) and schedules the given
+     * active allocations against it; deadlines count from each allocation's date. The
+     * queue is rebuilt from the live deadlines, so the ones replaced leave it at once.
+     */
+    synchronized void setHoldTime(long millis, Collection<Allocation> active) {
+        holdMillis = Math.max(0, millis);
+        if (holdMillis == 0) {
+            queue.clear();
+            live.clear();
+            return;
+        }
+        if (thread == null) {
+            thread = new Thread(this::run, "allocation-expiry");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        for (Allocation allocation : active) {
+            schedule(allocation);
+        }
+        // A deadline scheduled meanwhile may end up queued twice; only its first take counts.
+        queue.clear();
+        queue.addAll(live.values());
+    }
+
+    void schedule(Allocation allocation) {
+        long hold = holdMillis;
+        if (hold > 0 && allocation.isActive()) {
+            Deadline deadline = new Deadline(allocation, dueAt(allocation, hold));
+            live.put(allocation.getAllocationId(), deadline);
+            queue.add(deadline);
+        }
+    }
+
+    /** When the allocation expires under {@code hold}; work booked ahead is not overdue before it has happened. */
+    static long dueAt(Allocation allocation, long hold) {
+        long from = allocation.hasWorkWindow()
+                ? Math.max(allocation.getAllocationTime(), allocation.getWorkEnd())
+                : allocation.getAllocationTime();
+        return from + hold;
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Deadline deadline;
+            try {
+                deadline = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            Allocation allocation = deadline.allocation;
+            if (!live.remove(allocation.getAllocationId(), deadline)) {
+                continue;
+            }
+            long hold = holdMillis;
+            if (hold == 0 || !allocation.isActive()) {
+                continue;
+            }
+            // The hold time may have grown since this deadline was queued.
+            if (dueAt(allocation, hold) > System.currentTimeMillis()) {
+                schedule(allocation);
+                continue;
+            }
+            try {
+                onExpired.accept(allocation);
+            } catch (RuntimeException e) {
+                System.err.println("Error expiring allocation " + allocation.getAllocationId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    synchronized void close() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+        queue.clear();
+        live.clear();
+    }
+}
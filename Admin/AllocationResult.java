@@ -0,0 +1,205 @@
+package farmhelp.admin;
+
+import farmhelp.model.Farmer;
+import farmhelp.model.Request;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one allocation run: what happened to each request, in the order
+ * they were served, plus run totals. Nothing is formatted while allocating;
+ * {@link #writeReport(Writer)} renders the familiar text report on demand.
+ */
+public class AllocationResult {
+    public enum FailureReason {
+        FARMER_NOT_FOUND("Farmer not found for request."),
+        NO_MATCHING_WORKERS(null),
+        INSUFFICIENT_WORKERS("  Not enough workers available to satisfy minimum requirements (min: 1)");
+
+        private final String message;
+
+        FailureReason(String message) {
+            this.message = message;
+        }
+
+        String describe(Request request, Farmer farmer) {
+            if (message != null) {
+                return message;
+            }
+            return "  No available workers with skill '" + request.getSkillRequired() + "' in " + farmer.getLocation();
+        }
+    }
+
+    /** One request's outcome: either an allocation with its worker IDs or a failure reason. */
+    public static final class Outcome {
+        private static final int[] NONE = new int[0];
+
+        private final Request request;
+        private final Farmer farmer;
+        private final int allocationId;
+        private final int[] workerIds;
+        private final FailureReason failure;
+
+        private Outcome(Request request, Farmer farmer, int allocationId, int[] workerIds, FailureReason failure) {
+            this.request = request;
+            this.farmer = farmer;
+            this.allocationId = allocationId;
+            this.workerIds = workerIds;
+            this.failure = failure;
+        }
+
+        static Outcome allocated(Request request, Farmer farmer, int allocationId, int[] workerIds) {
+            return new Outcome(request, farmer, allocationId, workerIds, null);
+        }
+
+        static Outcome failed(Request request, Farmer farmer, FailureReason reason) {
+            return new Outcome(request, farmer, 0, NONE, reason);
+        }
+
+        public boolean isAllocated() { return failure == null; }
+        public int getRequestId() { return request.getRequestId(); }
+        public int getFarmerId() { return request.getFarmerId(); }
+        public Request getRequest() { return request; }
+        /** 0 when the request failed. */
+        public int getAllocationId() { return allocationId; }
+        /** The array is shared; callers must not modify it. Empty when the request failed. */
+        public int[] getWorkerIds() { return workerIds; }
+        public int getWorkerCount() { return workerIds.length; }
+        /** null when the request was allocated. */
+        public FailureReason getFailure() { return failure; }
+    }
+
+    private final List<Outcome> outcomes = new ArrayList<>();
+    private final boolean noPendingRequests;
+    private int attempts;
+    private int successful;
+    private long workersRequested;
+    private long workersAllocated;
+    private int locations = -1;
+    private long runtimeNanos;
+
+    AllocationResult() {
+        this(false);
+    }
+
+    private AllocationResult(boolean noPendingRequests) {
+        this.noPendingRequests = noPendingRequests;
+    }
+
+    static AllocationResult noPendingRequests() {
+        return new AllocationResult(true);
+    }
+
+    void attempted(int count) {
+        attempts += count;
+    }
+
+    /** @param demand workers the request could have received at most */
+    void add(Outcome outcome, int demand) {
+        outcomes.add(outcome);
+        workersRequested += demand;
+        if (outcome.isAllocated()) {
+            successful++;
+            workersAllocated += outcome.getWorkerCount();
+        }
+    }
+
+    void merge(AllocationResult other) {
+        outcomes.addAll(other.outcomes);
+        attempts += other.attempts;
+        successful += other.successful;
+        workersRequested += other.workersRequested;
+        workersAllocated += other.workersAllocated;
+    }
+
+    void finish(long startNanos, int locations) {
+        this.runtimeNanos = System.nanoTime() - startNanos;
+        this.locations = locations;
+    }
+
+    public List<Outcome> getOutcomes() { return Collections.unmodifiableList(outcomes); }
+    /** Pending entries taken up by the run, including ones a concurrent run had already served. */
+    public int getAttempts() { return attempts; }
+    public int getSuccessful() { return successful; }
+    public int getFailed() { return outcomes.size() - successful; }
+    public long getWorkersRequested() { return workersRequested; }
+    public long getWorkersAllocated() { return workersAllocated; }
+    public double getFillRate() { return workersRequested == 0 ? 0 : (double) workersAllocated / workersRequested; }
+    /** Locations allocated as separate partitions, or -1 for a single sequential run. */
+    public int getLocations() { return locations; }
+    public long getRuntimeNanos() { return runtimeNanos; }
+
+    /** Streams the text report, one request at a time, to {@code out}. */
+    public void writeReport(Writer out) throws IOException {
+        if (noPendingRequests) {
+            out.write("No pending requests found.");
+            return;
+        }
+        out.write("=== WORKER ALLOCATION ===\n\n");
+        for (Outcome outcome : outcomes) {
+            writeOutcome(outcome, out);
+        }
+        writeSummary(out);
+    }
+
+    /** Only the summary block of the report. */
+    public void writeSummary(Writer out) throws IOException {
+        if (noPendingRequests) {
+            out.write("No pending requests found.");
+            return;
+        }
+        out.write("\n=== SUMMARY ===\n");
+        if (locations >= 0) {
+            out.write("Locations: " + locations + "\n");
+        }
+        out.write("Total Attempts: " + attempts + "\n");
+        out.write("Successful: " + successful + "\n");
+        out.write("Workers Allocated: " + workersAllocated + " of " + workersRequested
+                + String.format(" (fill rate %.1f%%)", 100 * getFillRate()) + "\n");
+        out.write("Runtime: " + runtimeNanos / 1_000_000 + " ms");
+    }
+
+    private static void writeOutcome(Outcome outcome, Writer out) throws IOException {
+        Request request = outcome.request;
+        if (!outcome.isAllocated()) {
+            out.write("✗ Failed: Request ID " + request.getRequestId() + " | "
+                    + outcome.failure.describe(request, outcome.farmer) + "\n\n");
+            return;
+        }
+        Farmer farmer = outcome.farmer;
+        out.write("✓ Processing Farmer: " + farmer.getName() + " (Income: ₹" + wholeNumber(farmer.getIncome()) + ")\n");
+        out.write("  Skill: " + request.getSkillRequired() + ", Requested: " + request.getWorkersRequested() + "\n");
+        out.write("  SUCCESS: Allocated " + outcome.workerIds.length + " workers\n");
+        out.write("  Worker IDs: [");
+        for (int i = 0; i < outcome.workerIds.length; i++) {
+            if (i > 0) {
+                out.write(", ");
+            }
+            out.write(Integer.toString(outcome.workerIds[i]));
+        }
+        out.write("]\n\n");
+    }
+
+    // Same digits as String.format("%.0f", value) for the non-negative incomes Farmer allows, without the formatter.
+    private static String wholeNumber(double value) {
+        return value >= 0 && value < 1e15 ? Long.toString(Math.round(value)) : String.format("%.0f", value);
+    }
+
+    /** The whole report as one string; prefer {@link #writeReport(Writer)} for large runs. */
+    @Override
+    public String toString() {
+        StringWriter out = new StringWriter();
+        try {
+            writeReport(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+}
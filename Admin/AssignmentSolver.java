@@ -0,0 +1,183 @@
+package farmhelp.admin;
+
+import farmhelp.model.Worker;
+
+import java.util.*;
+
+/**
+ * Assigns one location's requests to its available workers as a max-flow problem.
+ * <p>
+ * Workers whose skills cover the same set of requested skills are interchangeable,
+ * so they collapse into one "type" node with their head count as capacity. The
+ * network is then skill -> type -> sink and stays tiny however many workers there
+ * are. Requests are taken in priority order and each one pushes as much flow as it
+ * can from its skill node along augmenting paths. An augmenting path may move an
+ * earlier request's workers to another type, but never reduces how many that
+ * request gets, so priority is kept while multi-skilled workers end up where
+ * nobody else could serve.
+ */
+final class AssignmentSolver {
+    private AssignmentSolver() {
+    }
+
+    /**
+     * @param skills  skill code per request, in priority order; -1 for a skill no worker has
+     * @param demand  most workers each request may receive
+     * @param workers distinct available workers, lowest ID first
+     * @return the workers chosen for each request, parallel to {@code skills}
+     */
+    static List<List<Worker>> solve(int[] skills, int[] demand, List<Worker> workers) {
+        int requestCount = skills.length;
+        Map<Integer, Integer> skillIndex = new HashMap<>();
+        for (int code : skills) {
+            if (code >= 0) {
+                skillIndex.putIfAbsent(code, skillIndex.size());
+            }
+        }
+        int k = skillIndex.size();
+        int[] localCodes = new int[k];
+        skillIndex.forEach((code, index) -> localCodes[index] = code);
+
+        // Group workers by which of the requested skills they cover.
+        Map<BitSet, Integer> typeIndex = new HashMap<>();
+        List<BitSet> typeSkills = new ArrayList<>();
+        List<List<Worker>> typeWorkers = new ArrayList<>();
+        BitSet covered = new BitSet(k);
+        for (Worker worker : workers) {
+            covered.clear();
+            for (int i = 0; i < k; i++) {
+                if (worker.hasSkill(localCodes[i])) {
+                    covered.set(i);
+                }
+            }
+            if (covered.isEmpty()) {
+                continue;
+            }
+            Integer type = typeIndex.get(covered);
+            if (type == null) {
+                type = typeSkills.size();
+                BitSet key = (BitSet) covered.clone();
+                typeIndex.put(key, type);
+                typeSkills.add(key);
+                typeWorkers.add(new ArrayList<>());
+            }
+            typeWorkers.get(type).add(worker);
+        }
+        int m = typeSkills.size();
+        int[] capacity = new int[m];
+        for (int t = 0; t < m; t++) {
+            capacity[t] = typeWorkers.get(t).size();
+        }
+
+        // Specialists first, so generalists are kept for skills only they can cover.
+        int[][] typesOfSkill = new int[k][];
+        for (int s = 0; s < k; s++) {
+            List<Integer> types = new ArrayList<>();
+            for (int t = 0; t < m; t++) {
+                if (typeSkills.get(t).get(s)) {
+                    types.add(t);
+                }
+            }
+            types.sort(Comparator.comparingInt((Integer t) -> typeSkills.get(t).cardinality()).thenComparingInt(t -> t));
+            typesOfSkill[s] = types.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        int[][] flow = new int[k][m];
+        int[] used = new int[m];
+        int[] assigned = new int[requestCount];
+        int[] parentOfType = new int[m];
+        int[] parentOfSkill = new int[k];
+        int[] queue = new int[k];
+        // Once nothing is reachable from a skill, later augmentations cannot open a path to it either.
+        boolean[] exhausted = new boolean[k];
+        for (int r = 0; r < requestCount; r++) {
+            Integer source = skills[r] < 0 ? null : skillIndex.get(skills[r]);
+            if (source == null || exhausted[source]) {
+                continue;
+            }
+            int need = demand[r];
+            while (need > 0) {
+                int sink = augmentingPath(source, typesOfSkill, typeSkills, flow, capacity, used, parentOfType, parentOfSkill, queue);
+                if (sink < 0) {
+                    exhausted[source] = true;
+                    break;
+                }
+                int amount = Math.min(need, capacity[sink] - used[sink]);
+                for (int t = sink; parentOfType[t] != source; t = parentOfSkill[parentOfType[t]]) {
+                    amount = Math.min(amount, flow[parentOfType[t]][parentOfSkill[parentOfType[t]]]);
+                }
+                used[sink] += amount;
+                int t = sink;
+                while (true) {
+                    int s = parentOfType[t];
+                    flow[s][t] += amount;
+                    if (s == source) {
+                        break;
+                    }
+                    t = parentOfSkill[s];
+                    flow[s][t] -= amount;
+                }
+                need -= amount;
+            }
+            assigned[r] = demand[r] - need;
+        }
+
+        // Turn per-skill flows into concrete workers, in request order within each skill.
+        int[] nextWorker = new int[m];
+        int[] typeCursor = new int[k];
+        List<List<Worker>> result = new ArrayList<>(requestCount);
+        for (int r = 0; r < requestCount; r++) {
+            List<Worker> chosen = new ArrayList<>(assigned[r]);
+            if (assigned[r] > 0) {
+                int s = skillIndex.get(skills[r]);
+                int[] types = typesOfSkill[s];
+                while (chosen.size() < assigned[r]) {
+                    int t = types[typeCursor[s]];
+                    if (flow[s][t] == 0) {
+                        typeCursor[s]++;
+                        continue;
+                    }
+                    flow[s][t]--;
+                    chosen.add(typeWorkers.get(t).get(nextWorker[t]++));
+                }
+            }
+            result.add(chosen);
+        }
+        return result;
+    }
+
+    /**
+     * Breadth-first search over the residual network from one skill node: forward along any
+     * skill -> type edge, backward along type -> skill edges that carry flow. Returns the first
+     * type reached that still has spare workers, or -1; parents trace the path back.
+     */
+    private static int augmentingPath(int source, int[][] typesOfSkill, List<BitSet> typeSkills, int[][] flow,
+                                      int[] capacity, int[] used, int[] parentOfType, int[] parentOfSkill, int[] queue) {
+        Arrays.fill(parentOfType, -1);
+        Arrays.fill(parentOfSkill, -1);
+        parentOfSkill[source] = source;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int s = queue[head++];
+            for (int t : typesOfSkill[s]) {
+                if (parentOfType[t] >= 0) {
+                    continue;
+                }
+                parentOfType[t] = s;
+                if (used[t] < capacity[t]) {
+                    return t;
+                }
+                BitSet covered = typeSkills.get(t);
+                for (int next = covered.nextSetBit(0); next >= 0; next = covered.nextSetBit(next + 1)) {
+                    if (parentOfSkill[next] < 0 && flow[next][t] > 0) {
+                        parentOfSkill[next] = t;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,30 @@
+package farmhelp.admin;
+
+import java.util.*;
+
+/**
+ * Outcome of a bulk Admin call: the IDs assigned to accepted records and the
+ * failure reason for each rejected record, keyed by its position in the input.
+ */
+public class BatchResult {
+    private final List<Integer> acceptedIds = new ArrayList<>();
+    private final Map<Integer, String> failures = new LinkedHashMap<>();
+
+    void accepted(int id) {
+        acceptedIds.add(id);
+    }
+
+    void failed(int index, String reason) {
+        failures.put(index, reason);
+    }
+
+    public List<Integer> getAcceptedIds() { return Collections.unmodifiableList(acceptedIds); }
+    public Map<Integer, String> getFailures() { return Collections.unmodifiableMap(failures); }
+    public int getAcceptedCount() { return acceptedIds.size(); }
+    public int getFailedCount() { return failures.size(); }
+
+    @Override
+    public String toString() {
+        return "Accepted: " + acceptedIds.size() + ", Failed: " + failures.size();
+    }
+}
@@ -0,0 +1,342 @@
+package farmhelp.admin;
+
+import farmhelp.model.Allocation;
+import farmhelp.model.Farmer;
+import farmhelp.model.Request;
+import farmhelp.model.Worker;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Versioned binary image of all four maps. Every entity type is stored as
+ * fixed-width primitive columns; all strings live once in a shared string
+ * table and columns refer to them by index. Decoding is bulk array reads,
+ * so loading is bound by I/O rather than parsing.
+ *
+ * <pre>
+ * int magic, int version
+ * string table:  int count, then (int byteLength, UTF-8 bytes) per string
+ * farmers:       int n, int[n] id, name, location, crop; double[n] landSize, income, latitude, longitude
+ * workers:       int n, int[n] id, name, location; byte[n] available;
+ *                int[n + 1] skill offsets, int[] skill refs; double[n] latitude, longitude
+ * requests:      int n, int[n] id, farmerId, skill, workersRequested; long[n] date, workStart, workEnd
+ * allocations:   int n, int[n] id, requestId, farmerId, status; long[n] date, workStart, workEnd;
+ *                int[n + 1] worker offsets, int[] worker ids
+ * </pre>
+ * Coordinates are NaN where unknown and work windows 0 to 0 where there is none. Version 1
+ * had no coordinate columns and version 2 no work window columns; both are still read.
+ */
+final class BinarySnapshot {
+    static final int MAGIC = 0x46485350; // "FHSP"
+    static final int VERSION = 3;
+
+    /** Everything read back from one snapshot, in the order it was written. */
+    static final class Contents {
+        final List<Farmer> farmers;
+        final List<Worker> workers;
+        final List<Request> requests;
+        final List<Allocation> allocations;
+
+        Contents(List<Farmer> farmers, List<Worker> workers, List<Request> requests, List<Allocation> allocations) {
+            this.farmers = farmers;
+            this.workers = workers;
+            this.requests = requests;
+            this.allocations = allocations;
+        }
+    }
+
+    private BinarySnapshot() {
+    }
+
+    /** Writes to a temporary file and renames it into place, so readers never see a partial snapshot. */
+    static void write(File file, Collection<Farmer> farmers, Collection<Worker> workers,
+                      Collection<Request> requests, Collection<Allocation> allocations) throws IOException {
+        StringTable strings = new StringTable();
+        List<Farmer> farmerList = new ArrayList<>(farmers);
+        List<Worker> workerList = new ArrayList<>(workers);
+        List<Request> requestList = new ArrayList<>(requests);
+        List<Allocation> allocationList = new ArrayList<>(allocations);
+
+        File temp = new File(file.getPath() + ".tmp");
+        FileOutputStream target = new FileOutputStream(temp);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(target, 1 << 16))) {
+            int n = farmerList.size();
+            int[] fId = new int[n], fName = new int[n], fLocation = new int[n], fCrop = new int[n];
+            double[] fLand = new double[n], fIncome = new double[n], fLat = new double[n], fLon = new double[n];
+            for (int i = 0; i < n; i++) {
+                Farmer f = farmerList.get(i);
+                fId[i] = f.getId();
+                fName[i] = strings.ref(f.getName());
+                fLocation[i] = strings.ref(f.getLocation());
+                fCrop[i] = strings.ref(f.getCrop());
+                fLand[i] = f.getLandSize();
+                fIncome[i] = f.getIncome();
+                fLat[i] = f.getLatitude();
+                fLon[i] = f.getLongitude();
+            }
+
+            n = workerList.size();
+            int[] wId = new int[n], wName = new int[n], wLocation = new int[n], wSkillOffsets = new int[n + 1];
+            byte[] wAvailable = new byte[n];
+            double[] wLat = new double[n], wLon = new double[n];
+            IntList wSkills = new IntList();
+            for (int i = 0; i < n; i++) {
+                Worker w = workerList.get(i);
+                wId[i] = w.getId();
+                wName[i] = strings.ref(w.getName());
+                wLocation[i] = strings.ref(w.getLocation());
+                wAvailable[i] = (byte) (w.isAvailable() ? 1 : 0);
+                wLat[i] = w.getLatitude();
+                wLon[i] = w.getLongitude();
+                for (String skill : w.getSkills()) {
+                    wSkills.add(strings.ref(skill));
+                }
+                wSkillOffsets[i + 1] = wSkills.size();
+            }
+
+            n = requestList.size();
+            int[] rId = new int[n], rFarmer = new int[n], rSkill = new int[n], rCount = new int[n];
+            long[] rDate = new long[n], rStart = new long[n], rEnd = new long[n];
+            for (int i = 0; i < n; i++) {
+                Request r = requestList.get(i);
+                rId[i] = r.getRequestId();
+                rFarmer[i] = r.getFarmerId();
+                rSkill[i] = strings.ref(r.getSkillRequired());
+                rCount[i] = r.getWorkersRequested();
+                rDate[i] = r.getRequestTime();
+                rStart[i] = r.getWorkStart();
+                rEnd[i] = r.getWorkEnd();
+            }
+
+            n = allocationList.size();
+            int[] aId = new int[n], aRequest = new int[n], aFarmer = new int[n], aStatus = new int[n];
+            int[] aWorkerOffsets = new int[n + 1];
+            long[] aDate = new long[n], aStart = new long[n], aEnd = new long[n];
+            IntList aWorkers = new IntList();
+            for (int i = 0; i < n; i++) {
+                Allocation a = allocationList.get(i);
+                aId[i] = a.getAllocationId();
+                aRequest[i] = a.getRequestId();
+                aFarmer[i] = a.getFarmerId();
+                aStatus[i] = strings.ref(a.getStatus());
+                aDate[i] = a.getAllocationTime();
+                aStart[i] = a.getWorkStart();
+                aEnd[i] = a.getWorkEnd();
+                for (int w = 0; w < a.getWorkerCount(); w++) {
+                    aWorkers.add(a.getWorkerId(w));
+                }
+                aWorkerOffsets[i + 1] = aWorkers.size();
+            }
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            strings.writeTo(out);
+
+            out.writeInt(fId.length);
+            writeInts(out, fId, fName, fLocation, fCrop);
+            writeDoubles(out, fLand, fIncome, fLat, fLon);
+
+            out.writeInt(wId.length);
+            writeInts(out, wId, wName, wLocation);
+            out.write(wAvailable);
+            writeInts(out, wSkillOffsets);
+            out.writeInt(wSkills.size());
+            writeInts(out, wSkills.toArray());
+            writeDoubles(out, wLat, wLon);
+
+            out.writeInt(rId.length);
+            writeInts(out, rId, rFarmer, rSkill, rCount);
+            writeLongs(out, rDate, rStart, rEnd);
+
+            out.writeInt(aId.length);
+            writeInts(out, aId, aRequest, aFarmer, aStatus);
+            writeLongs(out, aDate, aStart, aEnd);
+            writeInts(out, aWorkerOffsets);
+            out.writeInt(aWorkers.size());
+            writeInts(out, aWorkers.toArray());
+            out.flush();
+            target.getFD().sync();
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static Contents read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a FarmHelp snapshot: " + file.getName());
+            }
+            int version = in.readInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + file.getName());
+            }
+            String[] strings = readStrings(in);
+
+            int n = in.readInt();
+            int[] fId = readInts(in, n), fName = readInts(in, n), fLocation = readInts(in, n), fCrop = readInts(in, n);
+            double[] fLand = readDoubles(in, n), fIncome = readDoubles(in, n);
+            double[] fLat = version > 1 ? readDoubles(in, n) : null, fLon = version > 1 ? readDoubles(in, n) : null;
+            List<Farmer> farmers = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                Farmer farmer = new Farmer(fId[i], strings[fName[i]], strings[fLocation[i]], strings[fCrop[i]], fLand[i], fIncome[i]);
+                if (fLat != null) {
+                    farmer.setCoordinates(fLat[i], fLon[i]);
+                }
+                farmers.add(farmer);
+            }
+
+            n = in.readInt();
+            int[] wId = readInts(in, n), wName = readInts(in, n), wLocation = readInts(in, n);
+            byte[] wAvailable = new byte[n];
+            in.readFully(wAvailable);
+            int[] wSkillOffsets = readInts(in, n + 1);
+            int[] wSkills = readInts(in, in.readInt());
+            double[] wLat = version > 1 ? readDoubles(in, n) : null, wLon = version > 1 ? readDoubles(in, n) : null;
+            List<Worker> workers = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                List<String> skills = new ArrayList<>(wSkillOffsets[i + 1] - wSkillOffsets[i]);
+                for (int s = wSkillOffsets[i]; s < wSkillOffsets[i + 1]; s++) {
+                    skills.add(strings[wSkills[s]]);
+                }
+                Worker worker = new Worker(wId[i], strings[wName[i]], strings[wLocation[i]], skills, wAvailable[i] != 0);
+                if (wLat != null) {
+                    worker.setCoordinates(wLat[i], wLon[i]);
+                }
+                workers.add(worker);
+            }
+
+            n = in.readInt();
+            int[] rId = readInts(in, n), rFarmer = readInts(in, n), rSkill = readInts(in, n), rCount = readInts(in, n);
+            long[] rDate = readLongs(in, n);
+            long[] rStart = version > 2 ? readLongs(in, n) : new long[n], rEnd = version > 2 ? readLongs(in, n) : new long[n];
+            List<Request> requests = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                requests.add(new Request(rId[i], rFarmer[i], strings[rSkill[i]], rCount[i], rDate[i], rStart[i], rEnd[i]));
+            }
+
+            n = in.readInt();
+            int[] aId = readInts(in, n), aRequest = readInts(in, n), aFarmer = readInts(in, n), aStatus = readInts(in, n);
+            long[] aDate = readLongs(in, n);
+            long[] aStart = version > 2 ? readLongs(in, n) : new long[n], aEnd = version > 2 ? readLongs(in, n) : new long[n];
+            int[] aWorkerOffsets = readInts(in, n + 1);
+            int[] aWorkers = readInts(in, in.readInt());
+            List<Allocation> allocations = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                int[] workerIds = Arrays.copyOfRange(aWorkers, aWorkerOffsets[i], aWorkerOffsets[i + 1]);
+                allocations.add(new Allocation(aId[i], aRequest[i], aFarmer[i], workerIds, aDate[i], strings[aStatus[i]],
+                        aStart[i], aEnd[i]));
+            }
+            return new Contents(farmers, workers, requests, allocations);
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[]... columns) throws IOException {
+        for (int[] column : columns) {
+            ByteBuffer buffer = ByteBuffer.allocate(column.length * Integer.BYTES);
+            buffer.asIntBuffer().put(column);
+            out.write(buffer.array());
+        }
+    }
+
+    private static void writeLongs(DataOutputStream out, long[]... columns) throws IOException {
+        for (long[] column : columns) {
+            ByteBuffer buffer = ByteBuffer.allocate(column.length * Long.BYTES);
+            buffer.asLongBuffer().put(column);
+            out.write(buffer.array());
+        }
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[]... columns) throws IOException {
+        for (double[] column : columns) {
+            ByteBuffer buffer = ByteBuffer.allocate(column.length * Double.BYTES);
+            buffer.asDoubleBuffer().put(column);
+            out.write(buffer.array());
+        }
+    }
+
+    private static ByteBuffer readBlock(DataInputStream in, int bytes) throws IOException {
+        byte[] block = new byte[bytes];
+        in.readFully(block);
+        return ByteBuffer.wrap(block);
+    }
+
+    private static int[] readInts(DataInputStream in, int n) throws IOException {
+        int[] column = new int[n];
+        readBlock(in, n * Integer.BYTES).asIntBuffer().get(column);
+        return column;
+    }
+
+    private static long[] readLongs(DataInputStream in, int n) throws IOException {
+        long[] column = new long[n];
+        readBlock(in, n * Long.BYTES).asLongBuffer().get(column);
+        return column;
+    }
+
+    private static double[] readDoubles(DataInputStream in, int n) throws IOException {
+        double[] column = new double[n];
+        readBlock(in, n * Double.BYTES).asDoubleBuffer().get(column);
+        return column;
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+        String[] strings = new String[in.readInt()];
+        byte[] buffer = new byte[64];
+        for (int i = 0; i < strings.length; i++) {
+            int length = in.readInt();
+            if (length > buffer.length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            in.readFully(buffer, 0, length);
+            strings[i] = new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    private static final class StringTable {
+        private final Map<String, Integer> refs = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int ref(String value) {
+            Integer ref = refs.get(value);
+            if (ref == null) {
+                ref = values.size();
+                refs.put(value, ref);
+                values.add(value);
+            }
+            return ref;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(values.size());
+            for (String value : values) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
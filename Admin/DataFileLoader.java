@@ -0,0 +1,280 @@
+package farmhelp.admin;
+
+import farmhelp.model.Allocation;
+import farmhelp.model.Farmer;
+import farmhelp.model.Request;
+import farmhelp.model.Worker;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Reads Admin's comma-separated data files. Each file is memory-mapped in
+ * line-aligned chunks which are parsed in parallel with a plain index-based
+ * field scanner; records come back in file order so the caller sees exactly
+ * what a line-by-line read would produce.
+ */
+final class DataFileLoader {
+    private static final long CHUNK_SIZE = 8L * 1024 * 1024;
+
+    interface LineParser<T> {
+        /** Returns null for lines that do not have the expected shape. */
+        T parse(String line);
+    }
+
+    private DataFileLoader() {
+    }
+
+    /** Parses every record in {@code file}; a missing file yields an empty list. */
+    static <T> List<T> load(File file, LineParser<T> parser) {
+        if (!file.exists()) {
+            return new ArrayList<>();
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            List<long[]> chunks = split(channel);
+            int[] skipped = new int[chunks.size()];
+            List<List<T>> parsed = new ArrayList<>(chunks.size());
+            for (int i = 0; i < chunks.size(); i++) {
+                parsed.add(null);
+            }
+            // Indices rather than chunks are streamed so results land back in file order.
+            Arrays.stream(indices(chunks.size())).parallel().forEach(i -> {
+                long[] range = chunks.get(i);
+                try {
+                    ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, range[0], range[1] - range[0]);
+                    List<T> records = new ArrayList<>();
+                    skipped[i] = parseChunk(StandardCharsets.UTF_8.decode(bytes).toString(), parser, records);
+                    parsed.set(i, records);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            int skippedLines = Arrays.stream(skipped).sum();
+            if (skippedLines > 0) {
+                System.err.println("Skipped " + skippedLines + " unreadable lines in " + file.getName());
+            }
+            return parsed.stream().flatMap(List::stream).collect(Collectors.toList());
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error loading " + file.getName() + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private static int[] indices(int count) {
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = i;
+        }
+        return result;
+    }
+
+    /** Cuts the file into [start, end) ranges that each end just after a newline (or at EOF). */
+    private static List<long[]> split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + CHUNK_SIZE);
+            while (end < size) {
+                probe.clear();
+                int n = channel.read(probe, end);
+                int newline = -1;
+                for (int i = 0; i < n; i++) {
+                    if (probe.get(i) == '\n') {
+                        newline = i;
+                        break;
+                    }
+                }
+                if (newline >= 0) {
+                    end += newline + 1;
+                    break;
+                }
+                end += n;
+            }
+            chunks.add(new long[]{start, Math.min(end, size)});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static <T> int parseChunk(String text, LineParser<T> parser, List<T> out) {
+        int skipped = 0;
+        int length = text.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && text.charAt(lineEnd) != '\n' && text.charAt(lineEnd) != '\r') {
+                lineEnd++;
+            }
+            String line = text.substring(lineStart, lineEnd).trim();
+            if (!line.isEmpty()) {
+                try {
+                    T record = parser.parse(line);
+                    if (record != null) {
+                        out.add(record);
+                    }
+                } catch (RuntimeException e) {
+                    skipped++;
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return skipped;
+    }
+
+    static Farmer parseFarmer(String line) {
+        Fields f = new Fields(line, ',');
+        if (f.count() != 6 && f.count() != 8) {
+            return null;
+        }
+        Farmer farmer = new Farmer(f.nextInt(), f.nextString(), f.nextString(), f.nextString(), f.nextDouble(), f.nextDouble());
+        if (f.count() == 8) {
+            farmer.setCoordinates(f.nextDouble(), f.nextDouble());
+        }
+        return farmer;
+    }
+
+    static Worker parseWorker(String line) {
+        Fields f = new Fields(line, ',');
+        int fields = f.count();
+        if (fields != 5 && fields != 7) {
+            return null;
+        }
+        int id = f.nextInt();
+        String name = f.nextString();
+        String location = f.nextString();
+        Fields skills = new Fields(f.nextString(), '|');
+        List<String> skillList = new ArrayList<>(skills.count());
+        for (int i = skills.count(); i > 0; i--) {
+            skillList.add(skills.nextString());
+        }
+        Worker worker = new Worker(id, name, location, skillList, f.nextBoolean());
+        if (fields == 7) {
+            worker.setCoordinates(f.nextDouble(), f.nextDouble());
+        }
+        return worker;
+    }
+
+    // Admin advances its request IDs past every loaded ID as it applies the record.
+    // A work window adds two trailing fields to requests and allocations.
+    static Request parseRequest(String line) {
+        Fields f = new Fields(line, ',');
+        if (f.count() != 5 && f.count() != 7) {
+            return null;
+        }
+        int requestId = f.nextInt();
+        int farmerId = f.nextInt();
+        String skill = f.nextString();
+        int workersRequested = f.nextInt();
+        long requestTime = f.nextLong();
+        if (f.count() == 7) {
+            return new Request(requestId, farmerId, skill, workersRequested, requestTime, f.nextLong(), f.nextLong());
+        }
+        return new Request(requestId, farmerId, skill, workersRequested, requestTime);
+    }
+
+    static Allocation parseAllocation(String line) {
+        Fields f = new Fields(line, ',');
+        if (f.count() != 6 && f.count() != 8) {
+            return null;
+        }
+        int allocationId = f.nextInt();
+        int requestId = f.nextInt();
+        int farmerId = f.nextInt();
+        Fields ids = new Fields(f.nextString(), '|');
+        int[] workerIds = new int[ids.count()];
+        for (int i = 0; i < workerIds.length; i++) {
+            workerIds[i] = ids.nextInt();
+        }
+        long allocationTime = f.nextLong();
+        String status = f.nextString();
+        if (f.count() == 8) {
+            return new Allocation(allocationId, requestId, farmerId, workerIds, allocationTime, status, f.nextLong(), f.nextLong());
+        }
+        return new Allocation(allocationId, requestId, farmerId, workerIds, allocationTime, status);
+    }
+
+    /**
+     * Walks the fields of one line without regex or an intermediate array.
+     * Field counting follows {@link String#split(String)}: trailing empty fields are dropped.
+     */
+    static final class Fields {
+        private final String line;
+        private final char separator;
+        private final int count;
+        private int position;
+
+        Fields(String line, char separator) {
+            this.line = line;
+            this.separator = separator;
+            this.count = countFields();
+        }
+
+        private int countFields() {
+            int fields = 1;
+            int lastNonEmpty = line.isEmpty() ? 1 : 0;
+            int fieldStart = 0;
+            for (int i = 0; i <= line.length(); i++) {
+                if (i == line.length() || line.charAt(i) == separator) {
+                    if (i > fieldStart) {
+                        lastNonEmpty = fields;
+                    }
+                    if (i < line.length()) {
+                        fields++;
+                    }
+                    fieldStart = i + 1;
+                }
+            }
+            return lastNonEmpty;
+        }
+
+        int count() {
+            return count;
+        }
+
+        private int fieldEnd() {
+            int end = line.indexOf(separator, position);
+            return end < 0 ? line.length() : end;
+        }
+
+        String nextString() {
+            int end = fieldEnd();
+            String value = line.substring(position, end);
+            position = end + 1;
+            return value;
+        }
+
+        int nextInt() {
+            int end = fieldEnd();
+            int value = Integer.parseInt(line, position, end, 10);
+            position = end + 1;
+            return value;
+        }
+
+        long nextLong() {
+            int end = fieldEnd();
+            long value = Long.parseLong(line, position, end, 10);
+            position = end + 1;
+            return value;
+        }
+
+        double nextDouble() {
+            return Double.parseDouble(nextString());
+        }
+
+        boolean nextBoolean() {
+            int end = fieldEnd();
+            boolean value = end - position == 4 && line.regionMatches(true, position, "true", 0, 4);
+            position = end + 1;
+            return value;
+        }
+    }
+}
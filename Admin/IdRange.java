@@ -0,0 +1,52 @@
+package farmhelp.admin;
+
+/**
+ * The block of IDs one {@link Admin} hands out for people, requests and allocations.
+ * Shards get disjoint blocks in shard order, so IDs never collide between shards,
+ * whether they run in one JVM or as separate processes, and the shard that owns any
+ * record can be told from its ID alone.
+ */
+public final class IdRange {
+    /** Every positive int; what a stand-alone Admin uses. */
+    public static final IdRange ALL = new IdRange(1, Integer.MAX_VALUE);
+
+    private final int first;
+    private final int last;
+
+    public IdRange(int first, int last) {
+        if (first < 1 || last < first) {
+            throw new IllegalArgumentException("Invalid ID range " + first + ".." + last);
+        }
+        this.first = first;
+        this.last = last;
+    }
+
+    /** Shard {@code index} of {@code count}: the positive ints split into equal consecutive blocks. */
+    public static IdRange forShard(int index, int count) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Invalid shard " + index + " of " + count);
+        }
+        int size = Integer.MAX_VALUE / count;
+        return new IdRange(index * size + 1, index == count - 1 ? Integer.MAX_VALUE : (index + 1) * size);
+    }
+
+    /** Inverse of {@link #forShard}: the shard whose block holds {@code id}, or -1 if none does. */
+    public static int shardOf(int id, int count) {
+        if (id < 1) {
+            return -1;
+        }
+        return Math.min((id - 1) / (Integer.MAX_VALUE / count), count - 1);
+    }
+
+    public int getFirst() { return first; }
+    public int getLast() { return last; }
+
+    public boolean contains(int id) {
+        return id >= first && id <= last;
+    }
+
+    @Override
+    public String toString() {
+        return first + ".." + last;
+    }
+}
@@ -0,0 +1,37 @@
+package farmhelp.admin;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Next free ID within an {@link IdRange}. Loading moves it past every ID already in
+ * use; IDs outside the range, e.g. from data written before sharding, are ignored.
+ */
+class IdSequence {
+    private final IdRange range;
+    private final AtomicInteger next;
+
+    IdSequence(IdRange range) {
+        this.range = range;
+        this.next = new AtomicInteger(range.getFirst());
+    }
+
+    int next() {
+        return reserve(1);
+    }
+
+    /** Hands out {@code count} consecutive IDs at once and returns the first. */
+    int reserve(int count) {
+        int start = next.getAndAdd(count);
+        // Compared as longs: the last block ends at Integer.MAX_VALUE, where the counter wraps.
+        if (start < range.getFirst() || (long) start + count - 1 > range.getLast()) {
+            throw new IllegalStateException("ID range " + range + " is exhausted");
+        }
+        return start;
+    }
+
+    void advancePast(int id) {
+        if (range.contains(id) && id < Integer.MAX_VALUE) {
+            next.accumulateAndGet(id + 1, Math::max);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package farmhelp.admin;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Append-only log of mutation records written between snapshots. Each record
+ * is one text line; replaying the log over the last snapshot rebuilds state.
+ */
+class Journal {
+    private final File file;
+    private final boolean sync;
+    private FileOutputStream out;
+    private BufferedWriter writer;
+    private volatile int records;
+    // Running totals that survive truncation: records appended, and records known to be flushed.
+    private volatile long appended;
+    private volatile long committed;
+    private Runnable commitHandler = this::commit;
+    // Per thread, so one caller's open batch never delays another caller's commit.
+    private final ThreadLocal<int[]> batchDepth = ThreadLocal.withInitial(() -> new int[1]);
+
+    Journal(File file, boolean sync) {
+        this.file = file;
+        this.sync = sync;
+    }
+
+    /** Feeds every complete record in the log to {@code handler} and returns how many there were. */
+    int replay(Consumer<String> handler) {
+        int count = 0;
+        if (!file.exists()) {
+            return count;
+        }
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    handler.accept(line);
+                    count++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error replaying journal: " + e.getMessage());
+        }
+        return count;
+    }
+
+    synchronized void open(int existingRecords) {
+        try {
+            out = new FileOutputStream(file, true);
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            records = existingRecords;
+            committed = appended;
+        } catch (IOException e) {
+            System.err.println("Error opening journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs after a record appended outside any batch, in place of committing it there
+     * and then; see {@link PersistenceWriter}. Batches are committed by their owner.
+     */
+    void setCommitHandler(Runnable handler) {
+        this.commitHandler = handler;
+    }
+
+    /** Defers the commit of appended records until the matching {@link #endBatch()}. */
+    void beginBatch() {
+        batchDepth.get()[0]++;
+    }
+
+    /** Returns true when this closed the outermost batch, so the caller should have it committed. */
+    boolean endBatch() {
+        return --batchDepth.get()[0] == 0;
+    }
+
+    void append(String record) {
+        synchronized (this) {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.write(record);
+                writer.newLine();
+                records++;
+                appended++;
+            } catch (IOException e) {
+                System.err.println("Error writing journal: " + e.getMessage());
+            }
+        }
+        if (batchDepth.get()[0] == 0) {
+            commitHandler.run();
+        }
+    }
+
+    /** Flushes appended records to the file, and syncs them to disk for a synchronous journal. */
+    synchronized void commit() {
+        if (writer == null) {
+            return;
+        }
+        long target = appended;
+        try {
+            writer.flush();
+            if (sync) {
+                out.getFD().sync();
+            }
+            committed = target;
+        } catch (IOException e) {
+            System.err.println("Error flushing journal: " + e.getMessage());
+        }
+    }
+
+    long appended() {
+        return appended;
+    }
+
+    long committed() {
+        return committed;
+    }
+
+    int size() {
+        return records;
+    }
+
+    /**
+     * The end of the log as it stands, flushed to the file. Once a snapshot holds
+     * everything up to here, {@link #truncateBefore} drops those records.
+     */
+    synchronized Mark mark() {
+        if (writer == null) {
+            return null;
+        }
+        try {
+            writer.flush();
+            return new Mark(out.getChannel().size(), records);
+        } catch (IOException e) {
+            System.err.println("Error marking journal: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Drops the records before {@code mark}, keeping any appended since. The kept tail is
+     * copied to a temporary file, synced and renamed over the log, so a crash leaves either
+     * the old log or the new one; both replay to the same state over the new snapshot.
+     */
+    synchronized void truncateBefore(Mark mark) {
+        if (writer == null || mark == null) {
+            return;
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            writer.flush();
+            try (FileChannel source = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                 FileOutputStream copy = new FileOutputStream(temp)) {
+                long position = mark.bytes;
+                long end = source.size();
+                while (position < end) {
+                    position += source.transferTo(position, end - position, copy.getChannel());
+                }
+                copy.getFD().sync();
+            }
+            close();
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            records -= mark.records;
+        } catch (IOException e) {
+            System.err.println("Error truncating journal: " + e.getMessage());
+        } finally {
+            if (writer == null) {
+                reopen();
+            }
+        }
+    }
+
+    private void reopen() {
+        try {
+            out = new FileOutputStream(file, true);
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.err.println("Error reopening journal: " + e.getMessage());
+        }
+    }
+
+    synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        commit();
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Error closing journal: " + e.getMessage());
+        }
+        writer = null;
+        out = null;
+    }
+
+    /** A position in the log: its length in bytes and in records at the time. */
+    static final class Mark {
+        final long bytes;
+        final int records;
+
+        Mark(long bytes, int records) {
+            this.bytes = bytes;
+            this.records = records;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package farmhelp.admin;
+
+import java.util.Map;
+
+/** Current backlog and worker pool of one {@link Admin}, keyed by normalized location. */
+public interface LocationGaugesMXBean {
+    Map<String, Integer> getPendingRequestsByLocation();
+
+    Map<String, Integer> getAvailableWorkersByLocation();
+
+    int getPendingRequests();
+
+    int getAvailableWorkers();
+}
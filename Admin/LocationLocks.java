@@ -0,0 +1,23 @@
+package farmhelp.admin;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks striped by location code, so allocation work in
+ * different districts does not contend while work in one district is serialized.
+ */
+class LocationLocks {
+    private static final int STRIPES = 64;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    LocationLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /** Location codes are dense, so the low bits alone spread them evenly over the stripes. */
+    ReentrantLock forLocation(int locationCode) {
+        return locks[locationCode & (STRIPES - 1)];
+    }
+}
@@ -0,0 +1,301 @@
+package farmhelp.admin;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Per-operation counters and latency histograms plus location gauges for one Admin.
+ * While disabled, {@link #start()} returns 0 without reading the clock and every
+ * record call returns on that, so instrumented paths pay one volatile read.
+ * Enabling registers everything as MXBeans under {@code farmhelp:type=Admin}.
+ */
+class Metrics {
+    /** Set {@code -Dfarmhelp.metrics=true} to have metrics on from construction, including the initial load. */
+    static final String ENABLED_PROPERTY = "farmhelp.metrics";
+
+    enum Operation {
+        REGISTER_FARMER("registerFarmer"),
+        REGISTER_WORKER("registerWorker"),
+        CREATE_WORKER_REQUEST("createWorkerRequest"),
+        ALLOCATE_WORKERS("allocateWorkers"),
+        ALLOCATE_WORKERS_PARALLEL("allocateWorkersParallel"),
+        ALLOCATE_WORKERS_OPTIMAL("allocateWorkersOptimal"),
+        PROCESS_REQUEST("processRequest"),
+        SAVE_FARMERS("saveFarmersToFile"),
+        SAVE_WORKERS("saveWorkersToFile"),
+        SAVE_REQUESTS("saveRequestsToFile"),
+        SAVE_ALLOCATIONS("saveAllocationsToFile"),
+        SAVE_BINARY_SNAPSHOT("saveBinarySnapshot"),
+        LOAD_TEXT_FILES("loadTextFiles"),
+        LOAD_BINARY_SNAPSHOT("loadBinarySnapshot"),
+        REPLAY_JOURNAL("replayJournal"),
+        LOAD_ALL_DATA("loadAllData");
+
+        final String displayName;
+
+        Operation(String displayName) {
+            this.displayName = displayName;
+        }
+    }
+
+    private static final AtomicInteger instances = new AtomicInteger();
+
+    private final Histogram[] histograms = new Histogram[Operation.values().length];
+    private final LocationGaugesMXBean gauges;
+    private final String instance = String.valueOf(instances.incrementAndGet());
+    private final List<ObjectName> registered = new ArrayList<>();
+    private volatile boolean enabled;
+    private ScheduledExecutorService dumper;
+
+    Metrics(Supplier<Map<String, Integer>> pendingByLocation, Supplier<Map<String, Integer>> availableByLocation) {
+        for (Operation operation : Operation.values()) {
+            histograms[operation.ordinal()] = new Histogram();
+        }
+        this.gauges = new LocationGauges(pendingByLocation, availableByLocation);
+        if (Boolean.getBoolean(ENABLED_PROPERTY)) {
+            setEnabled(true);
+        }
+    }
+
+    synchronized void setEnabled(boolean enabled) {
+        if (this.enabled == enabled) {
+            return;
+        }
+        this.enabled = enabled;
+        if (enabled) {
+            register();
+        } else {
+            unregister();
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Start time for {@link #record}, or 0 when metrics are off. */
+    long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    void record(Operation operation, long start) {
+        if (start != 0) {
+            histograms[operation.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    void recordFailure(Operation operation, long start) {
+        if (start != 0) {
+            Histogram histogram = histograms[operation.ordinal()];
+            histogram.errors.increment();
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /** Counts a failure that is reported without an exception, e.g. an I/O error printed and swallowed. */
+    void recordError(Operation operation) {
+        if (enabled) {
+            histograms[operation.ordinal()].errors.increment();
+        }
+    }
+
+    synchronized void startDump(long period, TimeUnit unit, PrintStream out) {
+        stopDump();
+        dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> out.println(report()), period, period, unit);
+    }
+
+    synchronized void stopDump() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+    }
+
+    synchronized void close() {
+        stopDump();
+        unregister();
+    }
+
+    String report() {
+        StringBuilder out = new StringBuilder("=== METRICS ===\n");
+        out.append(String.format("%-24s %10s %8s %12s %12s %12s %12s%n",
+                "Operation", "Count", "Errors", "Mean (us)", "p50 (us)", "p99 (us)", "Max (us)"));
+        for (Operation operation : Operation.values()) {
+            Histogram h = histograms[operation.ordinal()];
+            if (h.getCount() == 0 && h.getErrors() == 0) {
+                continue;
+            }
+            out.append(String.format("%-24s %10d %8d %12.1f %12.1f %12.1f %12.1f%n", operation.displayName,
+                    h.getCount(), h.getErrors(), h.getMeanMicros(), h.getP50Micros(), h.getP99Micros(), h.getMaxMicros()));
+        }
+        Map<String, Integer> pending = gauges.getPendingRequestsByLocation();
+        Map<String, Integer> available = gauges.getAvailableWorkersByLocation();
+        Set<String> locations = new TreeSet<>(pending.keySet());
+        locations.addAll(available.keySet());
+        out.append(String.format("%n%-24s %10s %10s%n", "Location", "Pending", "Available"));
+        for (String location : locations) {
+            out.append(String.format("%-24s %10d %10d%n", location,
+                    pending.getOrDefault(location, 0), available.getOrDefault(location, 0)));
+        }
+        return out.toString();
+    }
+
+    private void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (Operation operation : Operation.values()) {
+                ObjectName name = new ObjectName("farmhelp:type=Admin,instance=" + instance + ",operation=" + operation.displayName);
+                server.registerMBean(new StandardMBean(histograms[operation.ordinal()], OperationStatsMXBean.class, true), name);
+                registered.add(name);
+            }
+            ObjectName name = new ObjectName("farmhelp:type=Admin,instance=" + instance + ",name=Locations");
+            server.registerMBean(new StandardMBean(gauges, LocationGaugesMXBean.class, true), name);
+            registered.add(name);
+        } catch (JMException e) {
+            System.err.println("Error registering metrics MBeans: " + e.getMessage());
+        }
+    }
+
+    private void unregister() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                System.err.println("Error unregistering " + name + ": " + e.getMessage());
+            }
+        }
+        registered.clear();
+    }
+
+    /** Latencies in power-of-two nanosecond buckets; bucket i holds values below 2^i ns. */
+    private static final class Histogram implements OperationStatsMXBean {
+        private final LongAdder[] buckets = new LongAdder[64];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            nanos = Math.max(0, nanos);
+            buckets[64 - Long.numberOfLeadingZeros(nanos)].increment();
+            count.increment();
+            totalNanos.add(nanos);
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+        }
+
+        @Override
+        public long getCount() {
+            return count.sum();
+        }
+
+        @Override
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        @Override
+        public double getMeanMicros() {
+            long n = count.sum();
+            return n == 0 ? 0 : totalNanos.sum() / 1000.0 / n;
+        }
+
+        @Override
+        public double getP50Micros() {
+            return percentile(0.50);
+        }
+
+        @Override
+        public double getP99Micros() {
+            return percentile(0.99);
+        }
+
+        @Override
+        public double getMaxMicros() {
+            return maxNanos.get() / 1000.0;
+        }
+
+        @Override
+        public void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            count.reset();
+            errors.reset();
+            totalNanos.reset();
+            maxNanos.set(0);
+        }
+
+        private double percentile(double fraction) {
+            long n = count.sum();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(fraction * n);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= rank) {
+                    return Math.min(i == 63 ? Long.MAX_VALUE : 1L << i, maxNanos.get()) / 1000.0;
+                }
+            }
+            return getMaxMicros();
+        }
+    }
+
+    private static final class LocationGauges implements LocationGaugesMXBean {
+        private final Supplier<Map<String, Integer>> pending;
+        private final Supplier<Map<String, Integer>> available;
+
+        LocationGauges(Supplier<Map<String, Integer>> pending, Supplier<Map<String, Integer>> available) {
+            this.pending = pending;
+            this.available = available;
+        }
+
+        @Override
+        public Map<String, Integer> getPendingRequestsByLocation() {
+            return pending.get();
+        }
+
+        @Override
+        public Map<String, Integer> getAvailableWorkersByLocation() {
+            return available.get();
+        }
+
+        @Override
+        public int getPendingRequests() {
+            return pending.get().values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        @Override
+        public int getAvailableWorkers() {
+            return available.get().values().stream().mapToInt(Integer::intValue).sum();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package farmhelp.admin;
+
+/**
+ * Call count, failures and latency of one {@link Admin} operation. Latencies come from
+ * power-of-two buckets, so percentiles are upper bounds within a factor of two.
+ */
+public interface OperationStatsMXBean {
+    long getCount();
+
+    long getErrors();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getMaxMicros();
+
+    void reset();
+}
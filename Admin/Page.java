@@ -0,0 +1,29 @@
+package farmhelp.admin;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a query, in ascending ID order. Pass {@link #getNextAfter()} as the
+ * {@code afterId} of the same query to get the following page; paging by key rather
+ * than by offset keeps every page O(page size) however deep it is.
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final int nextAfter;
+
+    Page(List<T> items, int nextAfter) {
+        this.items = items;
+        this.nextAfter = nextAfter;
+    }
+
+    public List<T> getItems() { return Collections.unmodifiableList(items); }
+    public boolean hasMore() { return nextAfter >= 0; }
+    /** ID of the last item on this page, or -1 when this is the last page. */
+    public int getNextAfter() { return nextAfter; }
+
+    @Override
+    public String toString() {
+        return items.size() + " items" + (hasMore() ? ", more after " + nextAfter : "");
+    }
+}
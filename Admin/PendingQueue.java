@@ -0,0 +1,182 @@
+package farmhelp.admin;
+
+import farmhelp.model.Farmer;
+import farmhelp.model.Request;
+import farmhelp.model.Vocabulary;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pending requests kept in allocation order (farmer income, then request date)
+ * per normalized location and required skill. The farmer's income is captured
+ * on insert, so ordering never has to look farmers up again.
+ */
+class PendingQueue {
+    static final class Entry implements Comparable<Entry> {
+        final Request request;
+        final String location;
+        final double income;
+
+        Entry(Request request, String location, double income) {
+            this.request = request;
+            this.location = location;
+            this.income = income;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int c = Double.compare(income, other.income);
+            if (c == 0) {
+                c = Long.compare(request.getRequestTime(), other.request.getRequestTime());
+            }
+            return c != 0 ? c : Integer.compare(request.getRequestId(), other.request.getRequestId());
+        }
+    }
+
+    private final Map<String, Map<String, PriorityQueue<Entry>>> byLocation = new ConcurrentHashMap<>();
+
+    /** A request whose farmer is unknown is queued first under the empty location so it fails visibly. */
+    void add(Request request, Farmer farmer) {
+        String location = farmer == null ? "" : Vocabulary.normalizeLocation(farmer.getLocation());
+        add(new Entry(request, location, farmer == null ? 0 : farmer.getIncome()));
+    }
+
+    void add(Entry entry) {
+        PriorityQueue<Entry> queue = byLocation.computeIfAbsent(entry.location, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(entry.request.getSkillRequired(), k -> new PriorityQueue<>());
+        synchronized (queue) {
+            queue.add(entry);
+        }
+    }
+
+    Set<String> locations() {
+        return byLocation.keySet();
+    }
+
+    /** Number of pending entries per location. */
+    Map<String, Integer> sizes() {
+        Map<String, Integer> sizes = new TreeMap<>();
+        byLocation.forEach((location, bySkill) -> {
+            int size = 0;
+            for (PriorityQueue<Entry> queue : bySkill.values()) {
+                synchronized (queue) {
+                    size += queue.size();
+                }
+            }
+            sizes.put(location, size);
+        });
+        return sizes;
+    }
+
+    /**
+     * Removes and returns the first entry, across the given skills, waiting at one location;
+     * null if none of those skills has anything pending there.
+     */
+    Entry pollFirst(String location, Collection<String> skills) {
+        Map<String, PriorityQueue<Entry>> bySkill = byLocation.get(location);
+        if (bySkill == null) {
+            return null;
+        }
+        while (true) {
+            PriorityQueue<Entry> best = null;
+            Entry head = null;
+            for (String skill : skills) {
+                PriorityQueue<Entry> queue = bySkill.get(skill);
+                if (queue == null) {
+                    continue;
+                }
+                Entry candidate;
+                synchronized (queue) {
+                    candidate = queue.peek();
+                }
+                if (candidate != null && (head == null || candidate.compareTo(head) < 0)) {
+                    best = queue;
+                    head = candidate;
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+            synchronized (best) {
+                // Another thread may have taken the head since it was peeked; look again if so.
+                if (best.peek() == head) {
+                    return best.poll();
+                }
+            }
+        }
+    }
+
+    /** Removes and returns every pending entry for one location, in allocation order. */
+    List<Entry> drain(String location) {
+        Map<String, PriorityQueue<Entry>> bySkill = byLocation.get(location);
+        if (bySkill == null) {
+            return new ArrayList<>();
+        }
+        List<List<Entry>> drained = new ArrayList<>();
+        for (PriorityQueue<Entry> queue : bySkill.values()) {
+            List<Entry> entries = new ArrayList<>();
+            synchronized (queue) {
+                Entry entry;
+                while ((entry = queue.poll()) != null) {
+                    entries.add(entry);
+                }
+            }
+            drained.add(entries);
+        }
+        return merge(drained);
+    }
+
+    /** Removes and returns every pending entry, merged across locations into one allocation order. */
+    List<Entry> drainAll() {
+        List<List<Entry>> drained = new ArrayList<>();
+        for (String location : byLocation.keySet()) {
+            drained.add(drain(location));
+        }
+        return merge(drained);
+    }
+
+    /** K-way merge of lists that are each already in allocation order. */
+    private static List<Entry> merge(List<List<Entry>> sorted) {
+        PriorityQueue<PeekIterator> heads = new PriorityQueue<>(Comparator.comparing(PeekIterator::peek));
+        int total = 0;
+        for (List<Entry> entries : sorted) {
+            if (!entries.isEmpty()) {
+                heads.add(new PeekIterator(entries));
+                total += entries.size();
+            }
+        }
+        List<Entry> result = new ArrayList<>(total);
+        while (!heads.isEmpty()) {
+            PeekIterator head = heads.poll();
+            result.add(head.next());
+            if (head.hasNext()) {
+                heads.add(head);
+            }
+        }
+        return result;
+    }
+
+    private static final class PeekIterator implements Iterator<Entry> {
+        private final List<Entry> entries;
+        private int position;
+
+        PeekIterator(List<Entry> entries) {
+            this.entries = entries;
+        }
+
+        Entry peek() {
+            return entries.get(position);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < entries.size();
+        }
+
+        @Override
+        public Entry next() {
+            return entries.get(position++);
+        }
+    }
+}
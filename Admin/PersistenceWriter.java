@@ -0,0 +1,214 @@
+package farmhelp.admin;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background thread that commits the journal in groups and runs compactions, so
+ * callers never wait on a file rewrite. Mutations only append to the journal's
+ * buffer; the writer flushes them once {@code batchSize} records are pending or
+ * the oldest has waited {@code interval}, whichever comes first.
+ * <p>
+ * With a synchronous journal every caller still waits until its records are on
+ * disk, but callers that arrive while one fsync is in progress share the next one.
+ * With an asynchronous journal callers return at once and at most one interval of
+ * records is exposed to a crash; {@link #flush()} closes that window on demand.
+ */
+class PersistenceWriter {
+    static final long DEFAULT_INTERVAL_MILLIS = 5;
+    static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final Journal journal;
+    private final boolean waitForDisk;
+    private final Runnable compaction;
+    private Thread thread;
+    private long intervalNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_INTERVAL_MILLIS);
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int waiters;
+    private boolean compactionRequested;
+    private boolean stopping;
+    // Read without the monitor on the append path, so an idle writer is woken without contention otherwise.
+    private volatile boolean idle;
+
+    /**
+     * @param waitForDisk make {@link #commit()} block until the caller's records are synced
+     * @param compaction  run on the writer thread when {@link #requestCompaction()} is called
+     */
+    PersistenceWriter(Journal journal, boolean waitForDisk, Runnable compaction) {
+        this.journal = journal;
+        this.waitForDisk = waitForDisk;
+        this.compaction = compaction;
+    }
+
+    synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        stopping = false;
+        thread = new Thread(this::run, "persistence-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    synchronized void setGroupCommit(long interval, TimeUnit unit, int batchSize) {
+        if (interval < 0 || batchSize < 1) {
+            throw new IllegalArgumentException("Interval must be >= 0 and batch size >= 1");
+        }
+        this.intervalNanos = unit.toNanos(interval);
+        this.batchSize = batchSize;
+        notifyAll();
+    }
+
+    private long pending() {
+        return journal.appended() - journal.committed();
+    }
+
+    /**
+     * Commits the records the calling thread has appended: waits for them to reach disk with
+     * a synchronous journal, otherwise only makes sure the writer will get to them. Callers
+     * must not hold the state lock, since the writer may be waiting for it to compact.
+     */
+    void commit() {
+        if (waitForDisk) {
+            awaitCommitted(journal.appended());
+        } else if (idle || pending() >= batchSize) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    /** Returns once every record appended before the call is committed. */
+    void flush() {
+        awaitCommitted(journal.appended());
+    }
+
+    private void awaitCommitted(long target) {
+        if (journal.committed() >= target) {
+            return;
+        }
+        synchronized (this) {
+            if (thread == null) {
+                journal.commit();
+                return;
+            }
+            waiters++;
+            notifyAll();
+            boolean interrupted = false;
+            try {
+                while (journal.committed() < target && thread != null) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                waiters--;
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        if (journal.committed() < target) {
+            journal.commit();
+        }
+    }
+
+    /** Has the writer thread compact soon; with no writer running, compacts on the caller's thread. */
+    void requestCompaction() {
+        synchronized (this) {
+            if (thread != null) {
+                compactionRequested = true;
+                notifyAll();
+                return;
+            }
+        }
+        compaction.run();
+    }
+
+    /**
+     * Commits whatever is still pending and stops the writer. A compaction that was
+     * requested but not yet started is dropped; shutdown compacts right after anyway.
+     */
+    void close() {
+        Thread stopped;
+        synchronized (this) {
+            stopped = thread;
+            if (stopped == null) {
+                return;
+            }
+            stopping = true;
+            notifyAll();
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                stopped.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        synchronized (this) {
+            thread = null;
+            notifyAll();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            boolean compact;
+            boolean exit;
+            synchronized (this) {
+                long deadline = 0;
+                while (!stopping && !compactionRequested && waiters == 0) {
+                    // Set before reading pending(): an append we miss here sees idle and wakes us.
+                    idle = true;
+                    long pending = pending();
+                    if (pending >= batchSize) {
+                        break;
+                    }
+                    try {
+                        if (pending == 0) {
+                            deadline = 0;
+                            wait();
+                            continue;
+                        }
+                        idle = false;
+                        long now = System.nanoTime();
+                        if (deadline == 0) {
+                            deadline = now + intervalNanos;
+                        }
+                        if (now - deadline >= 0) {
+                            break;
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(this, deadline - now);
+                    } catch (InterruptedException e) {
+                        // Only close() stops the writer.
+                    }
+                }
+                idle = false;
+                compact = compactionRequested && !stopping;
+                compactionRequested = false;
+                exit = stopping;
+            }
+            journal.commit();
+            synchronized (this) {
+                notifyAll();
+            }
+            if (compact) {
+                try {
+                    compaction.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Error compacting in the background: " + e.getMessage());
+                }
+            }
+            if (exit) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package farmhelp.admin;
+
+import java.util.*;
+
+/**
+ * Immutable map from non-negative int keys to non-null values: a 32-way trie on the key's
+ * bits, five per level, with bitmap-compressed nodes. An update copies only the seven
+ * nodes on the key's path and shares everything else with the map it came from, so old
+ * versions stay valid and cheap to keep. Iteration is in ascending key order.
+ * <p>
+ * An {@link Editor} applies many updates at once: it copies a node the first time it
+ * touches it and changes its own copies in place after that, so a large batch costs one
+ * copy per node touched rather than one per update.
+ */
+class PersistentIntMap<V> {
+    private static final int TOP_SHIFT = 30;
+    private static final Object[] NO_SLOTS = new Object[0];
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(new Node(0, NO_SLOTS, null), 0);
+
+    private final Node root;
+    private final int size;
+
+    private static final class Node {
+        int bitmap;
+        // Child nodes above the last level, values on it; one slot per set bit, in bit order.
+        Object[] slots;
+        // Token of the editor that created the node, which changes it in place until done(); null in EMPTY.
+        final Object owner;
+
+        Node(int bitmap, Object[] slots, Object owner) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+            this.owner = owner;
+        }
+    }
+
+    private PersistentIntMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        Node node = root;
+        for (int shift = TOP_SHIFT; ; shift -= 5) {
+            int bit = 1 << ((key >>> shift) & 31);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (shift == 0) {
+                return (V) slot;
+            }
+            node = (Node) slot;
+        }
+    }
+
+    Editor<V> edit() {
+        return new Editor<>(this);
+    }
+
+    /**
+     * Collects updates against one map and hands back the result. The map returned by
+     * {@link #done()} shares this editor's nodes, so done() retires the editor and any
+     * further update throws {@link IllegalStateException}.
+     */
+    static final class Editor<V> {
+        private Object owner = new Object();
+        private Node root;
+        private int size;
+
+        private Editor(PersistentIntMap<V> base) {
+            this.root = base.root;
+            this.size = base.size;
+        }
+
+        void put(int key, V value) {
+            if (key < 0 || value == null) {
+                throw new IllegalArgumentException("Keys must be non-negative and values non-null: " + key);
+            }
+            checkOpen();
+            root = put(root, TOP_SHIFT, key, value);
+        }
+
+        void remove(int key) {
+            checkOpen();
+            root = remove(root, TOP_SHIFT, key);
+        }
+
+        PersistentIntMap<V> done() {
+            checkOpen();
+            owner = null;
+            return new PersistentIntMap<>(root, size);
+        }
+
+        private void checkOpen() {
+            if (owner == null) {
+                throw new IllegalStateException("Editor already done");
+            }
+        }
+
+        private Node editable(Node node) {
+            return node.owner == owner ? node : new Node(node.bitmap, node.slots.clone(), owner);
+        }
+
+        private Node put(Node node, int shift, int key, Object value) {
+            int bit = 1 << ((key >>> shift) & 31);
+            int index = Integer.bitCount(node.bitmap & (bit - 1));
+            boolean present = (node.bitmap & bit) != 0;
+            Object child;
+            if (shift == 0) {
+                if (present && node.slots[index] == value) {
+                    return node;
+                }
+                child = value;
+            } else {
+                Node old = present ? (Node) node.slots[index] : new Node(0, NO_SLOTS, owner);
+                child = put(old, shift - 5, key, value);
+                if (present && child == old) {
+                    return node;
+                }
+            }
+            Node result = editable(node);
+            if (present) {
+                result.slots[index] = child;
+            } else {
+                Object[] slots = new Object[result.slots.length + 1];
+                System.arraycopy(result.slots, 0, slots, 0, index);
+                slots[index] = child;
+                System.arraycopy(result.slots, index, slots, index + 1, result.slots.length - index);
+                result.slots = slots;
+                result.bitmap |= bit;
+                if (shift == 0) {
+                    size++;
+                }
+            }
+            return result;
+        }
+
+        private Node remove(Node node, int shift, int key) {
+            int bit = 1 << ((key >>> shift) & 31);
+            if ((node.bitmap & bit) == 0) {
+                return node;
+            }
+            int index = Integer.bitCount(node.bitmap & (bit - 1));
+            if (shift > 0) {
+                Node old = (Node) node.slots[index];
+                Node child = remove(old, shift - 5, key);
+                if (child == old) {
+                    return node;
+                }
+                if (child.bitmap != 0) {
+                    Node result = editable(node);
+                    result.slots[index] = child;
+                    return result;
+                }
+            } else {
+                size--;
+            }
+            // The value, or a child left empty, goes.
+            Node result = editable(node);
+            Object[] slots = new Object[result.slots.length - 1];
+            System.arraycopy(result.slots, 0, slots, 0, index);
+            System.arraycopy(result.slots, index + 1, slots, index, slots.length - index);
+            result.slots = slots;
+            result.bitmap &= ~bit;
+            return result;
+        }
+    }
+
+    /** Read-only {@link Map} over this version; it never changes, whatever happens to later versions. */
+    Map<Integer, V> asMap() {
+        return new MapView();
+    }
+
+    private final class MapView extends AbstractMap<Integer, V> {
+        @Override
+        public V get(Object key) {
+            return key instanceof Integer && (Integer) key >= 0 ? PersistentIntMap.this.get((Integer) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<Integer, V>> entrySet() {
+            return new AbstractSet<Entry<Integer, V>>() {
+                @Override
+                public Iterator<Entry<Integer, V>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+
+    /** Depth-first over the trie, lowest bit first at every level, which is ascending key order. */
+    private final class EntryIterator implements Iterator<Map.Entry<Integer, V>> {
+        private static final int LEVELS = TOP_SHIFT / 5 + 1;
+        private final Node[] nodes = new Node[LEVELS];
+        // Bits of each node on the current path not visited yet, and the next slot to read.
+        private final int[] remaining = new int[LEVELS];
+        private final int[] slot = new int[LEVELS];
+        private final int[] prefix = new int[LEVELS];
+        private int depth;
+        private Map.Entry<Integer, V> next;
+
+        EntryIterator() {
+            nodes[0] = root;
+            remaining[0] = root.bitmap;
+            advance();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                if (remaining[depth] == 0) {
+                    depth--;
+                    continue;
+                }
+                int bit = Integer.lowestOneBit(remaining[depth]);
+                remaining[depth] &= ~bit;
+                int shift = TOP_SHIFT - 5 * depth;
+                int key = prefix[depth] | (Integer.numberOfTrailingZeros(bit) << shift);
+                Object value = nodes[depth].slots[slot[depth]++];
+                if (shift == 0) {
+                    next = new AbstractMap.SimpleImmutableEntry<>(key, (V) value);
+                    return;
+                }
+                depth++;
+                nodes[depth] = (Node) value;
+                remaining[depth] = nodes[depth].bitmap;
+                slot[depth] = 0;
+                prefix[depth] = key;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<Integer, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<Integer, V> result = next;
+            advance();
+            return result;
+        }
+    }
+}
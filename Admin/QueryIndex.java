@@ -0,0 +1,165 @@
+package farmhelp.admin;
+
+import farmhelp.model.Allocation;
+import farmhelp.model.Farmer;
+import farmhelp.model.Request;
+import farmhelp.model.Vocabulary;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Secondary indexes behind Admin's query methods. Each index maps a key to the
+ * matching records sorted by ID, so a query walks only the page it returns.
+ * Farmers and requests are also filed under wildcard keys, so a filter left
+ * null costs no more than a full one. Admin keeps the indexes in step with
+ * the primary maps on every mutation and during load and replay.
+ */
+class QueryIndex {
+    /** Stands for "any value" in a composite key; never a real location, crop or skill. */
+    private static final String ANY = "\u0000";
+
+    private final Index<Integer, Allocation> allocationsByFarmer = new Index<>();
+    private final Index<Integer, Allocation> allocationsByWorker = new Index<>();
+    private final Map<Integer, Allocation> activeByWorker = new ConcurrentHashMap<>();
+    private final Index<String, Farmer> farmersByLocationAndCrop = new Index<>();
+    private final Index<String, Request> requestsByLocationAndSkill = new Index<>();
+
+    static String farmerLocation(Farmer farmer) {
+        return farmer == null ? "" : Vocabulary.normalizeLocation(farmer.getLocation());
+    }
+
+    private static String normalizeCrop(String crop) {
+        return crop.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String key(String first, String second) {
+        return first + ANY + second;
+    }
+
+    void addFarmer(Farmer farmer) {
+        for (String key : farmerKeys(farmer)) {
+            farmersByLocationAndCrop.put(key, farmer.getId(), farmer);
+        }
+    }
+
+    void removeFarmer(Farmer farmer) {
+        for (String key : farmerKeys(farmer)) {
+            farmersByLocationAndCrop.remove(key, farmer.getId());
+        }
+    }
+
+    private static String[] farmerKeys(Farmer farmer) {
+        String location = farmerLocation(farmer);
+        String crop = normalizeCrop(farmer.getCrop());
+        return new String[]{key(location, crop), key(location, ANY), key(ANY, crop), key(ANY, ANY)};
+    }
+
+    /** @param location the farmer's normalized location, as from {@link #farmerLocation} */
+    void addRequest(Request request, String location) {
+        for (String key : requestKeys(request, location)) {
+            requestsByLocationAndSkill.put(key, request.getRequestId(), request);
+        }
+    }
+
+    void removeRequest(Request request, String location) {
+        for (String key : requestKeys(request, location)) {
+            requestsByLocationAndSkill.remove(key, request.getRequestId());
+        }
+    }
+
+    private static String[] requestKeys(Request request, String location) {
+        String skill = request.getSkillRequired();
+        return new String[]{key(location, skill), key(location, ANY), key(ANY, skill), key(ANY, ANY)};
+    }
+
+    void addAllocation(Allocation allocation) {
+        int id = allocation.getAllocationId();
+        allocationsByFarmer.put(allocation.getFarmerId(), id, allocation);
+        // A worker can hold many bookings for work windows, but only one allocation until further notice.
+        boolean active = allocation.isActive() && !allocation.hasWorkWindow();
+        for (int i = 0; i < allocation.getWorkerCount(); i++) {
+            int workerId = allocation.getWorkerId(i);
+            allocationsByWorker.put(workerId, id, allocation);
+            if (active) {
+                activeByWorker.put(workerId, allocation);
+            }
+        }
+    }
+
+    void removeAllocation(Allocation allocation) {
+        int id = allocation.getAllocationId();
+        allocationsByFarmer.remove(allocation.getFarmerId(), id);
+        for (int i = 0; i < allocation.getWorkerCount(); i++) {
+            int workerId = allocation.getWorkerId(i);
+            allocationsByWorker.remove(workerId, id);
+            activeByWorker.remove(workerId, allocation);
+        }
+    }
+
+    /** Called once an allocation is closed; it stays in the history indexes. */
+    void allocationClosed(Allocation allocation) {
+        for (int i = 0; i < allocation.getWorkerCount(); i++) {
+            activeByWorker.remove(allocation.getWorkerId(i), allocation);
+        }
+    }
+
+    Page<Allocation> allocationsByFarmer(int farmerId, int afterId, int limit) {
+        return allocationsByFarmer.page(farmerId, afterId, limit);
+    }
+
+    Page<Allocation> allocationsByWorker(int workerId, int afterId, int limit) {
+        return allocationsByWorker.page(workerId, afterId, limit);
+    }
+
+    Allocation activeAllocation(int workerId) {
+        return activeByWorker.get(workerId);
+    }
+
+    Page<Farmer> farmers(String location, String crop, int afterId, int limit) {
+        return farmersByLocationAndCrop.page(key(location == null ? ANY : Vocabulary.normalizeLocation(location),
+                crop == null ? ANY : normalizeCrop(crop)), afterId, limit);
+    }
+
+    Page<Request> requests(String location, String skill, int afterId, int limit) {
+        return requestsByLocationAndSkill.page(key(location == null ? ANY : Vocabulary.normalizeLocation(location),
+                skill == null ? ANY : skill), afterId, limit);
+    }
+
+    /** Records sorted by ID under each key. Buckets are never removed, as in WorkerIndex. */
+    private static final class Index<K, T> {
+        private final Map<K, ConcurrentSkipListMap<Integer, T>> buckets = new ConcurrentHashMap<>();
+
+        void put(K key, int id, T value) {
+            buckets.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>()).put(id, value);
+        }
+
+        void remove(K key, int id) {
+            ConcurrentSkipListMap<Integer, T> bucket = buckets.get(key);
+            if (bucket != null) {
+                bucket.remove(id);
+            }
+        }
+
+        Page<T> page(K key, int afterId, int limit) {
+            if (limit <= 0) {
+                throw new IllegalArgumentException("Page size must be positive: " + limit);
+            }
+            List<T> items = new ArrayList<>(Math.min(limit, 256));
+            ConcurrentSkipListMap<Integer, T> bucket = buckets.get(key);
+            if (bucket == null) {
+                return new Page<>(items, -1);
+            }
+            int last = -1;
+            for (Map.Entry<Integer, T> entry : bucket.tailMap(afterId, false).entrySet()) {
+                if (items.size() == limit) {
+                    return new Page<>(items, last);
+                }
+                items.add(entry.getValue());
+                last = entry.getKey();
+            }
+            return new Page<>(items, -1);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package farmhelp.admin;
+
+import farmhelp.model.Vocabulary;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decides which shard owns what. A location belongs to the shard it is assigned to,
+ * or else to one picked by a stable hash of its name, so every location has exactly
+ * one owner without listing them all up front. Records created by a shard take IDs
+ * from that shard's {@link IdRange}, so a record's ID is enough to find its shard.
+ * <p>
+ * The same routing must be used every time a data directory is opened: moving a
+ * location that already has records to another shard would strand those records.
+ * Clients of shards running as separate processes route with this class too.
+ */
+public final class ShardRouting {
+    private final int shardCount;
+    private final Map<String, Integer> assignments = new HashMap<>();
+
+    public ShardRouting(int shardCount) {
+        this(shardCount, Map.of());
+    }
+
+    /** @param assignments location (any case) to shard index, for the locations not left to the hash */
+    public ShardRouting(int shardCount, Map<String, Integer> assignments) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        this.shardCount = shardCount;
+        for (Map.Entry<String, Integer> assignment : assignments.entrySet()) {
+            int shard = assignment.getValue();
+            if (shard < 0 || shard >= shardCount) {
+                throw new IllegalArgumentException("No shard " + shard + " for " + assignment.getKey());
+            }
+            this.assignments.put(Vocabulary.normalizeLocation(assignment.getKey()), shard);
+        }
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /** Shard owning the location, compared case-insensitively; a null location goes to shard 0. */
+    public int shardForLocation(String location) {
+        if (location == null) {
+            return 0;
+        }
+        String normalized = Vocabulary.normalizeLocation(location);
+        Integer assigned = assignments.get(normalized);
+        // String.hashCode is fixed by the language spec, so the choice survives restarts.
+        return assigned != null ? assigned : Math.floorMod(normalized.hashCode(), shardCount);
+    }
+
+    /** Shard that created the farmer, worker, request or allocation with this ID, or -1 for an ID no shard hands out. */
+    public int shardForId(int id) {
+        return IdRange.shardOf(id, shardCount);
+    }
+
+    public IdRange idRange(int shard) {
+        return IdRange.forShard(shard, shardCount);
+    }
+}
@@ -0,0 +1,260 @@
+package farmhelp.admin;
+
+import farmhelp.exception.AllocationException;
+import farmhelp.exception.FarmerException;
+import farmhelp.exception.LandSizeViolationException;
+import farmhelp.exception.WorkerException;
+import farmhelp.model.Allocation;
+import farmhelp.model.Farmer;
+import farmhelp.model.Request;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.ToIntFunction;
+
+/**
+ * Several {@link Admin}s in one JVM, each owning the locations {@link ShardRouting} gives it,
+ * with its own data directory ({@code shard-0}, {@code shard-1}, ... under the root) and its
+ * own block of IDs. Allocation only looks at the shard's own workers, so a shard never needs
+ * another shard's state and allocation runs on all shards at once. Matching on location name,
+ * that loses nothing. Matching by distance ({@link Admin#setMatchingRadius}) does lose
+ * something: the radius stops at the shard boundary, so a farmer is never offered a nearby
+ * worker whose location hashes to another shard. Assign neighbouring locations to the same
+ * shard with {@link ShardRouting#ShardRouting(int, Map)} where that matters.
+ * <p>
+ * Calls naming a location go to the shard that owns it; calls naming an ID go to the shard
+ * whose block holds it. Queries without a location ask the shards in order, which is also
+ * ascending ID order, so paging works across shards the same way as on one Admin.
+ */
+public class ShardedAdmin {
+    private final ShardRouting routing;
+    private final Admin[] shards;
+
+    public ShardedAdmin(File root, ShardRouting routing, boolean syncJournal, int compactionThreshold) {
+        this.routing = routing;
+        this.shards = new Admin[routing.getShardCount()];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Admin(new File(root, "shard-" + i), routing, i, syncJournal, compactionThreshold, false);
+        }
+    }
+
+    public ShardedAdmin(File root, int shardCount) {
+        this(root, new ShardRouting(shardCount), false, Admin.DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    public ShardRouting getRouting() { return routing; }
+    public int getShardCount() { return shards.length; }
+    public Admin getShard(int index) { return shards[index]; }
+    /** Every shard, for settings such as incremental matching that apply per Admin. */
+    public List<Admin> getShards() { return Collections.unmodifiableList(Arrays.asList(shards)); }
+
+    public Admin shardForLocation(String location) {
+        return shards[routing.shardForLocation(location)];
+    }
+
+    /** Shard owning the record with this ID, or null if no shard hands out that ID. */
+    public Admin shardForId(int id) {
+        int shard = routing.shardForId(id);
+        return shard < 0 ? null : shards[shard];
+    }
+
+    public void registerFarmer(String name, String location, String crop, double landSize, double income) throws FarmerException {
+        shardForLocation(location).registerFarmer(name, location, crop, landSize, income);
+    }
+
+    public void registerFarmer(String name, String location, String crop, double landSize, double income,
+                               double latitude, double longitude) throws FarmerException {
+        shardForLocation(location).registerFarmer(name, location, crop, landSize, income, latitude, longitude);
+    }
+
+    public void registerWorker(String name, String location, List<String> skills) throws WorkerException {
+        shardForLocation(location).registerWorker(name, location, skills);
+    }
+
+    /** Shards are split by location, so matching by distance only finds workers on the farmer's shard. */
+    public void registerWorker(String name, String location, List<String> skills,
+                               double latitude, double longitude) throws WorkerException {
+        shardForLocation(location).registerWorker(name, location, skills, latitude, longitude);
+    }
+
+    public void createWorkerRequest(int farmerId, String skillRequired, int workersRequested) throws FarmerException, LandSizeViolationException {
+        createWorkerRequest(farmerId, skillRequired, workersRequested, 0, 0);
+    }
+
+    public void createWorkerRequest(int farmerId, String skillRequired, int workersRequested, long workStart, long workEnd)
+            throws FarmerException, LandSizeViolationException {
+        Admin shard = shardForId(farmerId);
+        if (shard == null) {
+            throw new FarmerException("Farmer with ID " + farmerId + " not found");
+        }
+        shard.createWorkerRequest(farmerId, skillRequired, workersRequested, workStart, workEnd);
+    }
+
+    private interface ShardAllocation {
+        AllocationResult allocate(Admin shard);
+    }
+
+    /** {@link Admin#allocateWorkers()} on every shard at once, merged in shard order. */
+    public AllocationResult allocateWorkers() {
+        return allocateAll(Admin::allocateWorkers);
+    }
+
+    public AllocationResult allocateWorkersParallel() {
+        return allocateAll(Admin::allocateWorkersParallel);
+    }
+
+    public AllocationResult allocateWorkersOptimal() {
+        return allocateAll(Admin::allocateWorkersOptimal);
+    }
+
+    private AllocationResult allocateAll(ShardAllocation allocation) {
+        long start = System.nanoTime();
+        List<Future<AllocationResult>> parts = new ArrayList<>(shards.length);
+        for (Admin shard : shards) {
+            parts.add(ForkJoinPool.commonPool().submit(() -> allocation.allocate(shard)));
+        }
+
+        AllocationResult result = new AllocationResult();
+        int locations = -1;
+        for (Future<AllocationResult> future : parts) {
+            AllocationResult part = await(future);
+            result.merge(part);
+            if (part.getLocations() >= 0) {
+                locations = Math.max(locations, 0) + part.getLocations();
+            }
+        }
+        if (result.getAttempts() == 0) {
+            return AllocationResult.noPendingRequests();
+        }
+        result.finish(start, locations);
+        return result;
+    }
+
+    private static AllocationResult await(Future<AllocationResult> future) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public void completeAllocation(int allocationId) throws AllocationException {
+        allocationShard(allocationId).completeAllocation(allocationId);
+    }
+
+    public void cancelAllocation(int allocationId) throws AllocationException {
+        allocationShard(allocationId).cancelAllocation(allocationId);
+    }
+
+    public void releaseAllocation(int allocationId) throws AllocationException {
+        allocationShard(allocationId).releaseAllocation(allocationId);
+    }
+
+    private Admin allocationShard(int allocationId) throws AllocationException {
+        Admin shard = shardForId(allocationId);
+        if (shard == null) {
+            throw new AllocationException("Allocation " + allocationId + " not found");
+        }
+        return shard;
+    }
+
+    // Queries, paged as on Admin.
+
+    public Page<Allocation> findAllocationsByFarmer(int farmerId, int afterId, int limit) {
+        Admin shard = shardForId(farmerId);
+        return shard == null ? emptyPage(limit) : shard.findAllocationsByFarmer(farmerId, afterId, limit);
+    }
+
+    public Page<Allocation> findAllocationsByWorker(int workerId, int afterId, int limit) {
+        Admin shard = shardForId(workerId);
+        return shard == null ? emptyPage(limit) : shard.findAllocationsByWorker(workerId, afterId, limit);
+    }
+
+    public Allocation findActiveAllocation(int workerId) {
+        Admin shard = shardForId(workerId);
+        return shard == null ? null : shard.findActiveAllocation(workerId);
+    }
+
+    public Page<Farmer> findFarmers(String location, String crop, int afterId, int limit) {
+        if (location != null) {
+            return shardForLocation(location).findFarmers(location, crop, afterId, limit);
+        }
+        return pageAcross(afterId, limit, Farmer::getId, (shard, after, max) -> shard.findFarmers(null, crop, after, max));
+    }
+
+    public Page<Request> findPendingRequests(String location, String skill, int afterId, int limit) {
+        if (location != null) {
+            return shardForLocation(location).findPendingRequests(location, skill, afterId, limit);
+        }
+        return pageAcross(afterId, limit, Request::getRequestId, (shard, after, max) -> shard.findPendingRequests(null, skill, after, max));
+    }
+
+    private interface ShardQuery<T> {
+        Page<T> find(Admin shard, int afterId, int limit);
+    }
+
+    /**
+     * Fills a page from the shard holding {@code afterId} onwards. Once it is full, later
+     * shards are asked for a single item, so the last page is reported as such rather than
+     * leaving the caller to fetch an empty one.
+     */
+    private <T> Page<T> pageAcross(int afterId, int limit, ToIntFunction<T> id, ShardQuery<T> query) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + limit);
+        }
+        List<T> items = new ArrayList<>();
+        int shard = Math.max(0, routing.shardForId(afterId));
+        int after = afterId;
+        for (; shard < shards.length; shard++, after = -1) {
+            if (items.size() == limit) {
+                if (!query.find(shards[shard], after, 1).getItems().isEmpty()) {
+                    return new Page<>(items, id.applyAsInt(items.get(items.size() - 1)));
+                }
+                continue;
+            }
+            Page<T> page = query.find(shards[shard], after, limit - items.size());
+            items.addAll(page.getItems());
+            if (page.hasMore()) {
+                return new Page<>(items, page.getNextAfter());
+            }
+        }
+        return new Page<>(items, -1);
+    }
+
+    private static <T> Page<T> emptyPage(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + limit);
+        }
+        return new Page<>(new ArrayList<>(), -1);
+    }
+
+    public void flush() {
+        for (Admin shard : shards) {
+            shard.flush();
+        }
+    }
+
+    public void shutdown() {
+        for (Admin shard : shards) {
+            shard.shutdown();
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package farmhelp.admin;
+
+import farmhelp.model.Allocation;
+import farmhelp.model.Farmer;
+import farmhelp.model.Request;
+import farmhelp.model.Worker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps {@link AdminSnapshot} up to date. Mutations note the IDs they touch on their own
+ * thread; when the thread's outermost batch ends, {@link #publish()} freezes those records
+ * as they are at that moment and applies them to the latest version, then publishes the
+ * result with one volatile write. Readers only ever read that field, so they never wait
+ * for a writer and no writer waits for them.
+ * <p>
+ * Each batch takes a sequence number before it freezes its records, and batches are applied
+ * in that order, several at a time when they end together. A batch that numbered later
+ * froze its records after every earlier batch had made its changes, so whatever order
+ * batches end in, a record's last applied copy is its newest. A version holds every batch
+ * up to its number, each one whole; a record that a batch still running elsewhere has also
+ * changed carries that change with it, since records have no finer history to freeze.
+ */
+class SnapshotPublisher {
+    private static final UnaryOperator<Worker> FREEZE_WORKER = Worker::new;
+    private static final UnaryOperator<Allocation> FREEZE_ALLOCATION = a -> a.isActive() ? new Allocation(a) : a;
+
+    private final Map<Integer, Farmer> farmers;
+    private final Map<Integer, Worker> workers;
+    private final Map<Integer, Request> requests;
+    private final Map<Integer, Allocation> allocations;
+    private final ThreadLocal<Changes> changes = ThreadLocal.withInitial(Changes::new);
+    private final AtomicLong sequence = new AtomicLong();
+    // Frozen batches by sequence number, waiting for the ones before them; guarded by this.
+    private final Map<Long, Batch> waiting = new HashMap<>();
+    private long nextToApply = 1;
+    // Off while loading: the first version is built in one go once everything is in.
+    private volatile boolean started;
+    private volatile AdminSnapshot current = AdminSnapshot.EMPTY;
+
+    SnapshotPublisher(Map<Integer, Farmer> farmers, Map<Integer, Worker> workers,
+                      Map<Integer, Request> requests, Map<Integer, Allocation> allocations) {
+        this.farmers = farmers;
+        this.workers = workers;
+        this.requests = requests;
+        this.allocations = allocations;
+    }
+
+    AdminSnapshot current() {
+        return current;
+    }
+
+    /** Builds the first version from everything loaded and starts following changes. */
+    synchronized void start() {
+        current = new AdminSnapshot(current.getVersion() + 1, fill(farmers, UnaryOperator.identity()),
+                fill(workers, FREEZE_WORKER), fill(requests, UnaryOperator.identity()), fill(allocations, FREEZE_ALLOCATION));
+        started = true;
+    }
+
+    void farmerChanged(int id) {
+        if (started) {
+            changes.get().farmers.add(id);
+        }
+    }
+
+    void workerChanged(int id) {
+        if (started) {
+            changes.get().workers.add(id);
+        }
+    }
+
+    void requestChanged(int id) {
+        if (started) {
+            changes.get().requests.add(id);
+        }
+    }
+
+    void allocationChanged(int id) {
+        if (started) {
+            changes.get().allocations.add(id);
+        }
+    }
+
+    /**
+     * Freezes what this thread has changed since its last publish, if anything, and returns
+     * once a version holding it is published. Only other writers' batches can hold it up.
+     */
+    void publish() {
+        if (!started) {
+            return;
+        }
+        Changes pending = changes.get();
+        if (pending.isEmpty()) {
+            return;
+        }
+        long number = sequence.incrementAndGet();
+        Batch batch = new Batch();
+        try {
+            batch.farmers = freeze(pending.farmers, farmers, UnaryOperator.identity());
+            batch.workers = freeze(pending.workers, workers, FREEZE_WORKER);
+            batch.requests = freeze(pending.requests, requests, UnaryOperator.identity());
+            batch.allocations = freeze(pending.allocations, allocations, FREEZE_ALLOCATION);
+        } finally {
+            pending.clear();
+            // Even half frozen, the number has to be handed in or every later batch waits for it.
+            awaitApplied(number, batch);
+        }
+    }
+
+    private void awaitApplied(long number, Batch batch) {
+        synchronized (this) {
+            waiting.put(number, batch);
+            if (number == nextToApply) {
+                applyWaiting();
+            }
+        }
+        // Parked rather than waiting on the monitor, so applying a run wakes only its own writers.
+        while (!batch.applied) {
+            LockSupport.park(this);
+        }
+    }
+
+    /** Applies the run of consecutive batches from {@link #nextToApply} as one new version. */
+    private void applyWaiting() {
+        List<Batch> run = new ArrayList<>();
+        for (Batch batch = waiting.remove(nextToApply); batch != null; batch = waiting.remove(nextToApply)) {
+            run.add(batch);
+            nextToApply++;
+        }
+        AdminSnapshot base = current;
+        current = new AdminSnapshot(base.getVersion() + 1,
+                apply(base.farmers, run, batch -> batch.farmers),
+                apply(base.workers, run, batch -> batch.workers),
+                apply(base.requests, run, batch -> batch.requests),
+                apply(base.allocations, run, batch -> batch.allocations));
+        for (Batch batch : run) {
+            batch.applied = true;
+            LockSupport.unpark(batch.writer);
+        }
+    }
+
+    private static <T> PersistentIntMap<T> fill(Map<Integer, T> live, UnaryOperator<T> freeze) {
+        PersistentIntMap.Editor<T> editor = PersistentIntMap.<T>empty().edit();
+        for (Map.Entry<Integer, T> entry : live.entrySet()) {
+            editor.put(entry.getKey(), freeze.apply(entry.getValue()));
+        }
+        return editor.done();
+    }
+
+    /** Copies of the records with the given IDs as they are now, each once; null for one that is gone. */
+    private static <T> Frozen freeze(IdList ids, Map<Integer, T> live, UnaryOperator<T> freeze) {
+        if (ids.size == 0) {
+            return Frozen.NONE;
+        }
+        // Sorted, so repeats are adjacent and each record is copied once.
+        Arrays.sort(ids.ids, 0, ids.size);
+        Frozen frozen = new Frozen(ids.size);
+        for (int i = 0; i < ids.size; i++) {
+            int id = ids.ids[i];
+            if (i > 0 && id == ids.ids[i - 1]) {
+                continue;
+            }
+            T value = live.get(id);
+            frozen.ids[frozen.size] = id;
+            frozen.values[frozen.size++] = value == null ? null : freeze.apply(value);
+        }
+        return frozen;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> PersistentIntMap<T> apply(PersistentIntMap<T> base, List<Batch> run, Function<Batch, Frozen> kind) {
+        PersistentIntMap.Editor<T> editor = null;
+        for (Batch batch : run) {
+            Frozen frozen = kind.apply(batch);
+            if (frozen.size > 0 && editor == null) {
+                editor = base.edit();
+            }
+            for (int i = 0; i < frozen.size; i++) {
+                if (frozen.values[i] == null) {
+                    editor.remove(frozen.ids[i]);
+                } else {
+                    editor.put(frozen.ids[i], (T) frozen.values[i]);
+                }
+            }
+        }
+        return editor == null ? base : editor.done();
+    }
+
+    /** One ended batch's records, frozen per kind, and the writer waiting for them to be applied. */
+    private static final class Batch {
+        final Thread writer = Thread.currentThread();
+        Frozen farmers = Frozen.NONE;
+        Frozen workers = Frozen.NONE;
+        Frozen requests = Frozen.NONE;
+        Frozen allocations = Frozen.NONE;
+        volatile boolean applied;
+    }
+
+    /** Records of one kind by ascending ID; a null value means the record was removed. */
+    private static final class Frozen {
+        static final Frozen NONE = new Frozen(0);
+        final int[] ids;
+        final Object[] values;
+        int size;
+
+        Frozen(int capacity) {
+            ids = new int[capacity];
+            values = new Object[capacity];
+        }
+    }
+
+    /** IDs one thread has touched since it last published, per kind; repeats allowed. */
+    private static final class Changes {
+        final IdList farmers = new IdList();
+        final IdList workers = new IdList();
+        final IdList requests = new IdList();
+        final IdList allocations = new IdList();
+
+        boolean isEmpty() {
+            return farmers.size + workers.size + requests.size + allocations.size == 0;
+        }
+
+        void clear() {
+            farmers.clear();
+            workers.clear();
+            requests.clear();
+            allocations.clear();
+        }
+    }
+
+    private static final class IdList {
+        private static final int INITIAL = 16;
+        // Past this, clear() lets the array go rather than keep one bulk batch's worth per thread.
+        private static final int RETAINED = 4096;
+        int[] ids = new int[INITIAL];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        void clear() {
+            size = 0;
+            if (ids.length > RETAINED) {
+                ids = new int[INITIAL];
+            }
+        }
+    }
+}
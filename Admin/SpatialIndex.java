@@ -0,0 +1,171 @@
+package farmhelp.admin;
+
+import farmhelp.model.Worker;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+/**
+ * Available workers that have coordinates, on a fixed grid of 0.05 degree cells (about
+ * 5.5 km north to south) bucketed per skill. A nearest-N search walks square rings of
+ * cells outward from the query point and stops once a ring cannot hold anything closer
+ * than the radius or than the N-th best worker found so far, so its cost depends on how
+ * many workers are near the point rather than on how many there are in total. Rings are
+ * clipped to the cells the radius reaches along each axis, which near the poles can be
+ * every longitude but never more.
+ * <p>
+ * Distances use the equirectangular approximation, which is within a fraction of a
+ * percent of the great-circle distance at matching radii. The grid does not wrap at
+ * the antimeridian.
+ */
+class SpatialIndex {
+    static final double CELL_DEGREES = 0.05;
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double CELL_KM = Math.toRadians(CELL_DEGREES) * EARTH_RADIUS_KM;
+    private static final int LAT_CELLS = (int) Math.ceil(180 / CELL_DEGREES);
+    private static final int LON_CELLS = (int) Math.ceil(360 / CELL_DEGREES);
+
+    // Buckets are never removed once created, as in WorkerIndex.
+    private final Map<Long, ConcurrentSkipListMap<Integer, Worker>> cells = new ConcurrentHashMap<>();
+
+    private static int latCell(double latitude) {
+        return Math.max(0, Math.min(LAT_CELLS - 1, (int) ((latitude + 90) / CELL_DEGREES)));
+    }
+
+    private static int lonCell(double longitude) {
+        return Math.max(0, Math.min(LON_CELLS - 1, (int) ((longitude + 180) / CELL_DEGREES)));
+    }
+
+    private static long key(int latCell, int lonCell, int skillCode) {
+        return ((long) skillCode << 32) | ((long) latCell << 16) | lonCell;
+    }
+
+    void add(Worker worker) {
+        if (!worker.hasCoordinates() || !worker.isAvailable()) {
+            return;
+        }
+        int latCell = latCell(worker.getLatitude());
+        int lonCell = lonCell(worker.getLongitude());
+        for (int i = 0; i < worker.getSkillCount(); i++) {
+            cells.computeIfAbsent(key(latCell, lonCell, worker.getSkillCode(i)), k -> new ConcurrentSkipListMap<>())
+                    .put(worker.getId(), worker);
+        }
+    }
+
+    void remove(Worker worker) {
+        if (!worker.hasCoordinates()) {
+            return;
+        }
+        int latCell = latCell(worker.getLatitude());
+        int lonCell = lonCell(worker.getLongitude());
+        for (int i = 0; i < worker.getSkillCount(); i++) {
+            ConcurrentSkipListMap<Integer, Worker> bucket = cells.get(key(latCell, lonCell, worker.getSkillCode(i)));
+            if (bucket != null) {
+                bucket.remove(worker.getId());
+            }
+        }
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double x = Math.toRadians(lon2 - lon1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = Math.toRadians(lat2 - lat1);
+        return Math.sqrt(x * x + y * y) * EARTH_RADIUS_KM;
+    }
+
+    private static final class Candidate {
+        final Worker worker;
+        final double distance;
+
+        Candidate(Worker worker, double distance) {
+            this.worker = worker;
+            this.distance = distance;
+        }
+    }
+
+    // Nearest first; equally near workers by lowest ID, as in the location buckets.
+    private static final Comparator<Candidate> NEAREST =
+            Comparator.<Candidate>comparingDouble(c -> c.distance).thenComparingInt(c -> c.worker.getId());
+
+    /**
+     * Up to {@code limit} available workers with the skill within {@code radiusKm} of the point
+     * that pass {@code eligible}, nearest first.
+     */
+    List<Worker> nearest(double latitude, double longitude, int skillCode, double radiusKm, int limit,
+                         Predicate<Worker> eligible) {
+        if (skillCode < 0 || limit <= 0 || radiusKm < 0) {
+            return new ArrayList<>();
+        }
+        int centerLat = latCell(latitude);
+        int centerLon = lonCell(longitude);
+        // Cells further than this along either axis are out of the radius. Longitude cells are
+        // narrowest at the highest latitude in reach and vanish at the poles, so the longitude
+        // reach is measured there and capped where the grid ends on both sides.
+        int latReach = (int) Math.min(LAT_CELLS, Math.ceil(radiusKm / CELL_KM) + 1);
+        double maxLatitude = Math.min(90, Math.abs(latitude) + (latReach + 1) * CELL_DEGREES);
+        int lonReach = (int) Math.min(Math.max(centerLon, LON_CELLS - 1 - centerLon),
+                Math.ceil(radiusKm / (CELL_KM * Math.cos(Math.toRadians(maxLatitude)))) + 1);
+        // Worst of the best so far on top, so it is the one to drop.
+        PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1, NEAREST.reversed());
+        for (int r = 0; r <= Math.max(latReach, lonReach); r++) {
+            // A cell in ring r is at least r - 1 whole cells away along one axis. Longitude cells
+            // are narrowest at the highest latitude the ring reaches, so measure them there.
+            double ringLatitude = Math.min(90, Math.abs(latitude) + (r + 1) * CELL_DEGREES);
+            double nearestKm = r == 0 ? 0 : (r - 1) * CELL_KM * Math.cos(Math.toRadians(ringLatitude));
+            if (nearestKm > radiusKm || (best.size() == limit && nearestKm > best.peek().distance)) {
+                break;
+            }
+            int rows = Math.min(r, latReach);
+            int columns = Math.min(r, lonReach);
+            for (int dLat = -rows; dLat <= rows; dLat++) {
+                int latCell = centerLat + dLat;
+                if (latCell < 0 || latCell >= LAT_CELLS) {
+                    continue;
+                }
+                if (Math.abs(dLat) == r) {
+                    for (int dLon = -columns; dLon <= columns; dLon++) {
+                        collect(latCell, centerLon + dLon, skillCode, latitude, longitude, radiusKm, limit, eligible, best);
+                    }
+                } else if (r <= lonReach) {
+                    // Inner rows of the ring only have their two edge cells.
+                    collect(latCell, centerLon - r, skillCode, latitude, longitude, radiusKm, limit, eligible, best);
+                    if (r > 0) {
+                        collect(latCell, centerLon + r, skillCode, latitude, longitude, radiusKm, limit, eligible, best);
+                    }
+                }
+            }
+        }
+        Candidate[] sorted = best.toArray(new Candidate[0]);
+        Arrays.sort(sorted, NEAREST);
+        List<Worker> result = new ArrayList<>(sorted.length);
+        for (Candidate candidate : sorted) {
+            result.add(candidate.worker);
+        }
+        return result;
+    }
+
+    private void collect(int latCell, int lonCell, int skillCode, double latitude, double longitude,
+                         double radiusKm, int limit, Predicate<Worker> eligible, PriorityQueue<Candidate> best) {
+        if (lonCell < 0 || lonCell >= LON_CELLS) {
+            return;
+        }
+        ConcurrentSkipListMap<Integer, Worker> bucket = cells.get(key(latCell, lonCell, skillCode));
+        if (bucket == null) {
+            return;
+        }
+        for (Worker worker : bucket.values()) {
+            double distance = distanceKm(latitude, longitude, worker.getLatitude(), worker.getLongitude());
+            if (distance > radiusKm || !eligible.test(worker)) {
+                continue;
+            }
+            Candidate candidate = new Candidate(worker, distance);
+            if (best.size() < limit) {
+                best.add(candidate);
+            } else if (NEAREST.compare(candidate, best.peek()) < 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package farmhelp.admin;
+
+import farmhelp.model.Worker;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Available workers bucketed by location code and skill code, so candidate
+ * lookup only touches workers that can actually serve a request. Workers with
+ * coordinates are also kept in a {@link SpatialIndex} for matching by distance.
+ * <p>
+ * Booked workers stay in their buckets, since they are still free outside their
+ * bookings. To keep a heavily booked bucket from being walked end to end by every
+ * request that it cannot serve, each bucket remembers the last window, and the last
+ * open-ended hold, that nobody in it was free for. A request it covers is answered
+ * without a walk until a worker in the bucket may have become free: one is added or
+ * made available again, or loses a booking.
+ */
+class WorkerIndex {
+    // Buckets are never removed once created, so concurrent add/remove cannot lose a worker.
+    private final Map<Long, Bucket> buckets = new ConcurrentHashMap<>();
+    private final SpatialIndex spatial = new SpatialIndex();
+
+    private static final class Bucket {
+        final ConcurrentSkipListMap<Integer, Worker> workers = new ConcurrentSkipListMap<>();
+        // Bumped whenever a worker in the bucket may have become free.
+        final AtomicLong version = new AtomicLong();
+        volatile FullyBooked window;
+        volatile FullyBooked openEnded;
+    }
+
+    /**
+     * Nobody in the bucket was free for {@code [start, end)} as of {@code version}, so nobody
+     * is free for any window containing it. For an open-ended hold, {@code end} is instead the
+     * earliest any of them stops being booked: until then nobody can be held.
+     */
+    private static final class FullyBooked {
+        final long start;
+        final long end;
+        final long version;
+
+        FullyBooked(long start, long end, long version) {
+            this.start = start;
+            this.end = end;
+            this.version = version;
+        }
+    }
+
+    private static long key(int locationCode, int skillCode) {
+        return ((long) locationCode << 32) | (skillCode & 0xFFFFFFFFL);
+    }
+
+    void add(Worker worker) {
+        if (!worker.isAvailable()) {
+            return;
+        }
+        for (int i = 0; i < worker.getSkillCount(); i++) {
+            Bucket bucket = buckets.computeIfAbsent(key(worker.getLocationCode(), worker.getSkillCode(i)), k -> new Bucket());
+            bucket.workers.put(worker.getId(), worker);
+            bucket.version.incrementAndGet();
+        }
+        spatial.add(worker);
+    }
+
+    void remove(Worker worker) {
+        for (int i = 0; i < worker.getSkillCount(); i++) {
+            Bucket bucket = buckets.get(key(worker.getLocationCode(), worker.getSkillCode(i)));
+            if (bucket != null) {
+                bucket.workers.remove(worker.getId());
+            }
+        }
+        spatial.remove(worker);
+    }
+
+    /** Call after a worker loses a booking, once the calendar no longer has it. */
+    void bookingCancelled(Worker worker) {
+        for (int i = 0; i < worker.getSkillCount(); i++) {
+            Bucket bucket = buckets.get(key(worker.getLocationCode(), worker.getSkillCode(i)));
+            if (bucket != null) {
+                bucket.version.incrementAndGet();
+            }
+        }
+    }
+
+    /** Live view of every available worker with one skill at one location, lowest ID first. */
+    Collection<Worker> available(int locationCode, int skillCode) {
+        Bucket bucket = skillCode < 0 ? null : buckets.get(key(locationCode, skillCode));
+        return bucket == null ? Collections.emptyList() : Collections.unmodifiableCollection(bucket.workers.values());
+    }
+
+    /** See {@link SpatialIndex#nearest}; only workers with coordinates are found. */
+    List<Worker> nearest(double latitude, double longitude, int skillCode, double radiusKm, int limit,
+                         Predicate<Worker> eligible) {
+        return spatial.nearest(latitude, longitude, skillCode, radiusKm, limit, eligible);
+    }
+
+    /**
+     * Returns up to {@code limit} workers free for all of {@code [start, end)}, lowest ID first;
+     * an {@code end} of {@link Long#MAX_VALUE} asks for workers that can be held from
+     * {@code start} until further notice. Workers that are not free are skipped, so a walk
+     * is as long as the ones it returns plus the ones it had to pass over, except that a walk
+     * the bucket already knows would find nobody is not made at all.
+     */
+    List<Worker> findFree(int locationCode, int skillCode, int limit, long start, long end) {
+        List<Worker> result = new ArrayList<>();
+        if (skillCode < 0 || limit <= 0) {
+            return result;
+        }
+        Bucket bucket = buckets.get(key(locationCode, skillCode));
+        if (bucket == null) {
+            return result;
+        }
+        boolean openEnded = end == Long.MAX_VALUE;
+        // Read before the walk, so a worker freed during it leaves the result unremembered.
+        long version = bucket.version.get();
+        FullyBooked known = openEnded ? bucket.openEnded : bucket.window;
+        if (known != null && known.version == version
+                && (openEnded ? start < known.end : start <= known.start && known.end <= end)) {
+            return result;
+        }
+        long freeFrom = Long.MAX_VALUE;
+        for (Worker worker : bucket.workers.values()) {
+            if (result.size() == limit) {
+                break;
+            }
+            if (worker.isFree(start, end)) {
+                result.add(worker);
+            } else if (openEnded) {
+                // Held workers are not remembered: they come back through add, which bumps the version.
+                freeFrom = Math.min(freeFrom, worker.isAvailable() ? worker.getBookedUntil() : start);
+            }
+        }
+        if (result.isEmpty()) {
+            if (openEnded) {
+                bucket.openEnded = new FullyBooked(start, freeFrom, version);
+            } else {
+                bucket.window = new FullyBooked(start, end, version);
+            }
+        }
+        return result;
+    }
+}
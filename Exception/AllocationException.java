@@ -0,0 +1,7 @@
+package farmhelp.exception;
+
+public class AllocationException extends Exception {
+    public AllocationException(String message) {
+        super(message);
+    }
+}
@@ -3,23 +3,101 @@ package farmhelp;
 import farmhelp.model.Farmer;
 import farmhelp.model.Worker;
 import farmhelp.admin.Admin;
+import farmhelp.admin.IdRange;
+import farmhelp.admin.ShardRouting;
 import farmhelp.gui.FarmHelpGUI;
+import farmhelp.http.HttpApi;
 import farmhelp.exception.FarmerException;
 import farmhelp.exception.WorkerException;
 
 import javax.swing.SwingUtilities;
+import java.io.File;
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class FarmHelpSystem {
+    /**
+     * Starts the GUI, or with {@code --http [port]} serves the HTTP API instead. For scale-out,
+     * {@code --http [port] --shard i/n --data dir} serves shard i of n as its own process: it keeps
+     * its files in dir, hands out only shard i's IDs and registers people only in the locations
+     * {@link ShardRouting} gives shard i. {@code --assign location=shard}, repeated as needed,
+     * places a location by hand; every shard process and client must be given the same ones.
+     * Shards start without sample data.
+     */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--http")) {
+            serveHttp(args);
+            return;
+        }
+
         Admin admin = new Admin();
         initializeSampleData(admin);
+        Runtime.getRuntime().addShutdownHook(new Thread(admin::shutdown));
 
         // Start the GUI on the Event Dispatch Thread
         SwingUtilities.invokeLater(() -> new FarmHelpGUI(admin));
     }
 
+    private static void serveHttp(String[] args) {
+        int port = HttpApi.DEFAULT_PORT;
+        File dataDir = new File(".");
+        int shard = -1;
+        int shardCount = 0;
+        Map<String, Integer> assignments = new HashMap<>();
+        ShardRouting routing = null;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--data": dataDir = new File(args[++i]); break;
+                    case "--shard": {
+                        String[] spec = args[++i].split("/");
+                        shard = Integer.parseInt(spec[0]);
+                        shardCount = Integer.parseInt(spec[1]);
+                        break;
+                    }
+                    case "--assign": {
+                        String[] assignment = args[++i].split("=");
+                        assignments.put(assignment[0], Integer.parseInt(assignment[1]));
+                        break;
+                    }
+                    default: port = Integer.parseInt(args[i]);
+                }
+            }
+            if (shardCount > 0) {
+                routing = new ShardRouting(shardCount, assignments);
+                routing.idRange(shard);
+            } else if (!assignments.isEmpty()) {
+                throw new IllegalArgumentException("--assign needs --shard");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Usage: --http [port] [--shard <index>/<count> [--assign <location>=<shard>]...] [--data <dir>]");
+            return;
+        }
+
+        Admin admin = routing != null
+                ? new Admin(dataDir, routing, shard, false, Admin.DEFAULT_COMPACTION_THRESHOLD, false)
+                : new Admin(dataDir, IdRange.ALL, false, Admin.DEFAULT_COMPACTION_THRESHOLD, false);
+        if (routing == null) {
+            initializeSampleData(admin);
+        }
+        try {
+            HttpApi api = new HttpApi(admin, port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                api.stop(1);
+                admin.shutdown();
+            }));
+            api.start();
+            System.out.println("HTTP API listening on port " + api.getPort()
+                    + (routing != null ? ", shard " + shard + " of " + shardCount + ", IDs " + routing.idRange(shard) : ""));
+        } catch (IOException e) {
+            System.err.println("Error starting HTTP API: " + e.getMessage());
+            admin.shutdown();
+        }
+    }
+
     private static void initializeSampleData(Admin admin) {
         try {
             if (admin.getFarmers().isEmpty() && admin.getWorkers().isEmpty()) {
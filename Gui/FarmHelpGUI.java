@@ -0,0 +1,232 @@
+package farmhelp.gui;
+
+import farmhelp.admin.Admin;
+import farmhelp.admin.AdminSnapshot;
+import farmhelp.model.Farmer;
+import farmhelp.model.Request;
+import farmhelp.model.Worker;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class FarmHelpGUI extends JFrame {
+    private final Admin admin;
+    private final DefaultTableModel farmerModel = new DefaultTableModel(
+            new Object[]{"ID", "Name", "Location", "Crop", "Land (acres)", "Income"}, 0);
+    private final DefaultTableModel workerModel = new DefaultTableModel(
+            new Object[]{"ID", "Name", "Location", "Skills", "Available", "Bookings"}, 0);
+    private final DefaultTableModel requestModel = new DefaultTableModel(
+            new Object[]{"Request ID", "Farmer ID", "Skill", "Workers", "From", "Until"}, 0);
+    private final JTextArea allocationOutput = new JTextArea();
+
+    public FarmHelpGUI(Admin admin) {
+        super("FarmHelp");
+        this.admin = admin;
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Farmers", buildFarmerTab());
+        tabs.addTab("Workers", buildWorkerTab());
+        tabs.addTab("Requests", buildRequestTab());
+        tabs.addTab("Allocation", buildAllocationTab());
+        add(tabs);
+
+        refreshTables();
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setSize(800, 500);
+        setLocationRelativeTo(null);
+        setVisible(true);
+    }
+
+    private JPanel buildFarmerTab() {
+        JTextField name = new JTextField();
+        JTextField location = new JTextField();
+        JTextField crop = new JTextField();
+        JTextField landSize = new JTextField();
+        JTextField income = new JTextField();
+
+        JButton register = new JButton("Register Farmer");
+        register.addActionListener(e -> {
+            try {
+                admin.registerFarmer(name.getText(), location.getText(), crop.getText(),
+                        Double.parseDouble(landSize.getText()), Double.parseDouble(income.getText()));
+                refreshTables();
+            } catch (Exception ex) {
+                showError(ex);
+            }
+        });
+
+        JPanel form = form(new String[]{"Name", "Location", "Crop", "Land Size (acres)", "Income"},
+                new JComponent[]{name, location, crop, landSize, income}, register);
+        return withTable(form, farmerModel);
+    }
+
+    private JPanel buildWorkerTab() {
+        JTextField name = new JTextField();
+        JTextField location = new JTextField();
+        JTextField skills = new JTextField();
+
+        JButton register = new JButton("Register Worker");
+        register.addActionListener(e -> {
+            try {
+                List<String> skillList = Arrays.stream(skills.getText().split(","))
+                        .map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toList());
+                admin.registerWorker(name.getText(), location.getText(), skillList);
+                refreshTables();
+            } catch (Exception ex) {
+                showError(ex);
+            }
+        });
+
+        JPanel form = form(new String[]{"Name", "Location", "Skills (comma separated)"},
+                new JComponent[]{name, location, skills}, register);
+        return withTable(form, workerModel);
+    }
+
+    private JPanel buildRequestTab() {
+        JTextField farmerId = new JTextField();
+        JTextField skill = new JTextField();
+        JTextField count = new JTextField();
+        JTextField from = new JTextField();
+        JTextField until = new JTextField();
+
+        JButton create = new JButton("Create Request");
+        create.addActionListener(e -> {
+            try {
+                // Whole days in local time; leaving both blank holds the workers until the allocation is closed.
+                long workStart = 0;
+                long workEnd = 0;
+                if (!from.getText().isBlank() || !until.getText().isBlank()) {
+                    workStart = startOfDay(LocalDate.parse(from.getText().trim()));
+                    workEnd = startOfDay(LocalDate.parse(until.getText().trim()).plusDays(1));
+                }
+                admin.createWorkerRequest(Integer.parseInt(farmerId.getText()), skill.getText(),
+                        Integer.parseInt(count.getText()), workStart, workEnd);
+                refreshTables();
+            } catch (Exception ex) {
+                showError(ex);
+            }
+        });
+
+        JPanel form = form(new String[]{"Farmer ID", "Skill Required", "Workers Requested",
+                        "Work From (yyyy-mm-dd, optional)", "Work Until (yyyy-mm-dd, optional)"},
+                new JComponent[]{farmerId, skill, count, from, until}, create);
+        return withTable(form, requestModel);
+    }
+
+    private JPanel buildAllocationTab() {
+        allocationOutput.setEditable(false);
+        allocationOutput.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JButton allocate = new JButton("Allocate Workers");
+        allocate.addActionListener(e -> {
+            try {
+                allocationOutput.setText(admin.allocateWorkers().toString());
+                refreshTables();
+            } catch (Exception ex) {
+                showError(ex);
+            }
+        });
+        JButton allocateOptimal = new JButton("Allocate Workers (Optimal)");
+        allocateOptimal.addActionListener(e -> {
+            allocationOutput.setText(admin.allocateWorkersOptimal().toString());
+            refreshTables();
+        });
+        JPanel engines = new JPanel(new GridLayout(1, 2, 5, 5));
+        engines.add(allocate);
+        engines.add(allocateOptimal);
+
+        JTextField allocationId = new JTextField(6);
+        JPanel lifecycle = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        lifecycle.add(new JLabel("Allocation ID"));
+        lifecycle.add(allocationId);
+        lifecycle.add(lifecycleButton("Complete", "Completed", allocationId, admin::completeAllocation));
+        lifecycle.add(lifecycleButton("Cancel", "Cancelled", allocationId, admin::cancelAllocation));
+        lifecycle.add(lifecycleButton("Release", "Released", allocationId, admin::releaseAllocation));
+
+        JPanel actions = new JPanel(new BorderLayout(5, 5));
+        actions.add(engines, BorderLayout.NORTH);
+        actions.add(lifecycle, BorderLayout.SOUTH);
+
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.add(actions, BorderLayout.NORTH);
+        panel.add(new JScrollPane(allocationOutput), BorderLayout.CENTER);
+        return panel;
+    }
+
+    private interface AllocationAction {
+        void apply(int allocationId) throws Exception;
+    }
+
+    private JButton lifecycleButton(String label, String done, JTextField allocationId, AllocationAction action) {
+        JButton button = new JButton(label);
+        button.addActionListener(e -> {
+            try {
+                action.apply(Integer.parseInt(allocationId.getText().trim()));
+                allocationOutput.setText(done + " allocation " + allocationId.getText().trim());
+                refreshTables();
+            } catch (Exception ex) {
+                showError(ex);
+            }
+        });
+        return button;
+    }
+
+    private JPanel form(String[] labels, JComponent[] fields, JButton action) {
+        JPanel grid = new JPanel(new GridLayout(labels.length + 1, 2, 5, 5));
+        for (int i = 0; i < labels.length; i++) {
+            grid.add(new JLabel(labels[i]));
+            grid.add(fields[i]);
+        }
+        grid.add(new JLabel());
+        grid.add(action);
+        return grid;
+    }
+
+    private JPanel withTable(JPanel form, DefaultTableModel model) {
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        panel.add(form, BorderLayout.NORTH);
+        panel.add(new JScrollPane(new JTable(model)), BorderLayout.CENTER);
+        return panel;
+    }
+
+    private void refreshTables() {
+        // One version for all three tables, so they agree with each other.
+        AdminSnapshot snapshot = admin.snapshot();
+        farmerModel.setRowCount(0);
+        for (Farmer f : snapshot.getFarmers().values()) {
+            farmerModel.addRow(new Object[]{f.getId(), f.getName(), f.getLocation(), f.getCrop(),
+                    f.getLandSize(), f.getIncome()});
+        }
+        workerModel.setRowCount(0);
+        for (Worker w : snapshot.getWorkers().values()) {
+            workerModel.addRow(new Object[]{w.getId(), w.getName(), w.getLocation(),
+                    String.join(", ", w.getSkills()), w.isAvailable(), w.getBookingCount()});
+        }
+        requestModel.setRowCount(0);
+        for (Request r : snapshot.getRequests().values()) {
+            requestModel.addRow(new Object[]{r.getRequestId(), r.getFarmerId(), r.getSkillRequired(),
+                    r.getWorkersRequested(), r.hasWorkWindow() ? day(r.getWorkStart()) : "",
+                    r.hasWorkWindow() ? day(r.getWorkEnd() - 1) : ""});
+        }
+    }
+
+    private static long startOfDay(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDate day(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private void showError(Exception e) {
+        JOptionPane.showMessageDialog(this, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+    }
+}
@@ -0,0 +1,547 @@
+package farmhelp.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import farmhelp.admin.Admin;
+import farmhelp.admin.AllocationResult;
+import farmhelp.admin.BatchResult;
+import farmhelp.admin.Page;
+import farmhelp.exception.AllocationException;
+import farmhelp.model.Allocation;
+import farmhelp.model.Farmer;
+import farmhelp.model.Person;
+import farmhelp.model.Request;
+import farmhelp.model.Worker;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * JSON over HTTP in front of one {@link Admin}, on the JDK's built-in server.
+ * <pre>
+ * POST /farmers                 {"name","location","crop","landSize","income"} or an array of them
+ * POST /workers                 {"name","location","skills":[...]} or an array; both optionally
+ *                               with "latitude" and "longitude"
+ * POST /requests                {"farmerId","skill","workers"} or an array; optionally with
+ *                               "workStart" and "workEnd" in epoch milliseconds
+ * POST /allocate?engine=        greedy (default), parallel or optimal
+ * POST /allocations/{id}/complete, /cancel or /release
+ * GET  /farmers?location=&amp;crop=&amp;after=&amp;limit=
+ * GET  /requests?location=&amp;skill=&amp;after=&amp;limit=
+ * GET  /allocations?farmer= or ?worker=, with after and limit
+ * GET  /workers/{id}/allocation
+ * GET  /workers/{id}/bookings
+ * </pre>
+ * A single object answers 201 with its new ID, or 400 with the reason. An array
+ * is registered through Admin's batch calls in one journal commit and answers 200
+ * with the accepted IDs and the failures keyed by array index, so a device that
+ * queued records offline can send them in one round trip. On one shard of a
+ * {@link farmhelp.admin.ShardRouting}, a farmer or worker in a location another shard
+ * owns is refused the same way, and the reason names the owning shard. A body over
+ * {@link #MAX_BODY_BYTES}, or an array of more than {@link #MAX_BATCH_SIZE} records,
+ * answers 413 and nothing in it is registered.
+ * <p>
+ * Handlers block on Admin (the journal commit in particular), so exchanges are
+ * served by a pool of threads rather than the server's single dispatcher thread.
+ */
+public class HttpApi {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_BODY_BYTES = 4 * 1024 * 1024;
+    public static final int MAX_BATCH_SIZE = 10_000;
+    private static final long MAX_EXACT_LONG = 1L << 53;
+
+    static {
+        // The JDK server leaves Nagle's algorithm on, which holds small replies back until the
+        // client's delayed ACK: about 40 ms on every call. Read once, when the server classes load.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final Admin admin;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * @param port    0 picks a free port; see {@link #getPort()}
+     * @param threads handler threads; exchanges beyond that queue up
+     */
+    public HttpApi(Admin admin, int port, int threads) throws IOException {
+        this.admin = admin;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "http-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/farmers", exchange -> handle(exchange, this::farmers));
+        server.createContext("/workers", exchange -> handle(exchange, this::workers));
+        server.createContext("/requests", exchange -> handle(exchange, this::requests));
+        server.createContext("/allocate", exchange -> handle(exchange, this::allocate));
+        server.createContext("/allocations", exchange -> handle(exchange, this::allocations));
+    }
+
+    public HttpApi(Admin admin, int port) throws IOException {
+        this(admin, port, Math.max(16, Runtime.getRuntime().availableProcessors() * 4));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /** Stops accepting exchanges, gives running ones up to {@code delaySeconds} to finish, then stops the pool. */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /** A handler's reply: an HTTP status and a value for {@link Json#write}. */
+    private static final class Reply {
+        final int status;
+        final Object body;
+
+        Reply(int status, Object body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private interface Route {
+        Reply serve(HttpExchange exchange, String[] path) throws Exception;
+    }
+
+    /** Bad input from the client; becomes a 4xx reply. */
+    private static final class ClientError extends RuntimeException {
+        final int status;
+
+        ClientError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private void handle(HttpExchange exchange, Route route) throws IOException {
+        Reply reply;
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String[] segments = Arrays.stream(path.split("/")).filter(s -> !s.isEmpty()).toArray(String[]::new);
+            reply = route.serve(exchange, segments);
+        } catch (ClientError e) {
+            reply = error(e.status, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            reply = error(400, e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Error serving " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + ": " + e.getMessage());
+            reply = error(500, "Internal error");
+        }
+        byte[] bytes = Json.write(reply.body).getBytes(StandardCharsets.UTF_8);
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(reply.status, bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static Reply error(int status, String message) {
+        return new Reply(status, Collections.singletonMap("error", message));
+    }
+
+    // ---- routes ----
+
+    private Reply farmers(HttpExchange exchange, String[] path) throws IOException {
+        if (path.length != 1) {
+            throw new ClientError(404, "Not found");
+        }
+        if (isGet(exchange)) {
+            Map<String, String> query = query(exchange);
+            Page<Farmer> page = admin.findFarmers(query.get("location"), query.get("crop"), after(query), limit(query));
+            return new Reply(200, page(page, HttpApi::farmerJson));
+        }
+        requirePost(exchange);
+        return register(exchange, map -> withCoordinates(map, new Farmer(0, string(map, "name"), string(map, "location"),
+                string(map, "crop"), number(map, "landSize"), number(map, "income"))), admin::registerFarmers);
+    }
+
+    private Reply workers(HttpExchange exchange, String[] path) throws IOException {
+        if (path.length == 3 && path[2].equals("allocation") && isGet(exchange)) {
+            Allocation active = admin.findActiveAllocation(id(path[1]));
+            if (active == null) {
+                throw new ClientError(404, "Worker " + path[1] + " has no active allocation");
+            }
+            return new Reply(200, allocationJson(active));
+        }
+        if (path.length == 3 && path[2].equals("bookings") && isGet(exchange)) {
+            Worker worker = admin.getWorkers().get(id(path[1]));
+            if (worker == null) {
+                throw new ClientError(404, "Worker " + path[1] + " not found");
+            }
+            List<Object> bookings = new ArrayList<>();
+            for (long[] booking : worker.getBookings()) {
+                Map<String, Object> json = new LinkedHashMap<>();
+                json.put("workStart", booking[0]);
+                json.put("workEnd", booking[1]);
+                bookings.add(json);
+            }
+            return new Reply(200, bookings);
+        }
+        if (path.length != 1) {
+            throw new ClientError(404, "Not found");
+        }
+        requirePost(exchange);
+        return register(exchange, map -> withCoordinates(map, new Worker(0, string(map, "name"), string(map, "location"),
+                strings(map, "skills"), true)), admin::registerWorkers);
+    }
+
+    private Reply requests(HttpExchange exchange, String[] path) throws IOException {
+        if (path.length != 1) {
+            throw new ClientError(404, "Not found");
+        }
+        if (isGet(exchange)) {
+            Map<String, String> query = query(exchange);
+            Page<Request> page = admin.findPendingRequests(query.get("location"), query.get("skill"), after(query), limit(query));
+            return new Reply(200, page(page, HttpApi::requestJson));
+        }
+        requirePost(exchange);
+        return register(exchange, map -> {
+            boolean windowed = map.containsKey("workStart") || map.containsKey("workEnd");
+            return new Request(0, integer(map, "farmerId"), string(map, "skill"), integer(map, "workers"),
+                    System.currentTimeMillis(), windowed ? wholeNumber(map, "workStart", MAX_EXACT_LONG) : 0,
+                    windowed ? wholeNumber(map, "workEnd", MAX_EXACT_LONG) : 0);
+        }, admin::createWorkerRequests);
+    }
+
+    private Reply allocate(HttpExchange exchange, String[] path) {
+        if (path.length != 1) {
+            throw new ClientError(404, "Not found");
+        }
+        requirePost(exchange);
+        String engine = query(exchange).getOrDefault("engine", "greedy");
+        AllocationResult result;
+        switch (engine) {
+            case "greedy": result = admin.allocateWorkers(); break;
+            case "parallel": result = admin.allocateWorkersParallel(); break;
+            case "optimal": result = admin.allocateWorkersOptimal(); break;
+            default: throw new ClientError(400, "Unknown engine: " + engine);
+        }
+        return new Reply(200, resultJson(result));
+    }
+
+    private Reply allocations(HttpExchange exchange, String[] path) {
+        if (path.length == 3) {
+            requirePost(exchange);
+            int id = id(path[1]);
+            try {
+                switch (path[2]) {
+                    case "complete": admin.completeAllocation(id); break;
+                    case "cancel": admin.cancelAllocation(id); break;
+                    case "release": admin.releaseAllocation(id); break;
+                    default: throw new ClientError(404, "Not found");
+                }
+            } catch (AllocationException e) {
+                throw new ClientError(409, e.getMessage());
+            }
+            return new Reply(200, allocationJson(admin.getAllocations().get(id)));
+        }
+        if (path.length != 1 || !isGet(exchange)) {
+            throw new ClientError(path.length != 1 ? 404 : 405, path.length != 1 ? "Not found" : "Method not allowed");
+        }
+        Map<String, String> query = query(exchange);
+        Page<Allocation> page;
+        if (query.containsKey("farmer")) {
+            page = admin.findAllocationsByFarmer(id(query.get("farmer")), after(query), limit(query));
+        } else if (query.containsKey("worker")) {
+            page = admin.findAllocationsByWorker(id(query.get("worker")), after(query), limit(query));
+        } else {
+            throw new ClientError(400, "Give a farmer or worker parameter");
+        }
+        return new Reply(200, page(page, HttpApi::allocationJson));
+    }
+
+    /**
+     * Parses the body as one draft or an array of drafts and hands them to a batch call.
+     * A draft that cannot be built from its JSON is passed on as null, which the batch
+     * call reports as a failure at that index like any other invalid record.
+     */
+    private <T> Reply register(HttpExchange exchange, Function<Map<?, ?>, T> draft,
+                               Function<Collection<T>, BatchResult> batch) throws IOException {
+        Object body = Json.parse(readBody(exchange));
+        boolean single = body instanceof Map;
+        if (!single && !(body instanceof List)) {
+            throw new ClientError(400, "Body must be a JSON object or array");
+        }
+        List<?> items = single ? Collections.singletonList(body) : (List<?>) body;
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new ClientError(413, "At most " + MAX_BATCH_SIZE + " records per request");
+        }
+        List<T> drafts = new ArrayList<>(items.size());
+        Map<Integer, String> parseFailures = new HashMap<>();
+        for (Object item : items) {
+            try {
+                if (!(item instanceof Map)) {
+                    throw new IllegalArgumentException("Expected a JSON object");
+                }
+                drafts.add(draft.apply((Map<?, ?>) item));
+            } catch (IllegalArgumentException e) {
+                parseFailures.put(drafts.size(), e.getMessage());
+                drafts.add(null);
+            }
+        }
+
+        BatchResult result = batch.apply(drafts);
+        Map<Integer, String> failures = new TreeMap<>(result.getFailures());
+        failures.putAll(parseFailures);
+        if (single) {
+            return failures.isEmpty()
+                    ? new Reply(201, Collections.singletonMap("id", result.getAcceptedIds().get(0)))
+                    : error(400, failures.get(0));
+        }
+        List<Object> failureList = new ArrayList<>();
+        for (Map.Entry<Integer, String> failure : failures.entrySet()) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("index", failure.getKey());
+            json.put("error", failure.getValue());
+            failureList.add(json);
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("accepted", result.getAcceptedIds());
+        json.put("failures", failureList);
+        return new Reply(200, json);
+    }
+
+    // ---- request parsing ----
+
+    private static boolean isGet(HttpExchange exchange) {
+        return exchange.getRequestMethod().equals("GET");
+    }
+
+    private static void requirePost(HttpExchange exchange) {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            throw new ClientError(405, "Method not allowed");
+        }
+    }
+
+    /** Keeps at most {@link #MAX_BODY_BYTES} in memory, whatever Content-Length claims. */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            String length = exchange.getRequestHeaders().getFirst("Content-Length");
+            if (length != null && Long.parseLong(length.trim()) > MAX_BODY_BYTES) {
+                throw tooLarge(in);
+            }
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw tooLarge(in);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Discards up to another {@link #MAX_BODY_BYTES} of the body first: closing a connection
+     * with request bytes still unread resets it, and the client would lose the reply.
+     */
+    private static ClientError tooLarge(InputStream in) throws IOException {
+        byte[] discard = new byte[8192];
+        long left = MAX_BODY_BYTES;
+        int read;
+        while (left > 0 && (read = in.read(discard, 0, (int) Math.min(discard.length, left))) >= 0) {
+            left -= read;
+        }
+        return new ClientError(413, "Body is over " + MAX_BODY_BYTES + " bytes");
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static int id(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ClientError(400, "Not a valid ID: " + value);
+        }
+    }
+
+    private static int after(Map<String, String> query) {
+        return query.containsKey("after") ? id(query.get("after")) : 0;
+    }
+
+    private static int limit(Map<String, String> query) {
+        if (!query.containsKey("limit")) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        int limit = id(query.get("limit"));
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ClientError(400, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    private static String string(Map<?, ?> map, String field) {
+        Object value = map.get(field);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Missing text field: " + field);
+        }
+        return (String) value;
+    }
+
+    private static double number(Map<?, ?> map, String field) {
+        Object value = map.get(field);
+        if (!(value instanceof Double)) {
+            throw new IllegalArgumentException("Missing number field: " + field);
+        }
+        return (Double) value;
+    }
+
+    private static int integer(Map<?, ?> map, String field) {
+        return (int) wholeNumber(map, field, Integer.MAX_VALUE);
+    }
+
+    /**
+     * A number with no fraction and at most {@code max} in magnitude, so casting it neither
+     * truncates nor saturates. JSON numbers arrive as doubles, which hold every integer up
+     * to {@link #MAX_EXACT_LONG} exactly.
+     */
+    private static long wholeNumber(Map<?, ?> map, String field, long max) {
+        double value = number(map, field);
+        if (value != Math.rint(value) || Math.abs(value) > max) {
+            throw new IllegalArgumentException("Field " + field + " must be a whole number no larger than " + max);
+        }
+        return (long) value;
+    }
+
+    private static <T extends Person> T withCoordinates(Map<?, ?> map, T person) {
+        if (map.containsKey("latitude") || map.containsKey("longitude")) {
+            person.setCoordinates(number(map, "latitude"), number(map, "longitude"));
+        }
+        return person;
+    }
+
+    private static List<String> strings(Map<?, ?> map, String field) {
+        Object value = map.get(field);
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException("Missing list field: " + field);
+        }
+        List<String> strings = new ArrayList<>();
+        for (Object item : (List<?>) value) {
+            if (!(item instanceof String)) {
+                throw new IllegalArgumentException("Field " + field + " must only hold text");
+            }
+            strings.add((String) item);
+        }
+        return strings;
+    }
+
+    // ---- response bodies ----
+
+    private static <T> Map<String, Object> page(Page<T> page, Function<T, Object> toJson) {
+        List<Object> items = new ArrayList<>(page.getItems().size());
+        for (T item : page.getItems()) {
+            items.add(toJson.apply(item));
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("items", items);
+        json.put("nextAfter", page.hasMore() ? page.getNextAfter() : null);
+        return json;
+    }
+
+    private static Object farmerJson(Farmer farmer) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", farmer.getId());
+        json.put("name", farmer.getName());
+        json.put("location", farmer.getLocation());
+        json.put("crop", farmer.getCrop());
+        json.put("landSize", farmer.getLandSize());
+        json.put("income", farmer.getIncome());
+        if (farmer.hasCoordinates()) {
+            json.put("latitude", farmer.getLatitude());
+            json.put("longitude", farmer.getLongitude());
+        }
+        return json;
+    }
+
+    private static Object requestJson(Request request) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", request.getRequestId());
+        json.put("farmerId", request.getFarmerId());
+        json.put("skill", request.getSkillRequired());
+        json.put("workers", request.getWorkersRequested());
+        json.put("requestTime", request.getRequestTime());
+        if (request.hasWorkWindow()) {
+            json.put("workStart", request.getWorkStart());
+            json.put("workEnd", request.getWorkEnd());
+        }
+        return json;
+    }
+
+    private static Object allocationJson(Allocation allocation) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", allocation.getAllocationId());
+        json.put("requestId", allocation.getRequestId());
+        json.put("farmerId", allocation.getFarmerId());
+        json.put("workerIds", allocation.getWorkerIds());
+        json.put("allocationTime", allocation.getAllocationTime());
+        json.put("status", allocation.getStatus());
+        if (allocation.hasWorkWindow()) {
+            json.put("workStart", allocation.getWorkStart());
+            json.put("workEnd", allocation.getWorkEnd());
+        }
+        return json;
+    }
+
+    private static Object resultJson(AllocationResult result) {
+        List<Object> outcomes = new ArrayList<>(result.getOutcomes().size());
+        for (AllocationResult.Outcome outcome : result.getOutcomes()) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("requestId", outcome.getRequestId());
+            json.put("farmerId", outcome.getFarmerId());
+            if (outcome.isAllocated()) {
+                json.put("allocationId", outcome.getAllocationId());
+                json.put("workerIds", outcome.getWorkerIds());
+            } else {
+                json.put("failure", outcome.getFailure().name());
+            }
+            outcomes.add(json);
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("attempts", result.getAttempts());
+        json.put("successful", result.getSuccessful());
+        json.put("failed", result.getFailed());
+        json.put("workersRequested", result.getWorkersRequested());
+        json.put("workersAllocated", result.getWorkersAllocated());
+        json.put("fillRate", result.getFillRate());
+        json.put("runtimeMillis", result.getRuntimeNanos() / 1_000_000.0);
+        json.put("outcomes", outcomes);
+        return json;
+    }
+}
@@ -1,47 +1,175 @@
 package farmhelp.model;
 
+import farmhelp.exception.AllocationException;
+
+import java.util.AbstractList;
 import java.util.Date;
 import java.util.List;
-import java.util.ArrayList;
+import java.util.RandomAccess;
 
 public class Allocation {
-    private static int nextAllocationId = 1;
-    private int allocationId;
-    private int requestId;
-    private int farmerId;
-    private List<Integer> workerIds;
-    private Date allocationDate;
-    private String status;
-
-    public Allocation(int requestId, int farmerId, List<Integer> workerIds) {
-        this.allocationId = nextAllocationId++;
-        this.requestId = requestId;
-        this.farmerId = farmerId;
-        this.workerIds = new ArrayList<>(workerIds);
-        this.allocationDate = new Date();
-        this.status = "ALLOCATED";
+    public static final String ALLOCATED = "ALLOCATED";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String CANCELLED = "CANCELLED";
+    public static final String RELEASED = "RELEASED";
+    public static final String EXPIRED = "EXPIRED";
+
+    private final int allocationId;
+    private final int requestId;
+    private final int farmerId;
+    // Never modified after construction, so it can be shared with callers that promise not to write to it.
+    private final int[] workerIds;
+    private final long allocationTime;
+    // The request's work window, both 0 when the workers are held until the allocation is closed.
+    private final long workStart;
+    private final long workEnd;
+    private volatile String status;
+    private volatile Owner owner;
+    // Set on copies made for read-only views, which many readers share.
+    private final boolean readOnly;
+
+    /** Takes ownership of {@code workerIds}; the caller must not modify the array afterwards. */
+    public Allocation(int allocationId, int requestId, int farmerId, int[] workerIds, long allocationTime, String status) {
+        this(allocationId, requestId, farmerId, workerIds, allocationTime, status, 0, 0);
     }
 
-    public Allocation(int allocationId, int requestId, int farmerId, List<Integer> workerIds, Date allocationDate, String status) {
+    /** As above, for a request with a work window; see {@link Request#getWorkStart()}. */
+    public Allocation(int allocationId, int requestId, int farmerId, int[] workerIds, long allocationTime, String status,
+                      long workStart, long workEnd) {
         this.allocationId = allocationId;
         this.requestId = requestId;
         this.farmerId = farmerId;
-        this.workerIds = new ArrayList<>(workerIds);
-        this.allocationDate = allocationDate;
+        this.workerIds = workerIds;
+        this.allocationTime = allocationTime;
+        this.workStart = workStart;
+        this.workEnd = workEnd;
         this.status = status;
-        if (allocationId >= nextAllocationId) {
-            nextAllocationId = allocationId + 1;
-        }
+        this.readOnly = false;
+    }
+
+    /**
+     * A read-only copy with the status as it is now, for views that must not see a later
+     * close; closing it throws {@link UnsupportedOperationException}. Shares the
+     * worker ID array.
+     */
+    public Allocation(Allocation source) {
+        this.allocationId = source.allocationId;
+        this.requestId = source.requestId;
+        this.farmerId = source.farmerId;
+        this.workerIds = source.workerIds;
+        this.allocationTime = source.allocationTime;
+        this.workStart = source.workStart;
+        this.workEnd = source.workEnd;
+        this.status = source.status;
+        this.readOnly = true;
     }
 
-    public static void setNextAllocationId(int id) {
-        nextAllocationId = id;
+    /**
+     * Whoever keeps the allocation, e.g. {@code Admin}. Closing an owned allocation goes
+     * through its owner, since that also frees the workers, journals the change and
+     * updates the indexes.
+     */
+    public interface Owner {
+        void closeAllocation(Allocation allocation, String finalStatus) throws AllocationException;
     }
 
     public int getAllocationId() { return allocationId; }
     public int getRequestId() { return requestId; }
     public int getFarmerId() { return farmerId; }
-    public List<Integer> getWorkerIds() { return new ArrayList<>(workerIds); }
-    public Date getAllocationDate() { return allocationDate; }
+    public int getWorkerCount() { return workerIds.length; }
+    public int getWorkerId(int index) { return workerIds[index]; }
+    /** Read-only view of the worker IDs; loops that care about garbage should use {@link #getWorkerId(int)}. */
+    public List<Integer> getWorkerIds() { return new WorkerIdList(workerIds); }
+    /** Epoch milliseconds. */
+    public long getAllocationTime() { return allocationTime; }
+    /** A new Date each call; prefer {@link #getAllocationTime()}. */
+    public Date getAllocationDate() { return new Date(allocationTime); }
+    public boolean hasWorkWindow() { return workEnd > workStart; }
+    public long getWorkStart() { return workStart; }
+    public long getWorkEnd() { return workEnd; }
     public String getStatus() { return status; }
+    public boolean isActive() { return ALLOCATED.equals(status); }
+
+    public void complete() throws AllocationException { close(COMPLETED); }
+    public void cancel() throws AllocationException { close(CANCELLED); }
+    public void release() throws AllocationException { close(RELEASED); }
+    public void expire() throws AllocationException { close(EXPIRED); }
+
+    /**
+     * Moves an active allocation to a final status: through its owner if it has one, so its
+     * workers go back to the pool, otherwise by recording the status alone.
+     *
+     * @throws AllocationException if the allocation is already closed
+     */
+    public void close(String finalStatus) throws AllocationException {
+        if (!COMPLETED.equals(finalStatus) && !CANCELLED.equals(finalStatus)
+                && !RELEASED.equals(finalStatus) && !EXPIRED.equals(finalStatus)) {
+            throw new IllegalArgumentException("Not a final status: " + finalStatus);
+        }
+        checkWritable();
+        Owner current = owner;
+        if (current != null) {
+            current.closeAllocation(this, finalStatus);
+            return;
+        }
+        synchronized (this) {
+            if (!transition(finalStatus)) {
+                throw new AllocationException("Allocation " + allocationId + " is already " + status);
+            }
+        }
+    }
+
+    /** Attaches the owner {@link #close} goes through; an allocation keeps its first owner. */
+    public synchronized void setOwner(Owner owner) {
+        checkWritable();
+        if (this.owner != null && this.owner != owner) {
+            throw new IllegalStateException("Allocation " + allocationId + " already has an owner");
+        }
+        this.owner = owner;
+    }
+
+    /**
+     * The status change itself, for the owner to make while it frees the workers. Returns
+     * false, leaving the status alone, if the allocation was already closed, so only one
+     * caller ever frees its workers. Passing the owner in keeps everyone else on {@link #close}.
+     */
+    public synchronized boolean closeAs(Owner caller, String finalStatus) {
+        checkWritable();
+        if (caller == null || caller != owner) {
+            throw new IllegalStateException("Only the owner of allocation " + allocationId + " can close it directly");
+        }
+        return transition(finalStatus);
+    }
+
+    private boolean transition(String finalStatus) {
+        if (!isActive()) {
+            return false;
+        }
+        this.status = finalStatus;
+        return true;
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Read-only copy of allocation " + allocationId);
+        }
+    }
+
+    private static final class WorkerIdList extends AbstractList<Integer> implements RandomAccess {
+        private final int[] ids;
+
+        WorkerIdList(int[] ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public Integer get(int index) {
+            return ids[index];
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
 }
@@ -0,0 +1,94 @@
+package farmhelp.model;
+
+/**
+ * One worker's bookings as half-open {@code [start, end)} intervals in epoch milliseconds.
+ * Bookings never overlap, so sorted by start they are sorted by end as well, and the only
+ * booking that can collide with a window is the last one starting before the window ends.
+ * That makes "free for the whole window" a single binary search over two parallel arrays
+ * rather than a scan, however many bookings the worker has.
+ * <p>
+ * Immutable: adding or removing a booking returns a new calendar, so a calendar can be
+ * read without locking and shared by copies of the worker taken for read-only views.
+ */
+public final class AvailabilityCalendar {
+    public static final AvailabilityCalendar EMPTY = new AvailabilityCalendar(new long[0], new long[0]);
+
+    private final long[] starts;
+    private final long[] ends;
+
+    private AvailabilityCalendar(long[] starts, long[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    public long getStart(int index) {
+        return starts[index];
+    }
+
+    public long getEnd(int index) {
+        return ends[index];
+    }
+
+    /** Index of the last booking starting before {@code time}, or -1 if there is none. */
+    private int lastStartingBefore(long time) {
+        int low = 0;
+        int high = starts.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    /** True if no booking overlaps {@code [start, end)}. */
+    public boolean isFree(long start, long end) {
+        int last = lastStartingBefore(end);
+        return last < 0 || ends[last] <= start;
+    }
+
+    /** This calendar plus {@code [start, end)}, or null if that overlaps an existing booking. */
+    public AvailabilityCalendar with(long start, long end) {
+        if (end <= start) {
+            throw new IllegalArgumentException("Booking must end after it starts: " + start + ".." + end);
+        }
+        int last = lastStartingBefore(end);
+        if (last >= 0 && ends[last] > start) {
+            return null;
+        }
+        int at = last + 1;
+        int size = starts.length;
+        long[] newStarts = new long[size + 1];
+        long[] newEnds = new long[size + 1];
+        System.arraycopy(starts, 0, newStarts, 0, at);
+        System.arraycopy(ends, 0, newEnds, 0, at);
+        newStarts[at] = start;
+        newEnds[at] = end;
+        System.arraycopy(starts, at, newStarts, at + 1, size - at);
+        System.arraycopy(ends, at, newEnds, at + 1, size - at);
+        return new AvailabilityCalendar(newStarts, newEnds);
+    }
+
+    /** This calendar minus the booking that is exactly {@code [start, end)}, or null if there is none. */
+    public AvailabilityCalendar without(long start, long end) {
+        int at = lastStartingBefore(start) + 1;
+        int size = starts.length;
+        if (at >= size || starts[at] != start || ends[at] != end) {
+            return null;
+        }
+        long[] newStarts = new long[size - 1];
+        long[] newEnds = new long[size - 1];
+        System.arraycopy(starts, 0, newStarts, 0, at);
+        System.arraycopy(ends, 0, newEnds, 0, at);
+        System.arraycopy(starts, at + 1, newStarts, at, size - at - 1);
+        System.arraycopy(ends, at + 1, newEnds, at, size - at - 1);
+        return new AvailabilityCalendar(newStarts, newEnds);
+    }
+}
@@ -1,23 +1,11 @@
 package farmhelp.model;
 
-import farmhelp.exception.FarmerException;
-
 public class Farmer extends Person {
     private String crop;
     private double landSize;
     private double income;
     public static final int WORKERS_PER_ACRE = 2;
 
-    public Farmer(String name, String location, String crop, double landSize, double income) throws FarmerException {
-        super(name, location);
-        this.crop = crop;
-        this.landSize = landSize;
-        this.income = income;
-        if (!validate()) {
-            throw new FarmerException("Invalid farmer data");
-        }
-    }
-
     public Farmer(int id, String name, String location, String crop, double landSize, double income) {
         super(id, name, location);
         this.crop = crop;
@@ -38,10 +26,8 @@ public class Farmer extends Person {
 
     @Override
     public boolean validate() {
-        return name != null && !name.trim().isEmpty() &&
-                location != null && !location.trim().isEmpty() &&
-                crop != null && !crop.trim().isEmpty() &&
-                landSize > 0 && income >= 0;
+        return Vocabulary.isStorable(name) && Vocabulary.isStorable(location) && Vocabulary.isStorable(crop) &&
+                landSize > 0 && income >= 0 && coordinatesValid();
     }
 
     public int getMaxWorkersAllowed() {
@@ -4,27 +4,65 @@ public abstract class Person {
     protected int id;
     protected String name;
     protected String location;
-
-    public Person(String name, String location) {
-        this.id = generateId();
-        this.name = name;
-        this.location = location;
-    }
+    protected int locationCode;
+    // Decimal degrees; NaN until set.
+    protected double latitude = Double.NaN;
+    protected double longitude = Double.NaN;
+    // Set once an Admin holds the person: its indexes and snapshots share the object from then on.
+    private volatile boolean registered;
 
     public Person(int id, String name, String location) {
         this.id = id;
         this.name = name;
+        setLocation(location);
+    }
+
+    /** Copies every field as is, skipping the location lookups; for read-only copies. */
+    protected Person(Person source) {
+        this.id = source.id;
+        this.name = source.name;
+        this.location = source.location;
+        this.locationCode = source.locationCode;
+        this.latitude = source.latitude;
+        this.longitude = source.longitude;
+        this.registered = source.registered;
+    }
+
+    private void setLocation(String location) {
         this.location = location;
+        this.locationCode = Vocabulary.findLocation(location);
     }
 
-    private static int nextId = 1;
+    /**
+     * Pins the person to a point, for matching by distance rather than by location name.
+     * Set it before the person is registered: Admin indexes the position at registration,
+     * so after that this throws {@link IllegalStateException}. Out-of-range values fail
+     * {@link #validate()}.
+     */
+    public void setCoordinates(double latitude, double longitude) {
+        if (registered) {
+            throw new IllegalStateException("Coordinates of registered person " + id + " cannot change");
+        }
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
 
-    public static int generateId() {
-        return nextId++;
+    /**
+     * Fixes the coordinates and interns the location; Admin calls this when it takes the
+     * person in, after validation, so rejected records never reach the {@link Vocabulary}.
+     */
+    public void markRegistered() {
+        if (location != null) {
+            location = Vocabulary.internLocation(location);
+            locationCode = Vocabulary.locationCode(location);
+        }
+        registered = true;
     }
 
-    public static void setNextId(int id) {
-        nextId = id;
+    public boolean isRegistered() { return registered; }
+
+    protected boolean coordinatesValid() {
+        return !hasCoordinates() || (latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180);
     }
 
     public abstract void displayInfo();
@@ -33,6 +71,11 @@ public abstract class Person {
     public int getId() { return id; }
     public String getName() { return name; }
     public String getLocation() { return location; }
+    /** Case-insensitive location identity; see {@link Vocabulary}. */
+    public int getLocationCode() { return locationCode; }
+    public boolean hasCoordinates() { return !Double.isNaN(latitude) || !Double.isNaN(longitude); }
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
 
     @Override
     public String toString() {
@@ -3,39 +3,58 @@ package farmhelp.model;
 import java.util.Date;
 
 public class Request {
-    private static int nextRequestId = 1;
-    private int requestId;
-    private int farmerId;
-    private String skillRequired;
-    private int workersRequested;
-    private Date requestDate;
+    private final int requestId;
+    private final int farmerId;
+    private final String skillRequired;
+    private final int workersRequested;
+    private final long requestTime;
+    // Half-open work window in epoch milliseconds; both 0 for a request without one.
+    private final long workStart;
+    private final long workEnd;
 
-    public Request(int farmerId, String skillRequired, int workersRequested) {
-        this.requestId = nextRequestId++;
-        this.farmerId = farmerId;
-        this.skillRequired = skillRequired;
-        this.workersRequested = workersRequested;
-        this.requestDate = new Date();
+    /** @param requestTime epoch milliseconds */
+    public Request(int requestId, int farmerId, String skillRequired, int workersRequested, long requestTime) {
+        this(requestId, farmerId, skillRequired, workersRequested, requestTime, 0, 0);
     }
 
-    public Request(int requestId, int farmerId, String skillRequired, int workersRequested, Date requestDate) {
+    /**
+     * A request for workers during {@code [workStart, workEnd)}, in epoch milliseconds. Its
+     * workers are only booked for that window and stay free for others. Pass 0 for both
+     * for a request that holds its workers until the allocation is closed.
+     *
+     * @throws IllegalArgumentException if the window does not end after it starts
+     */
+    public Request(int requestId, int farmerId, String skillRequired, int workersRequested, long requestTime,
+                   long workStart, long workEnd) {
+        if ((workStart != 0 || workEnd != 0) && workEnd <= workStart) {
+            throw new IllegalArgumentException("Work window must end after it starts");
+        }
         this.requestId = requestId;
         this.farmerId = farmerId;
         this.skillRequired = skillRequired;
         this.workersRequested = workersRequested;
-        this.requestDate = requestDate;
-        if (requestId >= nextRequestId) {
-            nextRequestId = requestId + 1;
-        }
+        this.requestTime = requestTime;
+        this.workStart = workStart;
+        this.workEnd = workEnd;
     }
 
-    public static void setNextRequestId(int id) {
-        nextRequestId = id;
+    /** As above; a null date means now. */
+    public Request(int requestId, int farmerId, String skillRequired, int workersRequested, Date requestDate) {
+        this(requestId, farmerId, skillRequired, workersRequested,
+                requestDate != null ? requestDate.getTime() : System.currentTimeMillis());
     }
 
     public int getRequestId() { return requestId; }
     public int getFarmerId() { return farmerId; }
     public String getSkillRequired() { return skillRequired; }
     public int getWorkersRequested() { return workersRequested; }
-    public Date getRequestDate() { return requestDate; }
+    /** Epoch milliseconds. */
+    public long getRequestTime() { return requestTime; }
+    /** A new Date each call; prefer {@link #getRequestTime()}. */
+    public Date getRequestDate() { return new Date(requestTime); }
+    public boolean hasWorkWindow() { return workEnd > workStart; }
+    /** Start of the work window in epoch milliseconds, or 0 if there is none. */
+    public long getWorkStart() { return workStart; }
+    /** End of the work window, exclusive, in epoch milliseconds, or 0 if there is none. */
+    public long getWorkEnd() { return workEnd; }
 }
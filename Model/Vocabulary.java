@@ -0,0 +1,105 @@
+package farmhelp.model;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide dictionary that interns skills and locations to small integer
+ * codes, so matching compares ints and every worker shares one copy of each
+ * string. Codes are handed out in first-seen order and never reused, so only
+ * registered people intern: until then their codes come from {@link #findSkill} and
+ * {@link #findLocation}, which leave the dictionary as it is.
+ */
+public final class Vocabulary {
+    private static final Map<String, Integer> skillCodes = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> locationCodes = new ConcurrentHashMap<>();
+    private static final Map<String, String> locationSpellings = new ConcurrentHashMap<>();
+    private static volatile String[] skills = new String[16];
+    private static int skillCount;
+    private static int locationCount;
+
+    private Vocabulary() {
+    }
+
+    /**
+     * True for non-blank text the data files and journal can hold as one field: no control
+     * characters, which would end or corrupt a record, and no ',' or '|', which separate
+     * fields and skills.
+     */
+    public static boolean isStorable(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '|' || Character.isISOControl(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Location matching is case-insensitive; this is the form codes are assigned to. */
+    public static String normalizeLocation(String location) {
+        return location.toLowerCase(Locale.ROOT);
+    }
+
+    public static int skillCode(String skill) {
+        Integer code = skillCodes.get(skill);
+        return code != null ? code : assignSkill(skill);
+    }
+
+    /** Returns the code for a skill already in use, or -1 if no worker has ever had it. */
+    public static int findSkill(String skill) {
+        Integer code = skill == null ? null : skillCodes.get(skill);
+        return code != null ? code : -1;
+    }
+
+    public static String skill(int code) {
+        return skills[code];
+    }
+
+    public static int locationCode(String location) {
+        String normalized = normalizeLocation(location);
+        Integer code = locationCodes.get(normalized);
+        return code != null ? code : assignLocation(normalized);
+    }
+
+    /** Returns the code for a location already in use, or -1 if no one has ever been there. */
+    public static int findLocation(String location) {
+        Integer code = location == null ? null : locationCodes.get(normalizeLocation(location));
+        return code != null ? code : -1;
+    }
+
+    /** Shares one instance per distinct location spelling across all people. */
+    static String internLocation(String location) {
+        String shared = locationSpellings.putIfAbsent(location, location);
+        return shared != null ? shared : location;
+    }
+
+    private static synchronized int assignSkill(String skill) {
+        Integer code = skillCodes.get(skill);
+        if (code != null) {
+            return code;
+        }
+        String[] table = skills;
+        if (skillCount == table.length) {
+            table = Arrays.copyOf(table, table.length * 2);
+        }
+        table[skillCount] = skill;
+        skills = table;
+        skillCodes.put(skill, skillCount);
+        return skillCount++;
+    }
+
+    private static synchronized int assignLocation(String normalized) {
+        Integer code = locationCodes.get(normalized);
+        if (code != null) {
+            return code;
+        }
+        locationCodes.put(normalized, locationCount);
+        return locationCount++;
+    }
+}
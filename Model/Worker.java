@@ -1,26 +1,95 @@
 package farmhelp.model;
 
-import farmhelp.exception.WorkerException;
+import java.util.AbstractList;
 import java.util.List;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.RandomAccess;
 
 public class Worker extends Person {
-    private List<String> skills;
-    private boolean isAvailable;
+    // Skills are kept as dictionary codes in their original order, plus a bitmask for matching.
+    // Codes past 63 spill into wideSkillMask, which stays null for the common case.
+    // The names are kept until registration interns them; before that, skills the
+    // vocabulary has never seen have code -1.
+    private String[] skillNames;
+    private int[] skillCodes;
+    private long skillMask;
+    private long[] wideSkillMask;
+    private final List<String> skills = new SkillList();
+    private volatile boolean isAvailable;
+    // Bookings for requests with a work window. Replaced, never modified, under this worker's monitor.
+    private volatile AvailabilityCalendar calendar = AvailabilityCalendar.EMPTY;
+    private AvailabilityListener availabilityListener;
+    // Set on copies made for read-only views, which many readers share.
+    private final boolean readOnly;
 
-    public Worker(String name, String location, List<String> skills) throws WorkerException {
-        super(name, location);
-        this.skills = new ArrayList<>(skills);
-        this.isAvailable = true;
-        if (!validate()) {
-            throw new WorkerException("Invalid worker data");
-        }
+    /** Notified whenever a worker's availability flips, so indexes can follow along. */
+    public interface AvailabilityListener {
+        void availabilityChanged(Worker worker, boolean available);
     }
 
     public Worker(int id, String name, String location, List<String> skills, boolean isAvailable) {
         super(id, name, location);
-        this.skills = new ArrayList<>(skills);
+        setSkills(skills);
         this.isAvailable = isAvailable;
+        this.readOnly = false;
+    }
+
+    /**
+     * A read-only copy of {@code source} as it is now, for views shared between readers:
+     * it shares the skill codes and the calendar, which are never modified in place, and
+     * its mutators throw {@link UnsupportedOperationException}. Takes no lock, so
+     * availability and bookings are each current but not read as a pair.
+     */
+    public Worker(Worker source) {
+        super(source);
+        this.skillNames = source.skillNames;
+        this.skillCodes = source.skillCodes;
+        this.skillMask = source.skillMask;
+        this.wideSkillMask = source.wideSkillMask;
+        this.isAvailable = source.isAvailable;
+        this.calendar = source.calendar;
+        this.readOnly = true;
+    }
+
+    private void setSkills(List<String> skills) {
+        skillNames = skills == null ? new String[0] : skills.toArray(new String[0]);
+        encodeSkills(false);
+    }
+
+    private void encodeSkills(boolean intern) {
+        int[] codes = new int[skillNames.length];
+        long mask = 0;
+        long[] wide = null;
+        for (int i = 0; i < codes.length; i++) {
+            String skill = skillNames[i];
+            int code = skill == null ? -1 : intern ? Vocabulary.skillCode(skill) : Vocabulary.findSkill(skill);
+            codes[i] = code;
+            if (code < 0) {
+                continue;
+            }
+            if (code < 64) {
+                mask |= 1L << code;
+            } else {
+                int word = code / 64 - 1;
+                if (wide == null || wide.length <= word) {
+                    wide = wide == null ? new long[word + 1] : Arrays.copyOf(wide, word + 1);
+                }
+                wide[word] |= 1L << (code % 64);
+            }
+        }
+        skillCodes = codes;
+        skillMask = mask;
+        wideSkillMask = wide;
+    }
+
+    /** Also interns the skills, which until now were only looked up. */
+    @Override
+    public void markRegistered() {
+        if (skillNames != null) {
+            encodeSkills(true);
+            skillNames = null;
+        }
+        super.markRegistered();
     }
 
     @Override
@@ -29,21 +98,150 @@ public class Worker extends Person {
         System.out.println("ID: " + id);
         System.out.println("Name: " + name);
         System.out.println("Location: " + location);
-        System.out.println("Skills: " + String.join(", ", skills));
+        System.out.println("Skills: " + String.join(", ", getSkills()));
     }
 
     @Override
     public boolean validate() {
-        return name != null && !name.trim().isEmpty() &&
-                location != null && !location.trim().isEmpty() &&
-                skills != null && !skills.isEmpty();
+        if (!Vocabulary.isStorable(name) || !Vocabulary.isStorable(location) || skillCodes.length == 0 || !coordinatesValid()) {
+            return false;
+        }
+        for (String skill : skills) {
+            if (!Vocabulary.isStorable(skill)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public boolean hasSkill(String skill) {
-        return skills.contains(skill);
+        return hasSkill(Vocabulary.findSkill(skill));
     }
 
-    public List<String> getSkills() { return new ArrayList<>(skills); }
+    /** Negative codes, which {@link Vocabulary#findSkill} returns for unknown skills, never match. */
+    public boolean hasSkill(int skillCode) {
+        if (skillCode < 0) {
+            return false;
+        }
+        if (skillCode < 64) {
+            return (skillMask & (1L << skillCode)) != 0;
+        }
+        int word = skillCode / 64 - 1;
+        return wideSkillMask != null && word < wideSkillMask.length
+                && (wideSkillMask[word] & (1L << (skillCode % 64))) != 0;
+    }
+
+    /** Read-only view decoding the skill codes on access, or the names as given before registration. */
+    public List<String> getSkills() {
+        return skills;
+    }
+
+    public int getSkillCount() { return skillCodes.length; }
+    public int getSkillCode(int index) { return skillCodes[index]; }
     public boolean isAvailable() { return isAvailable; }
-    public void setAvailable(boolean available) { this.isAvailable = available; }
+
+    public synchronized void setAvailable(boolean available) {
+        checkWritable();
+        if (this.isAvailable == available) {
+            return;
+        }
+        this.isAvailable = available;
+        if (availabilityListener != null) {
+            availabilityListener.availabilityChanged(this, available);
+        }
+    }
+
+    /**
+     * Atomically books an available worker until further notice; returns false if someone
+     * else got there first or the worker has a booking that has not ended yet.
+     */
+    public synchronized boolean reserve() {
+        if (!isFree(System.currentTimeMillis(), Long.MAX_VALUE)) {
+            return false;
+        }
+        setAvailable(false);
+        return true;
+    }
+
+    /**
+     * True if the worker is not held until further notice and has no booking overlapping
+     * {@code [start, end)}, in epoch milliseconds.
+     */
+    public boolean isFree(long start, long end) {
+        return isAvailable && calendar.isFree(start, end);
+    }
+
+    /**
+     * Atomically books {@code [start, end)} if the worker is free for all of it. Unlike
+     * {@link #reserve()} this leaves the worker available for other windows.
+     */
+    public synchronized boolean book(long start, long end) {
+        return isAvailable && restoreBooking(start, end);
+    }
+
+    /** Adds a saved booking without checking availability; returns false if it overlaps another booking. */
+    public synchronized boolean restoreBooking(long start, long end) {
+        checkWritable();
+        AvailabilityCalendar updated = calendar.with(start, end);
+        if (updated == null) {
+            return false;
+        }
+        calendar = updated;
+        return true;
+    }
+
+    /** Removes the booking for exactly {@code [start, end)}; returns false if there is none. */
+    public synchronized boolean cancelBooking(long start, long end) {
+        checkWritable();
+        AvailabilityCalendar updated = calendar.without(start, end);
+        if (updated == null) {
+            return false;
+        }
+        calendar = updated;
+        return true;
+    }
+
+    public int getBookingCount() {
+        return calendar.size();
+    }
+
+    /** End of the last booking, or 0 if there is none; bookings never keep the worker busy after it. */
+    public long getBookedUntil() {
+        AvailabilityCalendar bookings = calendar;
+        return bookings.size() == 0 ? 0 : bookings.getEnd(bookings.size() - 1);
+    }
+
+    /** Bookings as {start, end} pairs, earliest first; a copy, so it may be kept. */
+    public long[][] getBookings() {
+        AvailabilityCalendar bookings = calendar;
+        long[][] result = new long[bookings.size()][];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new long[]{bookings.getStart(i), bookings.getEnd(i)};
+        }
+        return result;
+    }
+
+    public void setAvailabilityListener(AvailabilityListener listener) {
+        checkWritable();
+        this.availabilityListener = listener;
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Read-only copy of worker " + id);
+        }
+    }
+
+    private final class SkillList extends AbstractList<String> implements RandomAccess {
+        @Override
+        public String get(int index) {
+            String[] names = skillNames;
+            return names != null ? names[index] : Vocabulary.skill(skillCodes[index]);
+        }
+
+        @Override
+        public int size() {
+            return skillCodes.length;
+        }
+    }
 }
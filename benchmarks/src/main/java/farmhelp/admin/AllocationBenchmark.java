@@ -0,0 +1,93 @@
+package farmhelp.admin;
+
+import farmhelp.model.Request;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full allocation run over a freshly loaded backlog. Each iteration reloads
+ * the generated files, since allocation consumes the worker pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class AllocationBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    int workers;
+
+    @Param({"UNIFORM", "HOT_LOCATIONS", "SINGLE_LOCATION"})
+    BenchmarkData.Distribution distribution;
+
+    Admin admin;
+    List<Request> backlog;
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        BenchmarkData.write(workers, distribution, 42);
+    }
+
+    @Setup(Level.Iteration)
+    public void load() {
+        BenchmarkData.reset();
+        admin = new Admin(false, Integer.MAX_VALUE);
+        backlog = new ArrayList<>(admin.getRequests().values());
+        backlog.sort(Comparator.comparingDouble(r -> admin.getFarmers().get(r.getFarmerId()).getIncome()));
+    }
+
+    @Benchmark
+    public AllocationResult allocateWorkers() throws Exception {
+        return admin.allocateWorkers();
+    }
+
+    /** The sequential run plus rendering its full text report, to show what the report costs on top. */
+    @Benchmark
+    public void allocateWorkersWithReport(Blackhole bh) throws Exception {
+        Writer sink = new Writer() {
+            @Override
+            public void write(char[] chars, int offset, int length) {
+                bh.consume(chars);
+            }
+
+            @Override
+            public void write(String text) {
+                bh.consume(text);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        admin.allocateWorkers().writeReport(sink);
+    }
+
+    @Benchmark
+    public AllocationResult allocateWorkersParallel() {
+        return admin.allocateWorkersParallel();
+    }
+
+    @Benchmark
+    public AllocationResult allocateWorkersOptimal() {
+        return admin.allocateWorkersOptimal();
+    }
+
+    /** Every pending request through processRequest once, lowest income first. */
+    @Benchmark
+    public void processRequest(Blackhole bh) {
+        for (Request request : backlog) {
+            bh.consume(admin.processRequest(request));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package farmhelp.admin;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Writes seeded farmers.txt, workers.txt and requests.txt in Admin's text format
+ * so benchmarks start from the same state every trial.
+ */
+public final class BenchmarkData {
+    public enum Distribution {
+        /** Workers and farmers spread evenly over all locations. */
+        UNIFORM,
+        /** 80% of everyone in a handful of busy districts. */
+        HOT_LOCATIONS,
+        /** Everyone in one district: the worst case for per-location partitioning. */
+        SINGLE_LOCATION
+    }
+
+    static final String[] SKILLS = {"Harvesting", "Ploughing", "Irrigation", "Seeding", "Weeding", "Spraying"};
+    static final String[] CROPS = {"Rice", "Wheat", "Sugarcane", "Cotton", "Millet"};
+    private static final int LOCATIONS = 100;
+    private static final int HOT = 5;
+
+    private BenchmarkData() {
+    }
+
+    /** One farmer per four workers and one pending request per two farmers. */
+    static void write(int workers, Distribution distribution, long seed) throws IOException {
+        write(workers, Math.max(1, workers / 8), distribution, seed);
+    }
+
+    static void write(int workers, int requests, Distribution distribution, long seed) throws IOException {
+        Random random = new Random(seed);
+        int farmers = Math.max(1, workers / 4);
+        double[] landSizes = new double[farmers];
+
+        try (PrintWriter w = new PrintWriter(new BufferedWriter(new FileWriter("farmers.txt")))) {
+            for (int i = 0; i < farmers; i++) {
+                landSizes[i] = 0.5 + random.nextInt(10) * 0.5;
+                w.println((i + 1) + ",Farmer" + (i + 1) + "," + location(random, distribution) + "," +
+                        CROPS[random.nextInt(CROPS.length)] + "," + landSizes[i] + "," +
+                        (double) (10000 + random.nextInt(190000)));
+            }
+        }
+        try (PrintWriter w = new PrintWriter(new BufferedWriter(new FileWriter("workers.txt")))) {
+            for (int i = 0; i < workers; i++) {
+                int id = farmers + i + 1;
+                w.println(id + ",Worker" + id + "," + location(random, distribution) + "," +
+                        String.join("|", skills(random)) + ",true");
+            }
+        }
+        long now = System.currentTimeMillis();
+        try (PrintWriter w = new PrintWriter(new BufferedWriter(new FileWriter("requests.txt")))) {
+            for (int i = 0; i < requests; i++) {
+                int farmer = random.nextInt(farmers);
+                int max = Math.max(1, (int) (landSizes[farmer] * 2));
+                w.println((i + 1) + "," + (farmer + 1) + "," + SKILLS[random.nextInt(SKILLS.length)] + "," +
+                        (1 + random.nextInt(max)) + "," + (now - random.nextInt(86_400_000)));
+            }
+        }
+        reset();
+    }
+
+    /** Drops journal and allocation state so the next Admin starts from the generated files alone. */
+    static void reset() {
+        new File(Admin.JOURNAL_FILE).delete();
+        new File("allocations.txt").delete();
+        new File(Admin.SNAPSHOT_FILE).delete();
+    }
+
+    private static String location(Random random, Distribution distribution) {
+        switch (distribution) {
+            case HOT_LOCATIONS:
+                return "District-" + (random.nextInt(10) < 8 ? random.nextInt(HOT) : random.nextInt(LOCATIONS));
+            case SINGLE_LOCATION:
+                return "District-0";
+            default:
+                return "District-" + random.nextInt(LOCATIONS);
+        }
+    }
+
+    private static List<String> skills(Random random) {
+        List<String> all = new ArrayList<>(Arrays.asList(SKILLS));
+        Collections.shuffle(all, random);
+        return all.subList(0, 1 + random.nextInt(3));
+    }
+}
@@ -0,0 +1,71 @@
+package farmhelp.admin;
+
+import farmhelp.model.AvailabilityCalendar;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Free for the whole window" on one worker's calendar with a season of bookings, by
+ * binary search on {@link AvailabilityCalendar} against checking every booking in turn.
+ * Bookings are one to three days long with gaps between them; query windows are drawn
+ * from a fixed sequence over the same season so runs compare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingBenchmark {
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final int QUERIES = 1024;
+
+    @Param({"16", "256", "4096"})
+    int bookings;
+
+    AvailabilityCalendar calendar;
+    long[] starts;
+    long[] ends;
+    long[] queryStarts = new long[QUERIES];
+    long[] queryEnds = new long[QUERIES];
+    int next;
+
+    @Setup(Level.Trial)
+    public void build() {
+        Random random = new Random(42);
+        calendar = AvailabilityCalendar.EMPTY;
+        starts = new long[bookings];
+        ends = new long[bookings];
+        long time = 0;
+        for (int i = 0; i < bookings; i++) {
+            time += (1 + random.nextInt(3)) * DAY;
+            starts[i] = time;
+            time += (1 + random.nextInt(3)) * DAY;
+            ends[i] = time;
+            calendar = calendar.with(starts[i], ends[i]);
+        }
+        for (int q = 0; q < QUERIES; q++) {
+            queryStarts[q] = (long) (random.nextDouble() * time);
+            queryEnds[q] = queryStarts[q] + (1 + random.nextInt(2)) * DAY;
+        }
+    }
+
+    @Benchmark
+    public boolean calendar() {
+        int q = next++ & (QUERIES - 1);
+        return calendar.isFree(queryStarts[q], queryEnds[q]);
+    }
+
+    @Benchmark
+    public boolean scan() {
+        int q = next++ & (QUERIES - 1);
+        for (int i = 0; i < bookings; i++) {
+            if (starts[i] < queryEnds[q] && ends[i] > queryStarts[q]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,96 @@
+package farmhelp.admin;
+
+import farmhelp.model.Vocabulary;
+import farmhelp.model.Worker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Candidate search in one location and skill bucket during a peak week that {@code booked}
+ * percent of its workers are booked for, each with a season of other bookings around it.
+ * Requests for the peak week and open-ended holds are the ones the bucket can mostly not
+ * serve; {@link WorkerIndex#findFree} is measured against walking the bucket and testing
+ * every worker, which is what it does when it has nothing remembered. The bucket does not
+ * change between searches, as during an allocation pass over requests it cannot serve.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CandidateSearchBenchmark {
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final long PEAK = 100 * DAY;
+
+    @Param({"1000", "100000"})
+    int workers;
+
+    @Param({"90", "100"})
+    int booked;
+
+    @Param({"5"})
+    int limit;
+
+    WorkerIndex index;
+    int location;
+    int skill;
+
+    @Setup(Level.Trial)
+    public void build() {
+        Random random = new Random(42);
+        index = new WorkerIndex();
+        location = Vocabulary.locationCode("Candidate search");
+        skill = Vocabulary.skillCode("Harvesting");
+        for (int i = 0; i < workers; i++) {
+            Worker worker = new Worker(i + 1, "Worker" + i, "Candidate search", List.of("Harvesting"), true);
+            // A day to three every week of the season, clear of the peak week.
+            for (long day = 0; day < 200; day += 7) {
+                if (day + 3 < PEAK / DAY || day >= PEAK / DAY + 7) {
+                    worker.book(day * DAY, (day + 1 + random.nextInt(3)) * DAY);
+                }
+            }
+            if (random.nextInt(100) < booked) {
+                worker.book(PEAK, PEAK + 7 * DAY);
+            }
+            index.add(worker);
+        }
+    }
+
+    @Benchmark
+    public List<Worker> peakWeek() {
+        return index.findFree(location, skill, limit, PEAK, PEAK + 7 * DAY);
+    }
+
+    @Benchmark
+    public List<Worker> peakWeekWalk() {
+        return walk(PEAK, PEAK + 7 * DAY);
+    }
+
+    @Benchmark
+    public List<Worker> openEnded() {
+        return index.findFree(location, skill, limit, 50 * DAY, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<Worker> openEndedWalk() {
+        return walk(50 * DAY, Long.MAX_VALUE);
+    }
+
+    private List<Worker> walk(long start, long end) {
+        List<Worker> result = new ArrayList<>();
+        for (Worker worker : index.available(location, skill)) {
+            if (result.size() == limit) {
+                break;
+            }
+            if (worker.isFree(start, end)) {
+                result.add(worker);
+            }
+        }
+        return result;
+    }
+}
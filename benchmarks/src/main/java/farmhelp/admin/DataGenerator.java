@@ -0,0 +1,291 @@
+package farmhelp.admin;
+
+import farmhelp.model.Farmer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Writes farmers.txt, workers.txt and requests.txt in Admin's text format at production
+ * size. Where {@link BenchmarkData} only needs something repeatable, this aims to look like
+ * the field: incomes and land sizes are log-normal (many smallholders, a long tail of larger
+ * farms), locations can be Zipf-skewed or have a few hot districts, skills follow weights,
+ * and people can be given coordinates scattered around their district's centre.
+ * <p>
+ * Everything is drawn from one seeded generator, so the same settings always produce the
+ * same files. Usage: {@code DataGenerator <dir> [key=value ...]} with the keys listed in
+ * {@link #set(String, String)}.
+ */
+public final class DataGenerator {
+    public enum LocationSkew {
+        /** Every location equally likely. */
+        UNIFORM,
+        /** Location k (from 1) drawn with weight 1 / k^zipfExponent. */
+        ZIPF,
+        /** {@code hotShare} of everyone in the first {@code hotLocations}, the rest spread evenly. */
+        HOT
+    }
+
+    private static final String[] DISTRICTS = {
+            "Chennai", "Coimbatore", "Madurai", "Tiruchirappalli", "Salem", "Tirunelveli", "Erode", "Vellore",
+            "Thoothukudi", "Dindigul", "Thanjavur", "Ranipet", "Sivaganga", "Karur", "Namakkal", "Tiruvannamalai",
+            "Cuddalore", "Kanchipuram", "Villupuram", "Virudhunagar", "Nagapattinam", "Pudukkottai", "Ramanathapuram",
+            "Theni", "Krishnagiri", "Dharmapuri", "Perambalur", "Ariyalur", "Tiruvarur", "Nilgiris", "Kanyakumari",
+            "Tiruppur", "Tenkasi", "Kallakurichi", "Chengalpattu", "Tirupathur", "Mayiladuthurai", "Tiruvallur"};
+    private static final String[] FIRST_NAMES = {
+            "Anbu", "Ravi", "Priya", "Kumar", "Rajesh", "Suresh", "Mahesh", "Ganesh", "Lakshmi", "Meena", "Selvi",
+            "Murugan", "Karthik", "Divya", "Arun", "Kavitha", "Senthil", "Revathi", "Vijay", "Saranya", "Bala",
+            "Malar", "Prakash", "Deepa", "Ramesh", "Geetha", "Mani", "Sangeetha", "Siva", "Anitha"};
+    private static final String[] CROPS = {"Rice", "Sugarcane", "Cotton", "Groundnut", "Millet", "Banana", "Maize", "Pulses"};
+    private static final double[] CROP_WEIGHTS = {30, 12, 10, 12, 14, 8, 8, 6};
+
+    private int farmers = 250_000;
+    private int workers = 1_000_000;
+    private int requests = 125_000;
+    private int locations = 200;
+    private LocationSkew locationSkew = LocationSkew.ZIPF;
+    private double zipfExponent = 1.0;
+    private int hotLocations = 5;
+    private double hotShare = 0.8;
+    private final Map<String, Double> skillWeights = new LinkedHashMap<>();
+    private int maxSkillsPerWorker = 3;
+    private double medianIncome = 60_000;
+    private double incomeSpread = 0.7;
+    private double medianLandSize = 1.5;
+    private double landSpread = 0.8;
+    private int requestAgeDays = 7;
+    private boolean coordinates;
+    private double scatterKm = 15;
+    private long seed = 42;
+
+    public DataGenerator() {
+        skillWeights.put("Harvesting", 30.0);
+        skillWeights.put("Ploughing", 20.0);
+        skillWeights.put("Seeding", 15.0);
+        skillWeights.put("Weeding", 15.0);
+        skillWeights.put("Irrigation", 10.0);
+        skillWeights.put("Spraying", 10.0);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: DataGenerator <dir> [key=value ...]");
+            return;
+        }
+        DataGenerator generator = new DataGenerator();
+        for (int i = 1; i < args.length; i++) {
+            int eq = args[i].indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value: " + args[i]);
+            }
+            generator.set(args[i].substring(0, eq), args[i].substring(eq + 1));
+        }
+        File dir = new File(args[0]);
+        long start = System.nanoTime();
+        generator.write(dir);
+        System.out.println("Wrote " + generator.farmers + " farmers, " + generator.workers + " workers and "
+                + generator.requests + " requests to " + dir + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Applies one setting by name: farmers, workers, requests, locations, skew (uniform, zipf
+     * or hot), zipf, hotLocations, hotShare, skills (e.g. Harvesting:3,Ploughing:1), maxSkills,
+     * medianIncome, incomeSpread, medianLand, landSpread, requestAgeDays, coordinates,
+     * scatterKm and seed. Spreads are the sigma of the underlying normal distribution.
+     */
+    public void set(String key, String value) {
+        switch (key) {
+            case "farmers": farmers = Integer.parseInt(value); break;
+            case "workers": workers = Integer.parseInt(value); break;
+            case "requests": requests = Integer.parseInt(value); break;
+            case "locations": locations = Integer.parseInt(value); break;
+            case "skew": locationSkew = LocationSkew.valueOf(value.toUpperCase(Locale.ROOT)); break;
+            case "zipf": zipfExponent = Double.parseDouble(value); break;
+            case "hotLocations": hotLocations = Integer.parseInt(value); break;
+            case "hotShare": hotShare = Double.parseDouble(value); break;
+            case "skills": {
+                skillWeights.clear();
+                for (String entry : value.split(",")) {
+                    String[] parts = entry.split(":");
+                    skillWeights.put(parts[0], parts.length > 1 ? Double.parseDouble(parts[1]) : 1.0);
+                }
+                break;
+            }
+            case "maxSkills": maxSkillsPerWorker = Integer.parseInt(value); break;
+            case "medianIncome": medianIncome = Double.parseDouble(value); break;
+            case "incomeSpread": incomeSpread = Double.parseDouble(value); break;
+            case "medianLand": medianLandSize = Double.parseDouble(value); break;
+            case "landSpread": landSpread = Double.parseDouble(value); break;
+            case "requestAgeDays": requestAgeDays = Integer.parseInt(value); break;
+            case "coordinates": coordinates = Boolean.parseBoolean(value); break;
+            case "scatterKm": scatterKm = Double.parseDouble(value); break;
+            case "seed": seed = Long.parseLong(value); break;
+            default: throw new IllegalArgumentException("Unknown setting: " + key);
+        }
+    }
+
+    public int getFarmers() { return farmers; }
+    public int getWorkers() { return workers; }
+    public int getRequests() { return requests; }
+    public List<String> getSkills() { return new ArrayList<>(skillWeights.keySet()); }
+
+    /**
+     * Writes the three files into {@code dir} and removes any journal, snapshot or
+     * allocations file there, so an Admin opened on it starts from the generated data alone.
+     * Farmers get IDs 1..farmers, workers the IDs after them, requests 1..requests.
+     */
+    public void write(File dir) throws IOException {
+        if (farmers < 1 || workers < 0 || requests < 0 || locations < 1 || skillWeights.isEmpty()) {
+            throw new IllegalArgumentException("Need at least one farmer, location and skill");
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] locationNames = new String[locations];
+        double[][] centres = new double[locations][];
+        for (int i = 0; i < locations; i++) {
+            locationNames[i] = i < DISTRICTS.length ? DISTRICTS[i] : "Village-" + (i - DISTRICTS.length + 1);
+            // Tamil Nadu's rough bounding box.
+            centres[i] = new double[]{8.1 + random.nextDouble() * 5.0, 76.3 + random.nextDouble() * 3.9};
+        }
+        double[] locationCdf = locationCdf();
+        String[] skills = skillWeights.keySet().toArray(new String[0]);
+        double[] skillCdf = cdf(skillWeights.values().stream().mapToDouble(Double::doubleValue).toArray());
+        double[] cropCdf = cdf(CROP_WEIGHTS);
+
+        double[] landSizes = new double[farmers];
+        try (Writer w = open(new File(dir, "farmers.txt"))) {
+            StringBuilder line = new StringBuilder(128);
+            for (int i = 0; i < farmers; i++) {
+                int location = pick(locationCdf, random);
+                // Land in half-acre steps and income to the nearest hundred, as they would be recorded.
+                landSizes[i] = Math.max(0.5, Math.round(logNormal(random, medianLandSize, landSpread) * 2) / 2.0);
+                double income = Math.round(logNormal(random, medianIncome, incomeSpread) / 100) * 100.0;
+                line.setLength(0);
+                line.append(i + 1).append(',').append(name(random)).append(',').append(locationNames[location]).append(',')
+                        .append(CROPS[pick(cropCdf, random)]).append(',').append(landSizes[i]).append(',').append(income);
+                appendCoordinates(line, centres[location], random);
+                w.write(line.append('\n').toString());
+            }
+        }
+
+        try (Writer w = open(new File(dir, "workers.txt"))) {
+            StringBuilder line = new StringBuilder(128);
+            boolean[] chosen = new boolean[skills.length];
+            for (int i = 0; i < workers; i++) {
+                int location = pick(locationCdf, random);
+                line.setLength(0);
+                line.append(farmers + i + 1).append(',').append(name(random)).append(',').append(locationNames[location]).append(',');
+                Arrays.fill(chosen, false);
+                // Draws that repeat a skill are dropped, so common skills crowd out rare ones a little.
+                int count = 1 + random.nextInt(Math.min(maxSkillsPerWorker, skills.length));
+                boolean first = true;
+                for (int s = 0; s < count; s++) {
+                    int skill = pick(skillCdf, random);
+                    if (chosen[skill]) {
+                        continue;
+                    }
+                    chosen[skill] = true;
+                    if (!first) {
+                        line.append('|');
+                    }
+                    first = false;
+                    line.append(skills[skill]);
+                }
+                line.append(",true");
+                appendCoordinates(line, centres[location], random);
+                w.write(line.append('\n').toString());
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        long window = Math.max(1, requestAgeDays * 86_400_000L);
+        try (Writer w = open(new File(dir, "requests.txt"))) {
+            StringBuilder line = new StringBuilder(64);
+            for (int i = 0; i < requests; i++) {
+                int farmer = random.nextInt(farmers);
+                int max = Math.max(1, (int) (landSizes[farmer] * Farmer.WORKERS_PER_ACRE));
+                // Mostly small crews: the minimum of two draws leans towards 1.
+                int count = 1 + Math.min(random.nextInt(max), random.nextInt(max));
+                line.setLength(0);
+                line.append(i + 1).append(',').append(farmer + 1).append(',').append(skills[pick(skillCdf, random)]).append(',')
+                        .append(count).append(',').append(now - random.nextLong(window));
+                w.write(line.append('\n').toString());
+            }
+        }
+
+        new File(dir, Admin.JOURNAL_FILE).delete();
+        new File(dir, Admin.SNAPSHOT_FILE).delete();
+        new File(dir, "allocations.txt").delete();
+    }
+
+    private static Writer open(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private double[] locationCdf() {
+        double[] weights = new double[locations];
+        for (int i = 0; i < locations; i++) {
+            switch (locationSkew) {
+                case ZIPF:
+                    weights[i] = 1 / Math.pow(i + 1, zipfExponent);
+                    break;
+                case HOT: {
+                    int hot = Math.min(hotLocations, locations);
+                    weights[i] = i < hot ? hotShare / hot
+                            : (1 - hotShare) / Math.max(1, locations - hot);
+                    break;
+                }
+                default:
+                    weights[i] = 1;
+            }
+        }
+        return cdf(weights);
+    }
+
+    private static double[] cdf(double[] weights) {
+        double[] cdf = new double[weights.length];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cdf[i] = total;
+        }
+        for (int i = 0; i < cdf.length; i++) {
+            cdf[i] /= total;
+        }
+        return cdf;
+    }
+
+    private static int pick(double[] cdf, SplittableRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(cdf.length - 1, index >= 0 ? index : -index - 1);
+    }
+
+    private static double logNormal(SplittableRandom random, double median, double sigma) {
+        return median * Math.exp(sigma * gaussian(random));
+    }
+
+    // Box-Muller; SplittableRandom has no nextGaussian on Java 17.
+    private static double gaussian(SplittableRandom random) {
+        double u = 1 - random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static String name(SplittableRandom random) {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + (char) ('A' + random.nextInt(26)) + ".";
+    }
+
+    private void appendCoordinates(StringBuilder line, double[] centre, SplittableRandom random) {
+        if (!coordinates) {
+            return;
+        }
+        // Uniform over a disc of scatterKm around the district centre.
+        double distance = scatterKm * Math.sqrt(random.nextDouble());
+        double bearing = 2 * Math.PI * random.nextDouble();
+        double latitude = centre[0] + distance * Math.cos(bearing) / 111.195;
+        double longitude = centre[1] + distance * Math.sin(bearing) / (111.195 * Math.cos(Math.toRadians(centre[0])));
+        line.append(',').append(Math.round(latitude * 1e5) / 1e5).append(',').append(Math.round(longitude * 1e5) / 1e5);
+    }
+}
@@ -0,0 +1,39 @@
+package farmhelp.admin;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Runs the greedy and the optimal allocation engine over the same generated backlog
+ * and prints their summaries side by side, so fill rate can be compared as well as
+ * runtime. Usage: EngineComparison [workers [requests]]. The default is one million
+ * workers and a backlog that asks for more workers than there are, so the engines
+ * differ in how well they use scarce multi-skilled workers.
+ */
+public final class EngineComparison {
+    private EngineComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : workers / 2;
+        for (BenchmarkData.Distribution distribution : BenchmarkData.Distribution.values()) {
+            BenchmarkData.write(workers, requests, distribution, 42);
+            System.out.println("=== " + distribution + ", " + workers + " workers, " + requests + " requests ===");
+            System.out.println("-- allocateWorkersParallel --");
+            printSummary(new Admin(false, Integer.MAX_VALUE).allocateWorkersParallel());
+            BenchmarkData.reset();
+            System.out.println("-- allocateWorkersOptimal --");
+            printSummary(new Admin(false, Integer.MAX_VALUE).allocateWorkersOptimal());
+            BenchmarkData.reset();
+            System.out.println();
+        }
+    }
+
+    private static void printSummary(AllocationResult result) throws IOException {
+        PrintWriter out = new PrintWriter(System.out);
+        result.writeSummary(out);
+        out.println();
+        out.flush();
+    }
+}
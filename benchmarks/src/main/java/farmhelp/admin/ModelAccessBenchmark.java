@@ -0,0 +1,96 @@
+package farmhelp.admin;
+
+import farmhelp.model.Allocation;
+import farmhelp.model.Worker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths over the model classes as the save and allocation loops use them.
+ * Each copying variant repeats what the accessors used to do (a fresh ArrayList
+ * per call) next to the current one, so run with the GC profiler to see
+ * the allocation rate side by side:
+ * {@code gradle :benchmarks:jmh -PjmhArgs="ModelAccessBenchmark -prof gc"} and
+ * compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelAccessBenchmark {
+    @Param({"10000"})
+    int size;
+
+    Allocation[] allocations;
+    Worker[] workers;
+
+    @Setup(Level.Trial)
+    public void build() {
+        Random random = new Random(42);
+        List<String> skills = Arrays.asList("Harvesting", "Ploughing", "Sowing", "Irrigation", "Weeding");
+        allocations = new Allocation[size];
+        workers = new Worker[size];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < size; i++) {
+            int[] ids = new int[1 + random.nextInt(8)];
+            for (int w = 0; w < ids.length; w++) {
+                ids[w] = 1000 + random.nextInt(size);
+            }
+            allocations[i] = new Allocation(i + 1, i + 1, i + 1, ids, now, Allocation.ALLOCATED);
+            workers[i] = new Worker(i + 1, "Worker" + i, "Chennai", skills.subList(0, 1 + random.nextInt(skills.size())), true);
+            workers[i].markRegistered();
+        }
+    }
+
+    @Benchmark
+    public long workerIdsIndexed() {
+        long sum = 0;
+        for (Allocation allocation : allocations) {
+            for (int i = 0; i < allocation.getWorkerCount(); i++) {
+                sum += allocation.getWorkerId(i);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long workerIdsCopied() {
+        long sum = 0;
+        for (Allocation allocation : allocations) {
+            for (int id : new ArrayList<>(allocation.getWorkerIds())) {
+                sum += id;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int skillsView() {
+        int length = 0;
+        for (Worker worker : workers) {
+            List<String> skills = worker.getSkills();
+            for (int i = 0; i < skills.size(); i++) {
+                length += skills.get(i).length();
+            }
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int skillsCopied() {
+        int length = 0;
+        for (Worker worker : workers) {
+            for (String skill : new ArrayList<>(worker.getSkills())) {
+                length += skill.length();
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,80 @@
+package farmhelp.admin;
+
+import farmhelp.model.Vocabulary;
+import farmhelp.model.Worker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest-N lookups on the spatial index with workers spread over a region the size
+ * of a state (about 550 x 440 km), against a scan of every worker as a baseline.
+ * Query points, radii and skills are drawn from a fixed sequence so runs compare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class NearestWorkersBenchmark {
+    private static final String[] SKILLS = {"Harvesting", "Ploughing", "Sowing", "Irrigation", "Weeding"};
+    private static final int QUERIES = 1024;
+
+    @Param({"1000000"})
+    int workers;
+
+    @Param({"10"})
+    double radiusKm;
+
+    @Param({"5"})
+    int limit;
+
+    SpatialIndex index;
+    Worker[] all;
+    double[] latitudes = new double[QUERIES];
+    double[] longitudes = new double[QUERIES];
+    int[] skills = new int[QUERIES];
+    int next;
+
+    @Setup(Level.Trial)
+    public void build() {
+        Random random = new Random(42);
+        index = new SpatialIndex();
+        all = new Worker[workers];
+        for (int i = 0; i < workers; i++) {
+            Worker worker = new Worker(i + 1, "Worker" + i, "Loc" + random.nextInt(1000),
+                    List.of(SKILLS[random.nextInt(SKILLS.length)]), true);
+            worker.setCoordinates(8 + random.nextDouble() * 5, 76 + random.nextDouble() * 4);
+            worker.markRegistered();
+            index.add(worker);
+            all[i] = worker;
+        }
+        for (int q = 0; q < QUERIES; q++) {
+            latitudes[q] = 8 + random.nextDouble() * 5;
+            longitudes[q] = 76 + random.nextDouble() * 4;
+            skills[q] = Vocabulary.findSkill(SKILLS[random.nextInt(SKILLS.length)]);
+        }
+    }
+
+    @Benchmark
+    public List<Worker> gridIndex() {
+        int q = next++ & (QUERIES - 1);
+        return index.nearest(latitudes[q], longitudes[q], skills[q], radiusKm, limit, worker -> true);
+    }
+
+    @Benchmark
+    public int fullScan() {
+        int q = next++ & (QUERIES - 1);
+        int found = 0;
+        for (Worker worker : all) {
+            if (worker.hasSkill(skills[q])
+                    && SpatialIndex.distanceKm(latitudes[q], longitudes[q], worker.getLatitude(), worker.getLongitude()) <= radiusKm) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,87 @@
+package farmhelp.admin;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold load of the text files and a full rewrite of each one, taken after one
+ * allocation pass so allocations.txt has real content. The binary snapshot is
+ * kept under a side name so it never shadows the text files in loadAllData.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class PersistenceBenchmark {
+    static final File BINARY_SNAPSHOT = new File("bench-snapshot.bin");
+
+    @Param({"1000", "100000", "1000000"})
+    int workers;
+
+    @Param({"UNIFORM", "HOT_LOCATIONS", "SINGLE_LOCATION"})
+    BenchmarkData.Distribution distribution;
+
+    Admin admin;
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        BenchmarkData.write(workers, distribution, 42);
+        admin = new Admin(false, Integer.MAX_VALUE);
+        admin.allocateWorkers();
+        AdminSnapshot state = admin.snapshot();
+        admin.saveWorkersToFile(state);
+        admin.saveRequestsToFile(state);
+        admin.saveAllocationsToFile(state);
+        admin.saveBinarySnapshotFile(state);
+        Files.move(new File(Admin.SNAPSHOT_FILE).toPath(), BINARY_SNAPSHOT.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        dropJournal();
+    }
+
+    @TearDown(Level.Iteration)
+    public void dropJournal() {
+        new File(Admin.JOURNAL_FILE).delete();
+    }
+
+    @Benchmark
+    public Admin loadAllData() {
+        return new Admin(false, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public BinarySnapshot.Contents loadBinarySnapshot() throws IOException {
+        return BinarySnapshot.read(BINARY_SNAPSHOT);
+    }
+
+    @Benchmark
+    public void saveBinarySnapshot() throws IOException {
+        BinarySnapshot.write(BINARY_SNAPSHOT, admin.getFarmers().values(), admin.getWorkers().values(),
+                admin.getRequests().values(), admin.getAllocations().values());
+    }
+
+    @Benchmark
+    public void saveFarmersToFile() {
+        admin.saveFarmersToFile(admin.snapshot());
+    }
+
+    @Benchmark
+    public void saveWorkersToFile() {
+        admin.saveWorkersToFile(admin.snapshot());
+    }
+
+    @Benchmark
+    public void saveRequestsToFile() {
+        admin.saveRequestsToFile(admin.snapshot());
+    }
+
+    @Benchmark
+    public void saveAllocationsToFile() {
+        admin.saveAllocationsToFile(admin.snapshot());
+    }
+}
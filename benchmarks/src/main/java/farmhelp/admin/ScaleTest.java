@@ -0,0 +1,149 @@
+package farmhelp.admin;
+
+import farmhelp.exception.FarmerException;
+import farmhelp.exception.LandSizeViolationException;
+import farmhelp.model.Farmer;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.*;
+
+/**
+ * End-to-end run at production size: load the data files, create new requests one call
+ * at a time, allocate, then save. Each phase reports wall time, the heap still live after
+ * it (measured after a GC) and the peak heap seen while it ran.
+ * <p>
+ * Usage: {@code ScaleTest <dir> [key=value ...]}. Keys of its own are engine (greedy,
+ * parallel or optimal), newRequests, radiusKm and generate (true regenerates the files
+ * even if they exist); every other key goes to {@link DataGenerator#set}, which runs
+ * first when the directory has no farmers.txt yet.
+ */
+public final class ScaleTest {
+    private static final double MB = 1024 * 1024;
+
+    private ScaleTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: ScaleTest <dir> [key=value ...]");
+            return;
+        }
+        File dir = new File(args[0]);
+        DataGenerator generator = new DataGenerator();
+        String engine = "parallel";
+        int newRequests = -1;
+        double radiusKm = 0;
+        boolean generate = false;
+        for (int i = 1; i < args.length; i++) {
+            int eq = args[i].indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value: " + args[i]);
+            }
+            String key = args[i].substring(0, eq);
+            String value = args[i].substring(eq + 1);
+            switch (key) {
+                case "engine": engine = value; break;
+                case "newRequests": newRequests = Integer.parseInt(value); break;
+                case "radiusKm": radiusKm = Double.parseDouble(value); break;
+                case "generate": generate = Boolean.parseBoolean(value); break;
+                default: generator.set(key, value);
+            }
+        }
+        if (newRequests < 0) {
+            newRequests = generator.getRequests();
+        }
+
+        System.out.printf("%-10s %10s %12s %12s  %s%n", "phase", "ms", "live MB", "peak MB", "result");
+        if (generate || !new File(dir, "farmers.txt").exists()) {
+            Phase phase = Phase.start();
+            generator.write(dir);
+            phase.end("generate", generator.getFarmers() + " farmers, " + generator.getWorkers() + " workers, "
+                    + generator.getRequests() + " requests");
+        }
+
+        Phase phase = Phase.start();
+        Admin admin = new Admin(dir, IdRange.ALL, false, Integer.MAX_VALUE, false);
+        admin.setMatchingRadius(radiusKm);
+        phase.end("load", admin.getFarmers().size() + " farmers, " + admin.getWorkers().size() + " workers, "
+                + admin.getRequests().size() + " requests");
+
+        phase = Phase.start();
+        int created = createRequests(admin, generator.getSkills(), newRequests);
+        admin.flush();
+        phase.end("request", created + " created");
+
+        phase = Phase.start();
+        AllocationResult result;
+        switch (engine) {
+            case "greedy": result = admin.allocateWorkers(); break;
+            case "optimal": result = admin.allocateWorkersOptimal(); break;
+            default: result = admin.allocateWorkersParallel();
+        }
+        phase.end("allocate", engine + ", " + result.getSuccessful() + " of " + result.getAttempts() + " served, "
+                + String.format("fill rate %.1f%%", 100 * result.getFillRate()));
+        result = null;
+
+        phase = Phase.start();
+        admin.shutdown();
+        phase.end("save", "snapshot files written, journal emptied");
+    }
+
+    private static int createRequests(Admin admin, List<String> skills, int count) {
+        Farmer[] farmers = admin.getFarmers().values().toArray(new Farmer[0]);
+        SplittableRandom random = new SplittableRandom(7);
+        int created = 0;
+        for (int i = 0; i < count && farmers.length > 0; i++) {
+            Farmer farmer = farmers[random.nextInt(farmers.length)];
+            try {
+                admin.createWorkerRequest(farmer.getId(), skills.get(random.nextInt(skills.size())),
+                        1 + random.nextInt(Math.max(1, farmer.getMaxWorkersAllowed())));
+                created++;
+            } catch (FarmerException | LandSizeViolationException e) {
+                System.err.println("Request not created: " + e.getMessage());
+            }
+        }
+        return created;
+    }
+
+    /** Time and heap for one phase. Peak usage is reset at the start so it covers only this phase. */
+    private static final class Phase {
+        private final long startNanos;
+
+        private Phase() {
+            for (MemoryPoolMXBean pool : heapPools()) {
+                pool.resetPeakUsage();
+            }
+            startNanos = System.nanoTime();
+        }
+
+        static Phase start() {
+            System.gc();
+            return new Phase();
+        }
+
+        void end(String name, String result) {
+            long millis = (System.nanoTime() - startNanos) / 1_000_000;
+            // Summing per-pool peaks overstates a little, since pools peak at different moments.
+            long peak = 0;
+            for (MemoryPoolMXBean pool : heapPools()) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+            System.gc();
+            long live = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            System.out.printf("%-10s %10d %12.1f %12.1f  %s%n", name, millis, live / MB, peak / MB, result);
+        }
+
+        private static List<MemoryPoolMXBean> heapPools() {
+            List<MemoryPoolMXBean> pools = new ArrayList<>();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                    pools.add(pool);
+                }
+            }
+            return pools;
+        }
+    }
+}
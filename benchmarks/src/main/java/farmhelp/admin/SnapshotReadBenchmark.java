@@ -0,0 +1,100 @@
+package farmhelp.admin;
+
+import farmhelp.model.Allocation;
+import farmhelp.model.Farmer;
+import farmhelp.model.Request;
+import farmhelp.model.Worker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A full allocation run while background threads render a dashboard over and over:
+ * every farmer, worker, pending request and allocation of the latest snapshot. With 0
+ * readers this is the plain {@link AllocationBenchmark} run. Readers take no lock, so
+ * any difference is CPU and memory bandwidth they share with allocation, not waiting;
+ * run on more cores than readers to see the allocation itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class SnapshotReadBenchmark {
+    @Param({"100000"})
+    int workers;
+
+    @Param({"0", "2"})
+    int readers;
+
+    Admin admin;
+    final AtomicBoolean stop = new AtomicBoolean();
+    final AtomicLong renders = new AtomicLong();
+    volatile long sink;
+    final List<Thread> threads = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        BenchmarkData.write(workers, BenchmarkData.Distribution.UNIFORM, 42);
+    }
+
+    @Setup(Level.Iteration)
+    public void load() {
+        BenchmarkData.reset();
+        admin = new Admin(false, Integer.MAX_VALUE);
+        stop.set(false);
+        for (int i = 0; i < readers; i++) {
+            Thread thread = new Thread(() -> {
+                while (!stop.get()) {
+                    sink = render(admin.snapshot());
+                    renders.incrementAndGet();
+                }
+            }, "dashboard-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopReaders() throws InterruptedException {
+        stop.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        threads.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.println("dashboard renders: " + renders.get());
+    }
+
+    @Benchmark
+    public AllocationResult allocateWorkersParallel() {
+        return admin.allocateWorkersParallel();
+    }
+
+    /** What a dashboard table pass reads; the sum keeps the loops from being dropped. */
+    private static long render(AdminSnapshot snapshot) {
+        long sum = 0;
+        for (Farmer farmer : snapshot.getFarmers().values()) {
+            sum += farmer.getLocation().length();
+        }
+        for (Worker worker : snapshot.getWorkers().values()) {
+            sum += worker.isAvailable() ? worker.getSkillCount() : worker.getBookingCount();
+        }
+        for (Request request : snapshot.getRequests().values()) {
+            sum += request.getWorkersRequested();
+        }
+        for (Allocation allocation : snapshot.getAllocations().values()) {
+            sum += allocation.getWorkerCount();
+        }
+        return sum;
+    }
+}
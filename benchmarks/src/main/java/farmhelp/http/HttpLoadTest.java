@@ -0,0 +1,231 @@
+package farmhelp.http;
+
+import farmhelp.admin.Admin;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Starts the HTTP API on a free port over a fresh Admin in the working directory and
+ * drives it from many client threads, each playing a field device: register a farmer,
+ * then a few workers, then a worker request, with an occasional paged query. Prints
+ * throughput and latency percentiles per phase.
+ * Usage: HttpLoadTest [clients [seconds [batch]]]; with batch above 1 registrations
+ * are sent as arrays of that many records, to compare against one record per call.
+ */
+public final class HttpLoadTest {
+    private static final String[] LOCATIONS = {"Chennai", "Madurai", "Coimbatore", "Salem", "Trichy"};
+    private static final String[] SKILLS = {"Harvesting", "Ploughing", "Sowing", "Irrigation", "Weeding"};
+
+    private HttpLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int batch = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+        Admin admin = new Admin();
+        HttpApi api = new HttpApi(admin, 0);
+        api.start();
+        String base = "http://localhost:" + api.getPort();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        System.out.println("Load test: " + clients + " clients, " + seconds + " s, batch " + batch + ", " + base);
+
+        // Warm up the JIT on both sides before measuring.
+        run(client, base, clients, 5, batch, false);
+        Recorder recorder = run(client, base, clients, seconds, batch, true);
+        recorder.print(seconds);
+
+        api.stop(0);
+        admin.shutdown();
+    }
+
+    private static Recorder run(HttpClient client, String base, int clients, int seconds, int batch,
+                                boolean record) throws InterruptedException {
+        Recorder recorder = new Recorder(record ? clients : 0);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int c = 0; c < clients; c++) {
+            int clientIndex = c;
+            Thread thread = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        session(client, base, batch, recorder, clientIndex);
+                    }
+                } catch (Exception e) {
+                    System.err.println("Client " + clientIndex + " failed: " + e.getMessage());
+                } finally {
+                    done.countDown();
+                }
+            }, "load-" + c);
+            thread.start();
+        }
+        done.await();
+        return recorder;
+    }
+
+    private static void session(HttpClient client, String base, int batch, Recorder recorder, int clientIndex)
+            throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String location = LOCATIONS[random.nextInt(LOCATIONS.length)];
+
+        StringBuilder farmers = new StringBuilder(batch > 1 ? "[" : "");
+        for (int i = 0; i < batch; i++) {
+            if (i > 0) {
+                farmers.append(',');
+            }
+            farmers.append("{\"name\":\"F").append(random.nextInt(1_000_000)).append("\",\"location\":\"").append(location)
+                    .append("\",\"crop\":\"Rice\",\"landSize\":").append(1 + random.nextInt(5))
+                    .append(",\"income\":").append(10_000 + random.nextInt(90_000)).append('}');
+        }
+        String created = send(client, recorder, Phase.REGISTER_FARMER, clientIndex,
+                post(base + "/farmers", batch > 1 ? farmers.append(']').toString() : farmers.toString()));
+        int farmerId = firstId(created);
+
+        StringBuilder workers = new StringBuilder("[");
+        int workerCount = Math.max(3, batch);
+        for (int i = 0; i < workerCount; i++) {
+            if (i > 0) {
+                workers.append(',');
+            }
+            workers.append("{\"name\":\"W").append(random.nextInt(1_000_000)).append("\",\"location\":\"").append(location)
+                    .append("\",\"skills\":[\"").append(SKILLS[random.nextInt(SKILLS.length)]).append("\"]}");
+        }
+        if (batch > 1) {
+            send(client, recorder, Phase.REGISTER_WORKER, clientIndex, post(base + "/workers", workers.append(']').toString()));
+        } else {
+            for (String worker : workers.substring(1).split("(?<=\\]\\}),")) {
+                send(client, recorder, Phase.REGISTER_WORKER, clientIndex, post(base + "/workers", worker));
+            }
+        }
+
+        if (farmerId > 0) {
+            String request = "{\"farmerId\":" + farmerId + ",\"skill\":\"" + SKILLS[random.nextInt(SKILLS.length)]
+                    + "\",\"workers\":1}";
+            send(client, recorder, Phase.CREATE_REQUEST, clientIndex, post(base + "/requests", request));
+        }
+        if (random.nextInt(4) == 0) {
+            send(client, recorder, Phase.QUERY, clientIndex, HttpRequest.newBuilder(
+                    URI.create(base + "/requests?location=" + location + "&limit=20")).GET().build());
+        }
+    }
+
+    private static HttpRequest post(String uri, String body) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String send(HttpClient client, Recorder recorder, Phase phase, int clientIndex,
+                               HttpRequest request) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        recorder.record(phase, clientIndex, System.nanoTime() - start, response.statusCode() >= 400);
+        return response.body();
+    }
+
+    /** First ID in a reply to a registration, whether {"id":n} or {"accepted":[n,...]}; 0 if none. */
+    private static int firstId(String body) {
+        int i = 0;
+        while (i < body.length() && !Character.isDigit(body.charAt(i))) {
+            i++;
+        }
+        int id = 0;
+        while (i < body.length() && Character.isDigit(body.charAt(i))) {
+            id = id * 10 + (body.charAt(i++) - '0');
+        }
+        return id;
+    }
+
+    private enum Phase { REGISTER_FARMER, REGISTER_WORKER, CREATE_REQUEST, QUERY }
+
+    /** Per-client latency buffers, so recording never contends; merged once at the end. */
+    private static final class Recorder {
+        private final long[][][] latencies;
+        private final int[][] counts;
+        private final AtomicLong errors = new AtomicLong();
+
+        Recorder(int clients) {
+            int phases = Phase.values().length;
+            latencies = new long[clients][phases][];
+            counts = new int[clients][phases];
+            for (int c = 0; c < clients; c++) {
+                for (int p = 0; p < phases; p++) {
+                    latencies[c][p] = new long[1024];
+                }
+            }
+        }
+
+        void record(Phase phase, int clientIndex, long nanos, boolean error) {
+            if (error) {
+                errors.incrementAndGet();
+            }
+            if (clientIndex >= latencies.length) {
+                return;
+            }
+            long[] buffer = latencies[clientIndex][phase.ordinal()];
+            int count = counts[clientIndex][phase.ordinal()];
+            if (count == buffer.length) {
+                buffer = latencies[clientIndex][phase.ordinal()] = Arrays.copyOf(buffer, count * 2);
+            }
+            buffer[count] = nanos;
+            counts[clientIndex][phase.ordinal()] = count + 1;
+        }
+
+        void print(int seconds) {
+            long total = 0;
+            long[] all = new long[0];
+            System.out.printf("%-16s %10s %10s %10s %10s %10s%n", "phase", "calls", "calls/s", "p50 ms", "p99 ms", "max ms");
+            for (Phase phase : Phase.values()) {
+                long[] merged = merge(phase.ordinal());
+                total += merged.length;
+                all = concat(all, merged);
+                print(phase.name().toLowerCase(), merged, seconds);
+            }
+            print("all", all, seconds);
+            System.out.println("Errors: " + errors.get() + " of " + total + " calls");
+        }
+
+        private long[] merge(int phase) {
+            int size = 0;
+            for (int[] clientCounts : counts) {
+                size += clientCounts[phase];
+            }
+            long[] merged = new long[size];
+            int at = 0;
+            for (int c = 0; c < latencies.length; c++) {
+                System.arraycopy(latencies[c][phase], 0, merged, at, counts[c][phase]);
+                at += counts[c][phase];
+            }
+            return merged;
+        }
+
+        private static long[] concat(long[] a, long[] b) {
+            long[] both = Arrays.copyOf(a, a.length + b.length);
+            System.arraycopy(b, 0, both, a.length, b.length);
+            return both;
+        }
+
+        private static void print(String name, long[] nanos, int seconds) {
+            if (nanos.length == 0) {
+                return;
+            }
+            Arrays.sort(nanos);
+            System.out.printf("%-16s %10d %10.0f %10.2f %10.2f %10.2f%n", name, nanos.length, (double) nanos.length / seconds,
+                    percentile(nanos, 0.50), percentile(nanos, 0.99), nanos[nanos.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double fraction) {
+            int index = (int) Math.ceil(fraction * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
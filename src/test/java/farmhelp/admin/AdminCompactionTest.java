@@ -0,0 +1,74 @@
+package farmhelp.admin;
+
+import farmhelp.model.Farmer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AdminCompactionTest {
+    private static final int BACKLOG = 100_000;
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void mutationsRunWhileCompactionWritesALargeBacklog() throws Exception {
+        File dir = dataDir.toFile();
+        // A pipe in place of the farmers file's temporary copy holds compaction in the write
+        // until the test reads it, after the state and journal position are captured.
+        File pipe = new File(dir, "farmers.txt.tmp");
+        assumeTrue(mkfifo(pipe), "mkfifo not available");
+
+        Admin admin = new Admin(dir, IdRange.ALL, false, Integer.MAX_VALUE, false);
+        List<Farmer> drafts = new ArrayList<>();
+        for (int i = 0; i < BACKLOG; i++) {
+            drafts.add(new Farmer(0, "Farmer " + i, "Chennai", "Rice", 2, 10_000 + i));
+        }
+        assertEquals(BACKLOG, admin.registerFarmers(drafts).getAcceptedCount());
+
+        Thread compactor = new Thread(admin::compact);
+        compactor.start();
+        while (Arrays.stream(compactor.getStackTrace()).noneMatch(frame -> frame.getMethodName().equals("writeAtomically"))) {
+            assertTrue(compactor.isAlive(), "compaction ended before writing");
+            Thread.sleep(1);
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> admin.registerFarmer("Late", "Chennai", "Rice", 2, 5_000));
+        assertEquals(BACKLOG + 1, admin.getFarmers().size());
+        assertTrue(compactor.isAlive());
+
+        try (InputStream in = new FileInputStream(pipe)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        compactor.join();
+        Files.delete(pipe.toPath());
+        admin.shutdown();
+
+        Admin reloaded = new Admin(dir, IdRange.ALL, false, Integer.MAX_VALUE, false);
+        assertEquals(BACKLOG + 1, reloaded.getFarmers().size());
+        reloaded.shutdown();
+    }
+
+    private static boolean mkfifo(File file) throws InterruptedException {
+        try {
+            return new ProcessBuilder("mkfifo", file.getPath()).start().waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
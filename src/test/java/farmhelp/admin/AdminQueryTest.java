@@ -0,0 +1,30 @@
+package farmhelp.admin;
+
+import farmhelp.model.Worker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdminQueryTest {
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void nearestWorkersAreReadOnlyCopies() throws Exception {
+        Admin admin = new Admin(dataDir.toFile(), IdRange.ALL, false, Integer.MAX_VALUE, false);
+        try {
+            admin.registerWorker("Arun", "Chennai", List.of("Harvesting"), 13.08, 80.27);
+            List<Worker> nearest = admin.findNearestWorkers(13.08, 80.27, "Harvesting", 10, 5);
+            assertEquals(1, nearest.size());
+            Worker found = nearest.get(0);
+            assertThrows(UnsupportedOperationException.class, () -> found.setAvailable(false));
+            assertTrue(admin.getWorkers().get(found.getId()).isAvailable());
+        } finally {
+            admin.shutdown();
+        }
+    }
+}
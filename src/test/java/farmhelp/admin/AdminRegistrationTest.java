@@ -0,0 +1,45 @@
+package farmhelp.admin;
+
+import farmhelp.exception.FarmerException;
+import farmhelp.exception.WorkerException;
+import farmhelp.model.Request;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdminRegistrationTest {
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void rejectedRecordsDoNotUseUpIds() throws Exception {
+        Admin admin = new Admin(dataDir.toFile(), IdRange.ALL, false, Integer.MAX_VALUE, false);
+        try {
+            admin.registerFarmer("Ravi", "Chennai", "Rice", 5, 1000);
+            assertThrows(FarmerException.class, () -> admin.registerFarmer("", "Chennai", "Rice", 5, 1000));
+            assertThrows(FarmerException.class, () -> admin.registerFarmer("Meena", "Chennai", "Rice", 5, 1000, 91, 0));
+            assertThrows(WorkerException.class, () -> admin.registerWorker("Arun", "Chennai", List.of("Harvesting|Sowing")));
+            assertThrows(WorkerException.class, () -> admin.registerWorker("Arun", "Chennai", List.of()));
+            admin.registerWorker("Arun", "Chennai", List.of("Harvesting"));
+            List<Integer> people = new ArrayList<>(admin.getFarmers().keySet());
+            people.addAll(admin.getWorkers().keySet());
+            assertEquals(people.get(0) + 1, (int) people.get(1));
+
+            int farmerId = people.get(0);
+            admin.createWorkerRequest(farmerId, "Ploughing", 1, 0, 0);
+            assertThrows(IllegalArgumentException.class, () -> admin.createWorkerRequest(farmerId, "Ploughing", 1, 2_000, 1_000));
+            admin.createWorkerRequest(farmerId, "Sowing", 1, 0, 0);
+            List<Integer> requests = new ArrayList<>(admin.getRequests().keySet());
+            Collections.sort(requests);
+            assertEquals(requests.get(0) + 1, (int) requests.get(1));
+        } finally {
+            admin.shutdown();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package farmhelp.admin;
+
+import farmhelp.model.Allocation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationExpiryTest {
+    @Test
+    void bookedWorkIsNotExpiredBeforeItEndsWhenTheHoldGrows() throws Exception {
+        List<Allocation> expired = new CopyOnWriteArrayList<>();
+        AllocationExpiry expiry = new AllocationExpiry(expired::add);
+        long now = System.currentTimeMillis();
+        // Both allocated a while ago; the booked one is for work that has not ended yet.
+        Allocation booked = new Allocation(1, 1, 1, new int[]{1}, now - 1000, Allocation.ALLOCATED, now + 50, now + 100);
+        Allocation held = new Allocation(2, 2, 1, new int[]{2}, now - 1000, Allocation.ALLOCATED);
+        try {
+            expiry.setHoldTime(50, List.of(booked, held));
+            // When the first deadline comes up the hold has grown, and rechecked from the
+            // allocation time instead of the end of the work the booking would look overdue.
+            expiry.setHoldTime(400, List.of());
+            Thread.sleep(300);
+            assertEquals(List.of(held), expired);
+        } finally {
+            expiry.close();
+        }
+    }
+
+    @Test
+    void changingTheHoldTimeKeepsOneDeadlinePerAllocation() throws Exception {
+        List<Allocation> expired = new CopyOnWriteArrayList<>();
+        // The callback leaves the allocation active, so every queued deadline would fire.
+        AllocationExpiry expiry = new AllocationExpiry(expired::add);
+        Allocation held = new Allocation(1, 1, 1, new int[]{1}, System.currentTimeMillis(), Allocation.ALLOCATED);
+        try {
+            for (int hold = 100; hold < 105; hold++) {
+                expiry.setHoldTime(hold, List.of(held));
+            }
+            Thread.sleep(400);
+            assertEquals(List.of(held), expired);
+        } finally {
+            expiry.close();
+        }
+    }
+
+    @Test
+    void deadlineCountsFromTheEndOfBookedWork() {
+        Allocation booked = new Allocation(1, 1, 1, new int[]{1}, 1_000, Allocation.ALLOCATED, 5_000, 9_000);
+        Allocation held = new Allocation(2, 2, 1, new int[]{2}, 1_000, Allocation.ALLOCATED);
+        assertEquals(9_100, AllocationExpiry.dueAt(booked, 100));
+        assertEquals(1_100, AllocationExpiry.dueAt(held, 100));
+    }
+}
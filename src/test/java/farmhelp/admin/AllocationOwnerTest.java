@@ -0,0 +1,59 @@
+package farmhelp.admin;
+
+import farmhelp.exception.AllocationException;
+import farmhelp.model.Allocation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Closing an allocation handed out by Admin goes through Admin, whoever calls it. */
+class AllocationOwnerTest {
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void closingALiveAllocationFreesItsWorkers() throws Exception {
+        Admin admin = new Admin(dataDir.toFile(), IdRange.ALL, false, Integer.MAX_VALUE, false);
+        try {
+            admin.registerFarmer("Farmer", "Chennai", "Rice", 5, 1000);
+            admin.registerWorker("Worker", "Chennai", List.of("Harvesting"));
+            int farmerId = admin.getFarmers().keySet().iterator().next();
+            int workerId = admin.getWorkers().keySet().iterator().next();
+            admin.createWorkerRequest(farmerId, "Harvesting", 1);
+            admin.allocateWorkers();
+
+            Allocation allocation = admin.findActiveAllocation(workerId);
+            assertNotNull(allocation);
+            assertFalse(admin.getWorkers().get(workerId).isAvailable());
+
+            allocation.complete();
+            assertEquals(Allocation.COMPLETED, admin.getAllocations().get(allocation.getAllocationId()).getStatus());
+            assertTrue(admin.getWorkers().get(workerId).isAvailable());
+            assertNull(admin.findActiveAllocation(workerId));
+            assertThrows(AllocationException.class, allocation::cancel);
+            assertThrows(IllegalStateException.class, () -> allocation.closeAs((a, s) -> { }, Allocation.CANCELLED));
+        } finally {
+            admin.shutdown();
+        }
+    }
+
+    @Test
+    void snapshotCopiesCannotBeClosed() throws Exception {
+        Admin admin = new Admin(dataDir.toFile(), IdRange.ALL, false, Integer.MAX_VALUE, false);
+        try {
+            admin.registerFarmer("Farmer", "Chennai", "Rice", 5, 1000);
+            admin.registerWorker("Worker", "Chennai", List.of("Harvesting"));
+            admin.createWorkerRequest(admin.getFarmers().keySet().iterator().next(), "Harvesting", 1);
+            admin.allocateWorkers();
+
+            Allocation copy = admin.getAllocations().values().iterator().next();
+            assertThrows(UnsupportedOperationException.class, copy::release);
+        } finally {
+            admin.shutdown();
+        }
+    }
+}
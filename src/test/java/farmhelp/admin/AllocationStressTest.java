@@ -0,0 +1,178 @@
+package farmhelp.admin;
+
+import farmhelp.exception.AllocationException;
+import farmhelp.model.Allocation;
+import farmhelp.model.Worker;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many threads registering, requesting, allocating with every engine and closing
+ * allocations against one Admin at once. Whatever the interleaving, IDs must stay unique
+ * and no worker may be held by two active allocations or booked for overlapping windows,
+ * both in memory and after reloading from the journal.
+ */
+class AllocationStressTest {
+    private static final String[] LOCATIONS = {"Chennai", "Madurai", "Salem", "Erode"};
+    private static final String[] SKILLS = {"Harvesting", "Ploughing", "Sowing"};
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 400;
+
+    @TempDir
+    Path dataDir;
+
+    @ParameterizedTest(name = "incremental matching {0}")
+    @ValueSource(booleans = {false, true})
+    void concurrentCallersNeverDoubleBookAWorker(boolean incremental) throws Exception {
+        File dir = dataDir.toFile();
+        // A low threshold so compaction runs while everything else is going on.
+        Admin admin = new Admin(dir, IdRange.ALL, false, 300, false);
+        admin.setIncrementalMatching(incremental);
+        for (int i = 0; i < 20; i++) {
+            admin.registerFarmer("Seed farmer " + i, LOCATIONS[i % LOCATIONS.length], "Rice", 5, 1000 + i);
+        }
+        for (int i = 0; i < 40; i++) {
+            admin.registerWorker("Seed worker " + i, LOCATIONS[i % LOCATIONS.length], List.of(SKILLS[i % SKILLS.length]));
+        }
+
+        AtomicInteger farmersRegistered = new AtomicInteger(20);
+        AtomicInteger workersRegistered = new AtomicInteger(40);
+        AtomicInteger requestsCreated = new AtomicInteger();
+        long firstDay = System.currentTimeMillis() + DAY;
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            results.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                for (int op = 0; op < OPERATIONS_PER_THREAD; op++) {
+                    String location = LOCATIONS[random.nextInt(LOCATIONS.length)];
+                    String skill = SKILLS[random.nextInt(SKILLS.length)];
+                    switch (random.nextInt(8)) {
+                        case 0:
+                            admin.registerFarmer("Farmer", location, "Rice", 1 + random.nextInt(5), random.nextInt(5000));
+                            farmersRegistered.incrementAndGet();
+                            break;
+                        case 1:
+                            admin.registerWorker("Worker", location, List.of(skill));
+                            workersRegistered.incrementAndGet();
+                            break;
+                        case 2:
+                        case 3: {
+                            List<Integer> farmerIds = new ArrayList<>(admin.getFarmers().keySet());
+                            int farmerId = farmerIds.get(random.nextInt(farmerIds.size()));
+                            if (random.nextBoolean()) {
+                                admin.createWorkerRequest(farmerId, skill, 1 + random.nextInt(2));
+                            } else {
+                                long workStart = firstDay + random.nextInt(10) * DAY;
+                                admin.createWorkerRequest(farmerId, skill, 1 + random.nextInt(2),
+                                        workStart, workStart + (1 + random.nextInt(3)) * DAY);
+                            }
+                            requestsCreated.incrementAndGet();
+                            break;
+                        }
+                        case 4:
+                            admin.allocateWorkers();
+                            break;
+                        case 5:
+                            admin.allocateWorkersParallel();
+                            break;
+                        case 6:
+                            admin.allocateWorkersOptimal();
+                            break;
+                        default:
+                            for (Allocation allocation : admin.getAllocations().values()) {
+                                if (allocation.isActive() && random.nextInt(4) == 0) {
+                                    try {
+                                        admin.completeAllocation(allocation.getAllocationId());
+                                    } catch (AllocationException e) {
+                                        // Closed by another thread first.
+                                    }
+                                }
+                            }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+        admin.allocateWorkers();
+        admin.flush();
+
+        assertConsistent(admin.snapshot(), farmersRegistered.get(), workersRegistered.get(), requestsCreated.get());
+        admin.shutdown();
+
+        Admin reloaded = new Admin(dir, IdRange.ALL, false, 300, false);
+        try {
+            assertConsistent(reloaded.snapshot(), farmersRegistered.get(), workersRegistered.get(), requestsCreated.get());
+        } finally {
+            reloaded.shutdown();
+        }
+    }
+
+    private static void assertConsistent(AdminSnapshot snapshot, int farmers, int workers, int requests) {
+        // Records are keyed by ID, so a duplicate ID would show up as a missing record.
+        assertEquals(farmers, snapshot.getFarmers().size(), "farmer IDs unique");
+        assertEquals(workers, snapshot.getWorkers().size(), "worker IDs unique");
+        for (int id : snapshot.getFarmers().keySet()) {
+            assertFalse(snapshot.getWorkers().containsKey(id), "person ID " + id + " used for a farmer and a worker");
+        }
+
+        Set<Integer> servedRequests = new HashSet<>();
+        Map<Integer, Integer> heldBy = new HashMap<>();
+        Map<Integer, List<long[]>> windows = new HashMap<>();
+        for (Allocation allocation : snapshot.getAllocations().values()) {
+            assertTrue(servedRequests.add(allocation.getRequestId()),
+                    "request " + allocation.getRequestId() + " allocated twice");
+            assertFalse(snapshot.getRequests().containsKey(allocation.getRequestId()),
+                    "request " + allocation.getRequestId() + " both allocated and pending");
+            if (!allocation.isActive()) {
+                continue;
+            }
+            for (int i = 0; i < allocation.getWorkerCount(); i++) {
+                int workerId = allocation.getWorkerId(i);
+                Worker worker = snapshot.getWorkers().get(workerId);
+                assertNotNull(worker, "allocated worker " + workerId + " exists");
+                if (allocation.hasWorkWindow()) {
+                    windows.computeIfAbsent(workerId, id -> new ArrayList<>())
+                            .add(new long[]{allocation.getWorkStart(), allocation.getWorkEnd()});
+                } else {
+                    Integer previous = heldBy.put(workerId, allocation.getAllocationId());
+                    assertNull(previous, "worker " + workerId + " held by allocations " + previous
+                            + " and " + allocation.getAllocationId());
+                    assertFalse(worker.isAvailable(), "held worker " + workerId + " still available");
+                }
+            }
+        }
+        assertEquals(requests, servedRequests.size() + snapshot.getRequests().size(), "every request pending or served once");
+
+        for (Map.Entry<Integer, List<long[]>> entry : windows.entrySet()) {
+            int workerId = entry.getKey();
+            // Bookings are all in the future, so a worker held until further notice cannot have one.
+            assertFalse(heldBy.containsKey(workerId), "worker " + workerId + " both held and booked");
+            List<long[]> booked = entry.getValue();
+            booked.sort(Comparator.comparingLong(window -> window[0]));
+            for (int i = 1; i < booked.size(); i++) {
+                assertTrue(booked.get(i - 1)[1] <= booked.get(i)[0], "worker " + workerId + " booked for overlapping windows");
+            }
+            assertEquals(booked.size(), snapshot.getWorkers().get(workerId).getBookingCount(),
+                    "worker " + workerId + " calendar matches its active allocations");
+        }
+    }
+}
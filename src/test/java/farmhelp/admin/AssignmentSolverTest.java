@@ -0,0 +1,62 @@
+package farmhelp.admin;
+
+import farmhelp.model.Vocabulary;
+import farmhelp.model.Worker;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssignmentSolverTest {
+    private final Worker both = registered(new Worker(1, "Both", "Chennai", List.of("Harvesting", "Weeding"), true));
+    private final Worker harvester = registered(new Worker(2, "Harvester", "Chennai", List.of("Harvesting"), true));
+    private final Worker harvester2 = registered(new Worker(3, "Harvester 2", "Chennai", List.of("Harvesting"), true));
+    private final int harvesting = Vocabulary.findSkill("Harvesting");
+    private final int weeding = Vocabulary.findSkill("Weeding");
+
+    private static Worker registered(Worker worker) {
+        worker.markRegistered();
+        return worker;
+    }
+
+    @Test
+    void servesRequestsGreedyOrderWouldStarve() {
+        // Taking the lowest ID first would give the only weeder to the harvesting request.
+        List<List<Worker>> assignment = AssignmentSolver.solve(new int[]{harvesting, weeding}, new int[]{1, 1},
+                List.of(both, harvester));
+        assertEquals(List.of(harvester), assignment.get(0));
+        assertEquals(List.of(both), assignment.get(1));
+    }
+
+    @Test
+    void earlierRequestsKeepTheirShareWhenWorkersRunOut() {
+        List<List<Worker>> assignment = AssignmentSolver.solve(new int[]{harvesting, harvesting, weeding},
+                new int[]{2, 2, 1}, List.of(both, harvester, harvester2));
+        assertEquals(2, assignment.get(0).size());
+        // The one worker left goes to the second request, ahead of the weeding one.
+        assertEquals(1, assignment.get(1).size());
+        assertTrue(assignment.get(2).isEmpty());
+        assertNoWorkerTwice(assignment);
+    }
+
+    @Test
+    void unknownSkillAndZeroDemandGetNobody() {
+        List<List<Worker>> assignment = AssignmentSolver.solve(new int[]{-1, harvesting, harvesting},
+                new int[]{3, 0, 5}, List.of(both, harvester));
+        assertTrue(assignment.get(0).isEmpty());
+        assertTrue(assignment.get(1).isEmpty());
+        assertEquals(2, assignment.get(2).size());
+        assertNoWorkerTwice(assignment);
+    }
+
+    private static void assertNoWorkerTwice(List<List<Worker>> assignment) {
+        List<Worker> all = new ArrayList<>();
+        assignment.forEach(all::addAll);
+        Set<Worker> distinct = new HashSet<>(all);
+        assertEquals(all.size(), distinct.size());
+    }
+}
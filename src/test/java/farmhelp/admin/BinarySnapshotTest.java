@@ -0,0 +1,122 @@
+package farmhelp.admin;
+
+import farmhelp.model.Allocation;
+import farmhelp.model.Farmer;
+import farmhelp.model.Request;
+import farmhelp.model.Worker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripKeepsEveryField() throws IOException {
+        Farmer placed = new Farmer(1, "Ravi", "Chennai", "Rice", 2.5, 12_000);
+        placed.setCoordinates(13.08, 80.27);
+        Farmer unplaced = new Farmer(2, "Meena", "Madurai", "Cotton", 1, 8_000);
+        Worker worker = new Worker(3, "Arun", "Chennai", List.of("Harvesting", "Weeding"), false);
+        worker.setCoordinates(13.1, 80.2);
+        Request request = new Request(4, 1, "Harvesting", 2, 1_000, 5_000, 9_000);
+        Allocation allocation = new Allocation(5, 6, 2, new int[]{3, 7}, 2_000, Allocation.COMPLETED, 5_000, 9_000);
+
+        File file = new File(dir.toFile(), Admin.SNAPSHOT_FILE);
+        BinarySnapshot.write(file, List.of(placed, unplaced), List.of(worker), List.of(request), List.of(allocation));
+        BinarySnapshot.Contents contents = BinarySnapshot.read(file);
+
+        assertEquals(2, contents.farmers.size());
+        Farmer f = contents.farmers.get(0);
+        assertEquals(List.of(1, "Ravi", "Chennai", "Rice", 2.5, 12_000.0, 13.08, 80.27),
+                List.of(f.getId(), f.getName(), f.getLocation(), f.getCrop(), f.getLandSize(), f.getIncome(),
+                        f.getLatitude(), f.getLongitude()));
+        assertFalse(contents.farmers.get(1).hasCoordinates());
+
+        Worker w = contents.workers.get(0);
+        assertEquals(List.of(3, "Arun", "Chennai", List.of("Harvesting", "Weeding"), false, 13.1, 80.2),
+                List.of(w.getId(), w.getName(), w.getLocation(), w.getSkills(), w.isAvailable(), w.getLatitude(), w.getLongitude()));
+
+        Request r = contents.requests.get(0);
+        assertEquals(List.of(4, 1, "Harvesting", 2, 1_000L, 5_000L, 9_000L),
+                List.of(r.getRequestId(), r.getFarmerId(), r.getSkillRequired(), r.getWorkersRequested(),
+                        r.getRequestTime(), r.getWorkStart(), r.getWorkEnd()));
+
+        Allocation a = contents.allocations.get(0);
+        assertEquals(List.of(5, 6, 2, List.of(3, 7), 2_000L, Allocation.COMPLETED, 5_000L, 9_000L),
+                List.of(a.getAllocationId(), a.getRequestId(), a.getFarmerId(), a.getWorkerIds(), a.getAllocationTime(),
+                        a.getStatus(), a.getWorkStart(), a.getWorkEnd()));
+    }
+
+    @Test
+    void readsVersionOneWithoutCoordinatesOrWorkWindows() throws IOException {
+        File file = new File(dir.toFile(), Admin.SNAPSHOT_FILE);
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(BinarySnapshot.MAGIC);
+            out.writeInt(1);
+            String[] strings = {"Ravi", "Chennai", "Rice", "Harvesting", Allocation.ALLOCATED};
+            out.writeInt(strings.length);
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            // One farmer: id, name, location, crop, then land size and income.
+            writeInts(out, 1, 1, 0, 1, 2);
+            out.writeDouble(2);
+            out.writeDouble(9_000);
+            // One available worker with one skill.
+            writeInts(out, 1, 2, 0, 1);
+            out.writeByte(1);
+            writeInts(out, 0, 1, 1, 3);
+            // One request: id, farmer, skill, count, then its date.
+            writeInts(out, 1, 3, 1, 3, 1);
+            out.writeLong(1_000);
+            // One allocation: id, request, farmer, status, date, then its one worker.
+            writeInts(out, 1, 4, 3, 1, 4);
+            out.writeLong(2_000);
+            writeInts(out, 0, 1, 1, 2);
+        }
+
+        BinarySnapshot.Contents contents = BinarySnapshot.read(file);
+        assertFalse(contents.farmers.get(0).hasCoordinates());
+        assertEquals(9_000, contents.farmers.get(0).getIncome());
+        assertFalse(contents.workers.get(0).hasCoordinates());
+        assertTrue(contents.workers.get(0).hasSkill("Harvesting"));
+        assertFalse(contents.requests.get(0).hasWorkWindow());
+        assertEquals(List.of(2), contents.allocations.get(0).getWorkerIds());
+        assertFalse(contents.allocations.get(0).hasWorkWindow());
+        assertEquals(Allocation.ALLOCATED, contents.allocations.get(0).getStatus());
+    }
+
+    @Test
+    void rejectsOtherFilesAndNewerVersions() throws IOException {
+        File file = new File(dir.toFile(), Admin.SNAPSHOT_FILE);
+        writeHeader(file, 0x12345678, 1);
+        assertTrue(assertThrows(IOException.class, () -> BinarySnapshot.read(file)).getMessage().startsWith("Not a FarmHelp snapshot"));
+        writeHeader(file, BinarySnapshot.MAGIC, BinarySnapshot.VERSION + 1);
+        assertTrue(assertThrows(IOException.class, () -> BinarySnapshot.read(file)).getMessage().startsWith("Unsupported snapshot version"));
+    }
+
+    private static void writeHeader(File file, int magic, int version) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(magic);
+            out.writeInt(version);
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int... values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+}
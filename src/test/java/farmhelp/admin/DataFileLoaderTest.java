@@ -0,0 +1,114 @@
+package farmhelp.admin;
+
+import farmhelp.model.Farmer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Checks the chunked loader against what the line-by-line Scanner and String.split loader read. */
+class DataFileLoaderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void farmersMatchLineByLineSplitAcrossChunks() throws IOException {
+        StringBuilder text = new StringBuilder();
+        // Past the 8 MB chunk size, so lines straddle chunk boundaries.
+        for (int id = 1; text.length() < 9 * 1024 * 1024; id++) {
+            text.append(id).append(",Farmer ").append(id).append(",Chennai,Rice,").append(id % 7 + 0.5).append(',')
+                    .append(id * 10.0).append(id % 3 == 0 ? "\r\n" : "\n");
+            if (id % 1000 == 0) {
+                text.append("\n   \n  ").append(id).append(",Padded,Salem,Millet,1.0,2.0  \n")
+                        .append("7,Too,few,fields\n")
+                        .append(id).append(",Trailing,Madurai,Cotton,1.5,900.0,,\n");
+            }
+        }
+        File file = write("farmers.txt", text.toString());
+
+        List<String> expected = new ArrayList<>();
+        for (String line : Files.readAllLines(file.toPath())) {
+            String[] p = line.trim().split(",");
+            if (p.length == 6) {
+                expected.add(String.join("|", p[0], p[1], p[2], p[3],
+                        String.valueOf(Double.parseDouble(p[4])), String.valueOf(Double.parseDouble(p[5]))));
+            }
+        }
+        List<String> loaded = format(DataFileLoader.load(file, DataFileLoader::parseFarmer),
+                f -> String.join("|", String.valueOf(f.getId()), f.getName(), f.getLocation(), f.getCrop(),
+                        String.valueOf(f.getLandSize()), String.valueOf(f.getIncome())));
+        assertEquals(expected.size(), loaded.size());
+        assertEquals(expected, loaded);
+    }
+
+    @Test
+    void workersAndAllocationsMatchLineByLineSplit() throws IOException {
+        File workers = write("workers.txt", "1,Arun,Chennai,Harvesting|Weeding,true\n"
+                + "2,Bala,Salem,Harvesting,FALSE\r\n"
+                + "3,Chitra,Madurai,Weeding,yes\n"
+                + "4,Short,Madurai\n");
+        List<String> expectedWorkers = new ArrayList<>();
+        for (String line : Files.readAllLines(workers.toPath())) {
+            String[] p = line.trim().split(",");
+            if (p.length == 5) {
+                expectedWorkers.add(p[0] + "|" + p[1] + "|" + p[2] + "|" + Arrays.asList(p[3].split("\\|"))
+                        + "|" + Boolean.parseBoolean(p[4]));
+            }
+        }
+        assertEquals(expectedWorkers, format(DataFileLoader.load(workers, DataFileLoader::parseWorker),
+                w -> w.getId() + "|" + w.getName() + "|" + w.getLocation() + "|" + w.getSkills() + "|" + w.isAvailable()));
+
+        File allocations = write("allocations.txt", "1,10,100,5|6|7,1700000000000,ALLOCATED\n"
+                + "2,11,100,8,1700000000001,COMPLETED\n"
+                + "3,12,100,9,1700000000002\n");
+        List<String> expectedAllocations = new ArrayList<>();
+        for (String line : Files.readAllLines(allocations.toPath())) {
+            String[] p = line.trim().split(",");
+            if (p.length == 6) {
+                expectedAllocations.add(String.join("|", p[0], p[1], p[2], Arrays.asList(p[3].split("\\|")).toString(), p[4], p[5]));
+            }
+        }
+        assertEquals(expectedAllocations, format(DataFileLoader.load(allocations, DataFileLoader::parseAllocation),
+                a -> String.join("|", String.valueOf(a.getAllocationId()), String.valueOf(a.getRequestId()),
+                        String.valueOf(a.getFarmerId()), a.getWorkerIds().toString(), String.valueOf(a.getAllocationTime()),
+                        a.getStatus())));
+    }
+
+    @Test
+    void unreadableLinesAreSkippedAndMissingFilesAreEmpty() throws IOException {
+        File file = write("farmers.txt", "1,A,Chennai,Rice,2.0,10.0\nx,B,Chennai,Rice,2.0,10.0\n3,C,Chennai,Rice,2.0,10.0\n");
+        assertEquals(List.of(1, 3), format(DataFileLoader.load(file, DataFileLoader::parseFarmer), Farmer::getId));
+        assertTrue(DataFileLoader.load(new File(dir.toFile(), "none.txt"), DataFileLoader::parseWorker).isEmpty());
+    }
+
+    @Test
+    void fieldCountFollowsStringSplit() {
+        for (String line : List.of("a,b,c", "a,,b,,", "", ",,,", ",a", "a,", "1,2,3,4,5,,7")) {
+            assertEquals(line.split(",").length, new DataFileLoader.Fields(line, ',').count(), line);
+        }
+    }
+
+    private File write(String name, String text) throws IOException {
+        File file = new File(dir.toFile(), name);
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static <T, R> List<R> format(List<T> records, Function<T, R> format) {
+        List<R> result = new ArrayList<>(records.size());
+        for (T record : records) {
+            result.add(format.apply(record));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,36 @@
+package farmhelp.admin;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void truncateBeforeKeepsRecordsAppendedAfterTheMark() {
+        File file = new File(dataDir.toFile(), Admin.JOURNAL_FILE);
+        Journal journal = new Journal(file, false);
+        journal.open(0);
+        journal.append("F,1");
+        journal.append("F,2");
+        Journal.Mark mark = journal.mark();
+        // Appended while the snapshot files are being written.
+        journal.append("F,3");
+        journal.truncateBefore(mark);
+        journal.append("F,4");
+        assertEquals(2, journal.size());
+        journal.close();
+
+        List<String> replayed = new ArrayList<>();
+        assertEquals(2, new Journal(file, false).replay(replayed::add));
+        assertEquals(List.of("F,3", "F,4"), replayed);
+    }
+}
@@ -0,0 +1,82 @@
+package farmhelp.admin;
+
+import farmhelp.model.Farmer;
+import farmhelp.model.Request;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PendingQueueTest {
+    private static final String[] LOCATIONS = {"Chennai", "Salem", "Madurai"};
+    private static final String[] SKILLS = {"Harvesting", "Weeding", "Sowing"};
+
+    private final PendingQueue queue = new PendingQueue();
+
+    @Test
+    void drainAllMergesEveryQueueIntoAllocationOrder() {
+        Random random = new Random(42);
+        List<Request> added = new ArrayList<>();
+        List<Farmer> farmers = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            farmers.add(new Farmer(i + 1, "Farmer " + i, LOCATIONS[i % 3], "Rice", 2, random.nextInt(5) * 1000));
+        }
+        for (int id = 1; id <= 500; id++) {
+            Farmer farmer = farmers.get(random.nextInt(farmers.size()));
+            Request request = new Request(id, farmer.getId(), SKILLS[random.nextInt(3)], 1, random.nextInt(20));
+            queue.add(request, farmer);
+            added.add(request);
+        }
+        List<PendingQueue.Entry> drained = queue.drainAll();
+
+        // Lowest income first, then earliest request, then lowest ID, whatever the location or skill.
+        added.sort((a, b) -> {
+            double incomeA = farmers.get(a.getFarmerId() - 1).getIncome();
+            double incomeB = farmers.get(b.getFarmerId() - 1).getIncome();
+            int c = Double.compare(incomeA, incomeB);
+            if (c == 0) {
+                c = Long.compare(a.getRequestTime(), b.getRequestTime());
+            }
+            return c != 0 ? c : Integer.compare(a.getRequestId(), b.getRequestId());
+        });
+        List<Request> order = new ArrayList<>();
+        for (PendingQueue.Entry entry : drained) {
+            order.add(entry.request);
+        }
+        assertEquals(added, order);
+        assertTrue(queue.drainAll().isEmpty());
+        assertEquals(Map.of("chennai", 0, "salem", 0, "madurai", 0), queue.sizes());
+    }
+
+    @Test
+    void pollFirstTakesTheBestAcrossTheGivenSkills() {
+        Farmer poor = new Farmer(1, "Poor", "Chennai", "Rice", 2, 1_000);
+        Farmer rich = new Farmer(2, "Rich", "Chennai", "Rice", 2, 90_000);
+        Request late = new Request(1, 1, "Weeding", 1, 500);
+        Request early = new Request(2, 1, "Harvesting", 1, 100);
+        Request richer = new Request(3, 2, "Harvesting", 1, 1);
+        queue.add(richer, rich);
+        queue.add(late, poor);
+        queue.add(early, poor);
+
+        assertEquals(Map.of("chennai", 3), queue.sizes());
+        assertSame(early, queue.pollFirst("chennai", List.of("Harvesting", "Weeding")).request);
+        assertSame(richer, queue.pollFirst("chennai", List.of("Harvesting")).request);
+        assertNull(queue.pollFirst("chennai", List.of("Harvesting")));
+        assertNull(queue.pollFirst("salem", List.of("Weeding")));
+        assertSame(late, queue.pollFirst("chennai", Collections.singletonList("Weeding")).request);
+    }
+
+    @Test
+    void requestsOfUnknownFarmersQueueFirstUnderNoLocation() {
+        Request orphan = new Request(1, 99, "Harvesting", 1, 100);
+        queue.add(orphan, null);
+        queue.add(new Request(2, 1, "Harvesting", 1, 50), new Farmer(1, "A", "Chennai", "Rice", 2, 1));
+        assertSame(orphan, queue.drainAll().get(0).request);
+    }
+}
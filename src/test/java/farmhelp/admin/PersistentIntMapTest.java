@@ -0,0 +1,24 @@
+package farmhelp.admin;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentIntMapTest {
+    @Test
+    void doneRetiresTheEditor() {
+        PersistentIntMap.Editor<String> editor = PersistentIntMap.<String>empty().edit();
+        editor.put(1, "one");
+        PersistentIntMap<String> map = editor.done();
+
+        assertThrows(IllegalStateException.class, () -> editor.put(1, "changed"));
+        assertThrows(IllegalStateException.class, () -> editor.remove(1));
+        assertThrows(IllegalStateException.class, editor::done);
+        assertEquals("one", map.get(1));
+
+        PersistentIntMap.Editor<String> next = map.edit();
+        next.put(1, "changed");
+        assertEquals("changed", next.done().get(1));
+        assertEquals("one", map.get(1));
+    }
+}
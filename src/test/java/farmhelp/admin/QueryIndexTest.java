@@ -0,0 +1,83 @@
+package farmhelp.admin;
+
+import farmhelp.model.Allocation;
+import farmhelp.model.Farmer;
+import farmhelp.model.Request;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryIndexTest {
+    private final QueryIndex index = new QueryIndex();
+
+    @Test
+    void pagesFollowOnByIdUntilTheLastOne() {
+        for (int id = 1; id <= 5; id++) {
+            index.addFarmer(new Farmer(id, "Farmer " + id, "Chennai", "Rice", 2, 10_000));
+        }
+        Page<Farmer> first = index.farmers(null, null, -1, 2);
+        assertEquals(List.of(1, 2), ids(first, Farmer::getId));
+        assertEquals(2, first.getNextAfter());
+        Page<Farmer> second = index.farmers(null, null, first.getNextAfter(), 2);
+        assertEquals(List.of(3, 4), ids(second, Farmer::getId));
+        Page<Farmer> last = index.farmers(null, null, second.getNextAfter(), 2);
+        assertEquals(List.of(5), ids(last, Farmer::getId));
+        assertFalse(last.hasMore());
+        // A page that ends exactly on the last record does not promise another.
+        assertFalse(index.farmers(null, null, 1, 4).hasMore());
+        assertThrows(IllegalArgumentException.class, () -> index.farmers(null, null, -1, 0));
+    }
+
+    @Test
+    void nullFiltersMatchAnyValue() {
+        index.addFarmer(new Farmer(1, "A", "Chennai", "Rice", 2, 10_000));
+        index.addFarmer(new Farmer(2, "B", "Madurai", "Rice", 2, 10_000));
+        index.addFarmer(new Farmer(3, "C", "Chennai", "Cotton", 2, 10_000));
+
+        assertEquals(List.of(1, 3), ids(index.farmers("CHENNAI", null, -1, 10), Farmer::getId));
+        assertEquals(List.of(1, 2), ids(index.farmers(null, "RICE", -1, 10), Farmer::getId));
+        assertEquals(List.of(1), ids(index.farmers("Chennai", "Rice", -1, 10), Farmer::getId));
+        assertTrue(index.farmers("Salem", null, -1, 10).getItems().isEmpty());
+    }
+
+    @Test
+    void removedRequestsLeaveEveryKey() {
+        Request harvest = new Request(1, 1, "Harvesting", 2, 1_000);
+        Request weed = new Request(2, 1, "Weeding", 1, 1_000);
+        index.addRequest(harvest, "chennai");
+        index.addRequest(weed, "chennai");
+        assertEquals(List.of(1, 2), ids(index.requests("Chennai", null, -1, 10), Request::getRequestId));
+        assertEquals(List.of(2), ids(index.requests(null, "Weeding", -1, 10), Request::getRequestId));
+
+        index.removeRequest(harvest, "chennai");
+        assertEquals(List.of(2), ids(index.requests(null, null, -1, 10), Request::getRequestId));
+        assertTrue(index.requests("Chennai", "Harvesting", -1, 10).getItems().isEmpty());
+    }
+
+    @Test
+    void closedAllocationsStayInHistoryButNotActive() {
+        Allocation held = new Allocation(1, 1, 7, new int[]{10, 11}, 1_000, Allocation.ALLOCATED);
+        Allocation booked = new Allocation(2, 2, 7, new int[]{10}, 1_000, Allocation.ALLOCATED, 5_000, 9_000);
+        index.addAllocation(held);
+        index.addAllocation(booked);
+        assertSame(held, index.activeAllocation(10));
+        assertEquals(List.of(1, 2), ids(index.allocationsByWorker(10, -1, 10), Allocation::getAllocationId));
+
+        index.allocationClosed(held);
+        assertNull(index.activeAllocation(10));
+        assertNull(index.activeAllocation(11));
+        assertEquals(List.of(1, 2), ids(index.allocationsByFarmer(7, -1, 10), Allocation::getAllocationId));
+    }
+
+    private static <T> List<Integer> ids(Page<T> page, Function<T, Integer> id) {
+        List<Integer> ids = new ArrayList<>();
+        for (T item : page.getItems()) {
+            ids.add(id.apply(item));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,59 @@
+package farmhelp.admin;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRoutingTest {
+    @Test
+    void shardRangesSplitThePositiveIntsAndMapBack() {
+        for (int count = 1; count <= 7; count++) {
+            ShardRouting routing = new ShardRouting(count);
+            int expectedFirst = 1;
+            for (int shard = 0; shard < count; shard++) {
+                IdRange range = routing.idRange(shard);
+                assertEquals(expectedFirst, range.getFirst(), range.toString());
+                assertEquals(shard, routing.shardForId(range.getFirst()));
+                assertEquals(shard, routing.shardForId(range.getLast()));
+                expectedFirst = range.getLast() + 1;
+            }
+            assertEquals(Integer.MAX_VALUE, routing.idRange(count - 1).getLast());
+            assertEquals(-1, routing.shardForId(0));
+            assertEquals(-1, routing.shardForId(-5));
+        }
+    }
+
+    @Test
+    void assignedLocationsOverrideTheHashInAnyCase() {
+        ShardRouting routing = new ShardRouting(3, Map.of("Chennai", 2));
+        assertEquals(2, routing.shardForLocation("CHENNAI"));
+        assertEquals(Math.floorMod("madurai".hashCode(), 3), routing.shardForLocation("Madurai"));
+        assertEquals(routing.shardForLocation("madurai"), new ShardRouting(3).shardForLocation("MADURAI"));
+        assertEquals(0, routing.shardForLocation(null));
+
+        assertThrows(IllegalArgumentException.class, () -> new ShardRouting(0));
+        assertThrows(IllegalArgumentException.class, () -> new ShardRouting(2, Map.of("Salem", 2)));
+        assertThrows(IllegalArgumentException.class, () -> IdRange.forShard(2, 2));
+    }
+
+    @Test
+    void sequenceStaysInsideItsRange() {
+        IdSequence sequence = new IdSequence(new IdRange(100, 109));
+        assertEquals(100, sequence.next());
+        assertEquals(101, sequence.reserve(5));
+        // IDs from outside the range, e.g. data written before sharding, are ignored.
+        sequence.advancePast(5_000);
+        sequence.advancePast(50);
+        assertEquals(106, sequence.next());
+        sequence.advancePast(107);
+        assertEquals(108, sequence.reserve(2));
+        assertThrows(IllegalStateException.class, sequence::next);
+
+        IdSequence last = new IdSequence(new IdRange(Integer.MAX_VALUE - 1, Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE - 1, last.reserve(2));
+        // The counter wraps past Integer.MAX_VALUE; that must not hand out negative IDs.
+        assertThrows(IllegalStateException.class, last::next);
+    }
+}
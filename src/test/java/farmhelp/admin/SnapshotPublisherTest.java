@@ -0,0 +1,73 @@
+package farmhelp.admin;
+
+import farmhelp.model.Allocation;
+import farmhelp.model.Farmer;
+import farmhelp.model.Request;
+import farmhelp.model.Worker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotPublisherTest {
+    private final Map<Integer, Farmer> farmers = new ConcurrentHashMap<>();
+    private final Map<Integer, Worker> workers = new ConcurrentHashMap<>();
+    private final Map<Integer, Request> requests = new ConcurrentHashMap<>();
+    private final Map<Integer, Allocation> allocations = new ConcurrentHashMap<>();
+    private final SnapshotPublisher publisher = new SnapshotPublisher(farmers, workers, requests, allocations);
+
+    @Test
+    void versionHoldsRecordsAsTheirBatchEnded() {
+        Worker worker = new Worker(1, "Test", "Chennai", List.of("Harvesting"), true);
+        workers.put(1, worker);
+        publisher.start();
+
+        worker.setAvailable(false);
+        publisher.workerChanged(1);
+        publisher.publish();
+        AdminSnapshot published = publisher.current();
+        assertEquals(2, published.getVersion());
+
+        // Changed again but not yet published: the version keeps the frozen copy.
+        worker.setAvailable(true);
+        assertSame(published, publisher.current());
+        assertFalse(published.getWorkers().get(1).isAvailable());
+
+        workers.remove(1);
+        publisher.workerChanged(1);
+        publisher.publish();
+        assertEquals(3, publisher.current().getVersion());
+        assertTrue(publisher.current().getWorkers().isEmpty());
+    }
+
+    @Test
+    void readersDoNotWaitForWriters() throws InterruptedException {
+        publisher.start();
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            // Writers apply batches under the publisher's monitor.
+            synchronized (publisher) {
+                held.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        writer.start();
+        held.await();
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertEquals(1, publisher.current().getVersion()));
+        } finally {
+            release.countDown();
+            writer.join();
+        }
+    }
+}
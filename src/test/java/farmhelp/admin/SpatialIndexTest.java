@@ -0,0 +1,78 @@
+package farmhelp.admin;
+
+import farmhelp.model.Vocabulary;
+import farmhelp.model.Worker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialIndexTest {
+    private final SpatialIndex index = new SpatialIndex();
+    private int nextId = 1;
+
+    private Worker add(double latitude, double longitude) {
+        Worker worker = new Worker(nextId++, "Worker", "Chennai", List.of("Harvesting"), true);
+        worker.setCoordinates(latitude, longitude);
+        worker.markRegistered();
+        index.add(worker);
+        return worker;
+    }
+
+    private List<Integer> nearest(double latitude, double longitude, double radiusKm, int limit) {
+        List<Integer> ids = new ArrayList<>();
+        for (Worker worker : index.nearest(latitude, longitude, Vocabulary.findSkill("Harvesting"), radiusKm, limit, w -> true)) {
+            ids.add(worker.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    void returnsTheNearestWithinTheRadiusNearestFirst() {
+        add(13.30, 80.27);          // about 24 km north
+        add(13.09, 80.27);          // about 1 km, the next cell over
+        Worker tied = add(13.08, 80.28);
+        add(13.08, 80.28);          // same spot, higher ID
+        add(14.50, 80.27);          // about 158 km
+
+        assertEquals(List.of(tied.getId(), tied.getId() + 1, 2, 1), nearest(13.08, 80.27, 50, 10));
+        assertEquals(List.of(tied.getId(), tied.getId() + 1), nearest(13.08, 80.27, 50, 2));
+        assertEquals(List.of(tied.getId(), tied.getId() + 1, 2, 1, 5), nearest(13.08, 80.27, 200, 10));
+        assertTrue(nearest(10.0, 77.0, 50, 10).isEmpty());
+    }
+
+    @Test
+    void skipsRemovedAndIneligibleWorkers() {
+        Worker near = add(13.08, 80.27);
+        Worker far = add(13.20, 80.27);
+        index.remove(near);
+        assertEquals(List.of(far.getId()), nearest(13.08, 80.27, 50, 5));
+        assertTrue(index.nearest(13.08, 80.27, Vocabulary.findSkill("Harvesting"), 50, 5, w -> w != far).isEmpty());
+        assertTrue(index.nearest(13.08, 80.27, -1, 50, 5, w -> true).isEmpty());
+    }
+
+    @Test
+    void ringsReachAcrossManyEmptyCells() {
+        // 0.9 degrees of latitude is 18 rings of cells away.
+        Worker worker = add(13.98, 80.27);
+        assertEquals(List.of(worker.getId()), nearest(13.08, 80.27, 120, 1));
+        assertTrue(nearest(13.08, 80.27, 90, 1).isEmpty());
+        assertEquals(111.19, SpatialIndex.distanceKm(0, 0, 1, 0), 0.01);
+    }
+
+    @Test
+    void searchesNearThePoleReachAroundItWithoutScanningEveryRing() {
+        // Half a circle of longitude away, but only about 11 km across the pole.
+        Worker across = add(89.95, -170);
+        add(80.0, 10);
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            for (int i = 0; i < 20; i++) {
+                assertEquals(List.of(across.getId()), nearest(89.99, 10, 50, 5));
+                assertTrue(nearest(-89.99, 10, 50, 5).isEmpty());
+            }
+        });
+    }
+}
@@ -0,0 +1,62 @@
+package farmhelp.admin;
+
+import farmhelp.model.Vocabulary;
+import farmhelp.model.Worker;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkerIndexTest {
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    private final WorkerIndex index = new WorkerIndex();
+    private final int location = Vocabulary.locationCode("Worker index test");
+    private final int skill = Vocabulary.skillCode("Harvesting");
+
+    private Worker worker(int id) {
+        Worker worker = new Worker(id, "Worker" + id, "Worker index test", List.of("Harvesting"), true);
+        index.add(worker);
+        return worker;
+    }
+
+    @Test
+    void fullyBookedWindowIsRememberedUntilABookingIsCancelled() {
+        Worker first = worker(1);
+        Worker second = worker(2);
+        assertTrue(first.book(10 * DAY, 12 * DAY));
+        assertTrue(second.book(11 * DAY, 13 * DAY));
+
+        assertEquals(List.of(), index.findFree(location, skill, 2, 11 * DAY, 12 * DAY));
+        // A window containing one nobody was free for finds nobody either.
+        assertEquals(List.of(), index.findFree(location, skill, 2, 10 * DAY, 14 * DAY));
+        assertEquals(List.of(first), index.findFree(location, skill, 2, 12 * DAY, 13 * DAY));
+
+        assertTrue(second.cancelBooking(11 * DAY, 13 * DAY));
+        index.bookingCancelled(second);
+        assertEquals(List.of(second), index.findFree(location, skill, 2, 11 * DAY, 12 * DAY));
+    }
+
+    @Test
+    void openEndedHoldIsRememberedUntilTheEarliestBookingEnds() {
+        Worker first = worker(1);
+        Worker second = worker(2);
+        assertTrue(first.book(10 * DAY, 12 * DAY));
+        assertTrue(second.book(11 * DAY, 13 * DAY));
+
+        assertEquals(List.of(), index.findFree(location, skill, 1, 5 * DAY, Long.MAX_VALUE));
+        assertEquals(List.of(), index.findFree(location, skill, 1, 12 * DAY - 1, Long.MAX_VALUE));
+        assertEquals(List.of(first), index.findFree(location, skill, 1, 12 * DAY, Long.MAX_VALUE));
+    }
+
+    @Test
+    void newWorkerIsFoundDespiteARememberedWindow() {
+        Worker first = worker(1);
+        assertTrue(first.book(10 * DAY, 12 * DAY));
+        assertEquals(List.of(), index.findFree(location, skill, 1, 10 * DAY, 11 * DAY));
+
+        Worker second = worker(2);
+        assertEquals(List.of(second), index.findFree(location, skill, 1, 10 * DAY, 11 * DAY));
+    }
+}
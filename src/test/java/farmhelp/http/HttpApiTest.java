@@ -0,0 +1,120 @@
+package farmhelp.http;
+
+import farmhelp.admin.Admin;
+import farmhelp.admin.IdRange;
+import farmhelp.admin.ShardRouting;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpApiTest {
+    @TempDir
+    Path dataDir;
+
+    private Admin admin;
+    private HttpApi api;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void start() throws Exception {
+        admin = new Admin(dataDir.toFile(), IdRange.ALL, false, Integer.MAX_VALUE, false);
+        api = new HttpApi(admin, 0, 2);
+        api.start();
+    }
+
+    @AfterEach
+    void stop() {
+        api.stop(0);
+        admin.shutdown();
+    }
+
+    @Test
+    void rejectsTextThatWouldBreakTheJournal() throws Exception {
+        // A newline would start a forged record, a comma shifts the fields, a bar splits a skill.
+        assertEquals(400, post("/farmers", "{\"name\":\"Ravi\\nF,99,Evil,Chennai,Rice,5,0\",\"location\":\"Chennai\","
+                + "\"crop\":\"Rice\",\"landSize\":5,\"income\":1000}"));
+        assertEquals(400, post("/farmers", "{\"name\":\"Ravi\",\"location\":\"Chennai, North\","
+                + "\"crop\":\"Rice\",\"landSize\":5,\"income\":1000}"));
+        assertEquals(400, post("/workers", "{\"name\":\"Mani\",\"location\":\"Chennai\",\"skills\":[\"Harvesting|Sowing\"]}"));
+        assertEquals(201, post("/farmers", "{\"name\":\"Ravi\",\"location\":\"Chennai\","
+                + "\"crop\":\"Rice\",\"landSize\":5,\"income\":1000}"));
+        int farmerId = admin.getFarmers().keySet().iterator().next();
+        assertEquals(400, post("/requests", "{\"farmerId\":" + farmerId + ",\"skill\":\"Harvesting,2\",\"workers\":1}"));
+        assertEquals(400, post("/requests", "{\"farmerId\":" + farmerId + ",\"skill\":\"Harvesting\\r\",\"workers\":1}"));
+
+        assertEquals(1, admin.getFarmers().size());
+        assertEquals(0, admin.getWorkers().size());
+        assertEquals(0, admin.getRequests().size());
+    }
+
+    @Test
+    void rejectsNumbersThatAreNotWholeOrOutOfRange() throws Exception {
+        assertEquals(201, post("/farmers", "{\"name\":\"Ravi\",\"location\":\"Chennai\","
+                + "\"crop\":\"Rice\",\"landSize\":5,\"income\":1000}"));
+        int farmerId = admin.getFarmers().keySet().iterator().next();
+        String request = "{\"skill\":\"Harvesting\",";
+        assertEquals(400, post("/requests", request + "\"farmerId\":" + farmerId + ".5,\"workers\":1}"));
+        assertEquals(400, post("/requests", request + "\"farmerId\":" + (farmerId + (1L << 32)) + ",\"workers\":1}"));
+        assertEquals(400, post("/requests", request + "\"farmerId\":" + farmerId + ",\"workers\":1.9}"));
+        assertEquals(400, post("/requests", request + "\"farmerId\":" + farmerId + ",\"workers\":1e10}"));
+        assertEquals(400, post("/requests", request + "\"farmerId\":" + farmerId + ",\"workers\":1,"
+                + "\"workStart\":1000.5,\"workEnd\":2000}"));
+        assertEquals(400, post("/requests", request + "\"farmerId\":" + farmerId + ",\"workers\":1,"
+                + "\"workStart\":1000,\"workEnd\":1e300}"));
+        assertEquals(0, admin.getRequests().size());
+        assertEquals(201, post("/requests", request + "\"farmerId\":" + farmerId + ",\"workers\":2,"
+                + "\"workStart\":1000,\"workEnd\":2000}"));
+        assertEquals(1, admin.getRequests().size());
+    }
+
+    @Test
+    void refusesBodiesAndBatchesOverTheLimits() throws Exception {
+        String farmer = "{\"name\":\"Ravi\",\"location\":\"Chennai\",\"crop\":\"Rice\",\"landSize\":5,\"income\":1000}";
+        assertEquals(413, post("/farmers", "[" + " ".repeat(HttpApi.MAX_BODY_BYTES) + farmer + "]"));
+        String batch = "[" + String.join(",", Collections.nCopies(HttpApi.MAX_BATCH_SIZE + 1, farmer)) + "]";
+        assertEquals(413, post("/farmers", batch));
+        assertEquals(0, admin.getFarmers().size());
+        assertEquals(200, post("/farmers", "[" + farmer + "," + farmer + "]"));
+        assertEquals(2, admin.getFarmers().size());
+    }
+
+    @Test
+    void shardRefusesLocationsItDoesNotOwn() throws Exception {
+        ShardRouting routing = new ShardRouting(2, Map.of("Chennai", 0, "Madurai", 1));
+        Admin shard = new Admin(dataDir.resolve("shard-0").toFile(), routing, 0, false, Integer.MAX_VALUE, false);
+        HttpApi shardApi = new HttpApi(shard, 0, 2);
+        shardApi.start();
+        try {
+            String farmer = "{\"name\":\"Ravi\",\"crop\":\"Rice\",\"landSize\":5,\"income\":1000,\"location\":";
+            assertEquals(400, post(shardApi, "/farmers", farmer + "\"Madurai\"}"));
+            assertEquals(400, post(shardApi, "/workers", "{\"name\":\"Mani\",\"location\":\"madurai\",\"skills\":[\"Sowing\"]}"));
+            assertEquals(201, post(shardApi, "/farmers", farmer + "\"Chennai\"}"));
+            assertEquals(1, shard.getFarmers().size());
+            assertTrue(routing.idRange(0).contains(shard.getFarmers().keySet().iterator().next()));
+        } finally {
+            shardApi.stop(0);
+            shard.shutdown();
+        }
+    }
+
+    private int post(String path, String body) throws Exception {
+        return post(api, path, body);
+    }
+
+    private int post(HttpApi api, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + api.getPort() + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,59 @@
+package farmhelp.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class WorkerTest {
+    @Test
+    void unknownSkillCodeNeverMatches() {
+        // Register skills until one gets code 63, the bit a negative shift would land on.
+        String skill;
+        int code;
+        int n = 0;
+        do {
+            skill = "Worker test skill " + n++;
+            code = Vocabulary.skillCode(skill);
+        } while (code < 63);
+        assumeTrue(code == 63, "vocabulary already past code 63");
+
+        Worker worker = new Worker(1, "Test", "Chennai", List.of(skill), true);
+        assertTrue(worker.hasSkill(63));
+        assertFalse(worker.hasSkill(-1));
+        assertFalse(worker.hasSkill(Vocabulary.findSkill("No such skill")));
+        assertFalse(worker.hasSkill("No such skill"));
+    }
+
+    @Test
+    void rejectedWorkersLeaveTheVocabularyAlone() {
+        String skill = "Worker test draft skill";
+        String town = "Worker test town";
+        Worker rejected = new Worker(1, "Bad|name", town, Arrays.asList(skill, null), true);
+        assertFalse(rejected.validate());
+        assertEquals(Arrays.asList(skill, null), rejected.getSkills());
+        assertEquals(-1, Vocabulary.findSkill(skill));
+        assertEquals(-1, Vocabulary.findLocation(town));
+
+        Worker accepted = new Worker(2, "Test", town, List.of(skill), true);
+        assertTrue(accepted.validate());
+        assertFalse(accepted.hasSkill(skill));
+        accepted.markRegistered();
+        assertTrue(accepted.hasSkill(skill));
+        assertEquals(List.of(skill), accepted.getSkills());
+        assertEquals(accepted.getLocationCode(), Vocabulary.findLocation("WORKER TEST TOWN"));
+    }
+
+    @Test
+    void coordinatesAreFixedOnceRegistered() {
+        Worker worker = new Worker(1, "Test", "Chennai", List.of("Harvesting"), true);
+        worker.setCoordinates(13.0, 80.2);
+        worker.markRegistered();
+        assertThrows(IllegalStateException.class, () -> worker.setCoordinates(0, 0));
+        assertThrows(IllegalStateException.class, () -> new Worker(worker).setCoordinates(0, 0));
+        assertEquals(13.0, worker.getLatitude());
+    }
+}